@@ -0,0 +1,92 @@
+package com.sumologic.jenkins.jenkinssumologicplugin.metrics;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricFilter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.sumologic.jenkins.jenkinssumologicplugin.constants.MetricDataFormatEnum;
+import com.sumologic.jenkins.jenkinssumologicplugin.constants.MetricStatisticEnum;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import java.util.SortedMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sumo Logic plugin for Jenkins model.
+ * <p>
+ * Formatting of one report of a registry filled with synthetic gauges, counters and timers.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SumoMetricReporterBenchmark {
+
+    @Param({"50", "500"})
+    public int metricsPerType;
+
+    @Param({"GRAPHITE", "CARBON2"})
+    public MetricDataFormatEnum format;
+
+    @Param({"default", "all"})
+    public String statistics;
+
+    private SumoMetricReporter reporter;
+    private SortedMap<String, Gauge> gauges;
+    private SortedMap<String, Counter> counters;
+    private SortedMap<String, Histogram> histograms;
+    private SortedMap<String, Meter> meters;
+    private SortedMap<String, Timer> timers;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        MetricRegistry registry = new MetricRegistry();
+        Random random = new Random(42);
+        for (int i = 0; i < metricsPerType; i++) {
+            double value = random.nextDouble() * 1000;
+            registry.register("jenkins.gauge" + i + ".value", (Gauge<Double>) () -> value);
+            registry.counter("jenkins.counter" + i).inc(random.nextInt(1000));
+            Timer timer = registry.timer("jenkins.timer" + i + ".duration");
+            for (int j = 0; j < 100; j++) {
+                timer.update(random.nextInt(10000), TimeUnit.MILLISECONDS);
+            }
+            registry.histogram("jenkins.histogram" + i).update(random.nextInt(1000));
+            registry.meter("jenkins.meter" + i).mark(random.nextInt(1000));
+        }
+        gauges = registry.getGauges();
+        counters = registry.getCounters();
+        histograms = registry.getHistograms();
+        meters = registry.getMeters();
+        timers = registry.getTimers();
+        SumoMetricReporter.Builder builder = SumoMetricReporter.forRegistry(registry)
+                .prefixedWith("benchmark")
+                .formattedAs(format)
+                .onNode("benchmark-node")
+                .convertRatesTo(TimeUnit.SECONDS)
+                .convertDurationsTo(TimeUnit.MILLISECONDS)
+                .filter(MetricFilter.ALL);
+        if ("all".equals(statistics)) {
+            builder.withStatistics(EnumSet.allOf(MetricStatisticEnum.class));
+        }
+        reporter = builder.build(null);
+    }
+
+    @Benchmark
+    public List<String> buildMessages() throws IOException {
+        return reporter.buildMessages(gauges, counters, histograms, meters, timers);
+    }
+}
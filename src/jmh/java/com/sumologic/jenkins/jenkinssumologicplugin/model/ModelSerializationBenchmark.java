@@ -0,0 +1,85 @@
+package com.sumologic.jenkins.jenkinssumologicplugin.model;
+
+import com.google.gson.Gson;
+import com.sumologic.jenkins.jenkinssumologicplugin.utility.SumoGson;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sumo Logic plugin for Jenkins model.
+ * <p>
+ * Serializing the models sent on every build and periodic run: a new Gson per call as the plugin used to do, a
+ * shared reflective Gson, and the shared Gson with the hand-written adapters.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ModelSerializationBenchmark {
+
+    private final Gson reflective = new Gson();
+    private BuildModel buildModel;
+    private SlaveModel slaveModel;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        buildModel = new BuildModel();
+        buildModel.setName("benchmark");
+        buildModel.setNumber(42);
+        buildModel.setResult("SUCCESS");
+        buildModel.setStart_time(1557300000000L);
+        buildModel.setDuration(125000);
+        buildModel.setJobRunDuration(125.0f);
+        buildModel.setJobType("Pipeline Build");
+        buildModel.setUser("admin");
+        buildModel.setJobBuildURL("http://localhost:8080/job/benchmark/42/");
+        Map<String, Object> metaData = new HashMap<>();
+        metaData.put("branch", "master");
+        buildModel.setJobMetaData(metaData);
+
+        slaveModel = new SlaveModel(4, 2);
+        slaveModel.setNodeName("agent-1");
+        slaveModel.setNodeStatus("online");
+        slaveModel.setOnline(true);
+        slaveModel.setLogType("Slave_Details");
+        slaveModel.setEventTime("2019-05-08 10:00:00,000 +0000");
+        Map<String, Object> monitorData = new HashMap<>();
+        monitorData.put("Free Disk Space", "12.5 GB");
+        monitorData.put("Response Time", "12ms");
+        slaveModel.setMonitorData(monitorData);
+    }
+
+    @Benchmark
+    public String buildModelNewGson() {
+        return new Gson().toJson(buildModel);
+    }
+
+    @Benchmark
+    public String buildModelSharedReflective() {
+        return reflective.toJson(buildModel);
+    }
+
+    @Benchmark
+    public String buildModelAdapter() {
+        return SumoGson.toJson(buildModel);
+    }
+
+    @Benchmark
+    public String slaveModelNewGson() {
+        return new Gson().toJson(slaveModel);
+    }
+
+    @Benchmark
+    public String slaveModelAdapter() {
+        return SumoGson.toJson(slaveModel);
+    }
+}
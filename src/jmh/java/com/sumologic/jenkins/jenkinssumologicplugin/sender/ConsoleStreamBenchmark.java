@@ -0,0 +1,67 @@
+package com.sumologic.jenkins.jenkinssumologicplugin.sender;
+
+import org.apache.commons.io.output.NullOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sumo Logic plugin for Jenkins model.
+ * <p>
+ * Per line cost of the console streams every build writes through: the timestamping stream, and the streaming
+ * stream which batches lines and hands them to the send queue, here posting to a local stub collector.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ConsoleStreamBenchmark {
+
+    private static final int LINES = 1000;
+
+    @Param({"80", "400"})
+    public int lineLength;
+
+    private byte[] console;
+    private StubSumoServer server;
+    private TimestampingOutputStream timestampingStream;
+    private SumologicOutputStream sumologicStream;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        console = SyntheticConsole.bytes(LINES, lineLength);
+        server = new StubSumoServer();
+        timestampingStream = new TimestampingOutputStream(new NullOutputStream());
+        sumologicStream = new SumologicOutputStream(new NullOutputStream(), "benchmark", "1", server.getUrl(),
+                "benchmark", "localhost", new SumologicOutputStream.State());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        timestampingStream.close();
+        sumologicStream.close();
+        server.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public void timestampingOutputStream() throws IOException {
+        timestampingStream.write(console);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public void sumologicOutputStream() throws IOException {
+        sumologicStream.write(console);
+    }
+}
@@ -0,0 +1,101 @@
+package com.sumologic.jenkins.jenkinssumologicplugin.sender;
+
+import com.sumologic.jenkins.jenkinssumologicplugin.model.TestCaseResultModel;
+import com.sumologic.jenkins.jenkinssumologicplugin.utility.SumoGson;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.sumologic.jenkins.jenkinssumologicplugin.constants.SumoConstants.MAX_DATA_SIZE;
+
+/**
+ * Sumo Logic plugin for Jenkins model.
+ * <p>
+ * The steps between collected data and the wire: compressing a batch, dividing messages into batches, chunking
+ * test results into JSON documents, and a complete send of one batch to a local stub collector.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SenderBenchmark {
+
+    @Param({"65536", "1048576"})
+    public int batchBytes;
+
+    private byte[] batch;
+    private List<String> messages;
+    private List<TestCaseResultModel> testResults;
+    private final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    private StubSumoServer server;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        messages = SyntheticConsole.lines(batchBytes / 120, 120);
+        batch = String.join("\n", messages).getBytes(StandardCharsets.UTF_8);
+        testResults = new ArrayList<>();
+        for (int i = 0; i < batchBytes / 200; i++) {
+            TestCaseResultModel result = new TestCaseResultModel();
+            result.setClassName("com.example.service.OrderServiceTest");
+            result.setTestName("placesOrder" + i);
+            result.setStatus(i % 50 == 0 ? "Failed" : "Passed");
+            result.setDuration(0.01f * (i % 100));
+            if (i % 50 == 0) {
+                result.setErrorDetails("expected:<" + i + "> but was:<" + (i + 1) + ">");
+            }
+            testResults.add(result);
+        }
+        server = new StubSumoServer();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.close();
+    }
+
+    @Benchmark
+    public int compress() throws IOException {
+        compressed.reset();
+        GzipCompressor.compress(batch, 0, batch.length, compressed);
+        return compressed.size();
+    }
+
+    @Benchmark
+    public List<String> divide() {
+        return LogBatchSizer.divide(messages);
+    }
+
+    @Benchmark
+    public void chunkTestResults(Blackhole blackhole) {
+        Map<String, Object> header = new LinkedHashMap<>();
+        header.put("logType", "Test_Result");
+        header.put("name", "benchmark");
+        header.put("number", 1);
+        JsonChunkWriter<TestCaseResultModel> writer = new JsonChunkWriter<>(SumoGson.getInstance(), header,
+                "testResult", MAX_DATA_SIZE, blackhole::consume);
+        testResults.forEach(writer::write);
+        writer.flush();
+    }
+
+    @Benchmark
+    public boolean sendToStub() {
+        return LogSender.getInstance().sendWithoutSpooling(server.getUrl(), batch, "benchmark", "benchmark", null,
+                null, "localhost");
+    }
+}
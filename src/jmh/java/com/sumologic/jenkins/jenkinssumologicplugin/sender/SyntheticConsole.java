@@ -0,0 +1,49 @@
+package com.sumologic.jenkins.jenkinssumologicplugin.sender;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Sumo Logic plugin for Jenkins model.
+ * <p>
+ * Console output for the benchmarks: build tool style lines of a given length, with every tenth line an indented
+ * stack trace line so the multiline handling is exercised as well. A fixed seed keeps runs comparable.
+ */
+public class SyntheticConsole {
+
+    private static final String WORDS = "[INFO] Compiling Downloading from central https://repo.maven.apache.org "
+            + "BUILD SUCCESS Tests run: 42, Failures: 0, Errors: 0, Skipped: 1 com.example.service.OrderService ";
+
+    private SyntheticConsole() {
+    }
+
+    public static List<String> lines(int count, int length) {
+        Random random = new Random(42);
+        List<String> lines = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            StringBuilder line = new StringBuilder(length);
+            if (i % 10 == 9) {
+                line.append("\tat com.example.service.OrderService.place(OrderService.java:").append(i).append(')');
+            }
+            while (line.length() < length) {
+                int start = random.nextInt(WORDS.length());
+                line.append(WORDS, start, Math.min(WORDS.length(), start + length - line.length()));
+            }
+            lines.add(line.toString());
+        }
+        return lines;
+    }
+
+    public static byte[] bytes(int count, int length) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(count * (length + 1));
+        for (String line : lines(count, length)) {
+            byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+            out.write(bytes, 0, bytes.length);
+            out.write('\n');
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,49 @@
+package com.sumologic.jenkins.jenkinssumologicplugin.utility;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+/**
+ * Sumo Logic plugin for Jenkins model.
+ * <p>
+ * Formatting of Jenkins log records into the JSON sent to the periodic source category, with and without a stack
+ * trace.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LogRecordFormatterBenchmark {
+
+    private final SumoLogHandler.LogRecordFormatter formatter = new SumoLogHandler.LogRecordFormatter();
+    private final LogRecord info = record(Level.INFO, "Started build {0} of {1}", null);
+    private final LogRecord warning = record(Level.WARNING, "Failed to connect to {0} of {1}",
+            new IOException("Connection refused"));
+
+    private static LogRecord record(Level level, String message, Throwable thrown) {
+        LogRecord record = new LogRecord(level, message);
+        record.setParameters(new Object[]{"#42", "benchmark"});
+        record.setLoggerName("hudson.model.Run");
+        record.setSourceClassName("hudson.model.Run");
+        record.setThrown(thrown);
+        return record;
+    }
+
+    @Benchmark
+    public String formatRecord() {
+        return formatter.formatRecord(info);
+    }
+
+    @Benchmark
+    public String formatRecordWithStackTrace() {
+        return formatter.formatRecord(warning);
+    }
+}
@@ -17,13 +17,28 @@ def sumoLogic = Jenkins.getInstance().getDescriptor(SumoBuildNotifier.class)
 
 sumoLogic.setQueryPortal('service.eu.sumologic.com')
 sumoLogic.setMetricDataPrefix('jenkinsMetricDataPrefix')
+sumoLogic.setMetricDataCarbon2Enabled(false)
+sumoLogic.setMetricDataStatistics('count, max, mean, min, p95, p99, m1_rate')
+sumoLogic.setMetricDataFilter('jenkins.*.duration')
+sumoLogic.setMetricDataInterval(120)
+sumoLogic.setMetricDataChangesOnly(false)
 sumoLogic.setUrl('https://<get_your_sumologic_http_source_url_here>')
 sumoLogic.setSourceCategory('jenkins')
 sumoLogic.setKeepOldConfigData(false)
 sumoLogic.setMetricDataEnabled(true)
 sumoLogic.setAuditLogEnabled(true)
 sumoLogic.setPeriodicLogEnabled(true)
+sumoLogic.setPeriodicChangesOnly(false)
+sumoLogic.setQueueEventsEnabled(false)
+sumoLogic.setPeriodicNodesEnabled(true)
+sumoLogic.setPeriodicNodesInterval(600)
+sumoLogic.setPeriodicQueueEnabled(true)
+sumoLogic.setPeriodicQueueInterval(15)
+sumoLogic.setPeriodicQueueTimeout(10)
+sumoLogic.setPeriodicBuildsEnabled(true)
+sumoLogic.setPeriodicBuildsInterval(180)
 sumoLogic.setScmLogEnabled(false)
 sumoLogic.setJobStatusLogEnabled(true)
 sumoLogic.setJobConsoleLogEnabled(true)
+sumoLogic.setJobConsoleLogStreamingEnabled(false)
 sumoLogic.save()
\ No newline at end of file
@@ -1,11 +1,18 @@
 package com.sumologic.jenkins.jenkinssumologicplugin;
 
-import com.google.gson.Gson;
 import com.sumologic.jenkins.jenkinssumologicplugin.constants.EventSourceEnum;
 import com.sumologic.jenkins.jenkinssumologicplugin.constants.LogTypeEnum;
+import com.sumologic.jenkins.jenkinssumologicplugin.constants.MetricDataFormatEnum;
+import com.sumologic.jenkins.jenkinssumologicplugin.constants.MetricStatisticEnum;
 import com.sumologic.jenkins.jenkinssumologicplugin.metrics.SumoMetricDataPublisher;
+import com.sumologic.jenkins.jenkinssumologicplugin.metrics.SumoMetricFilter;
 import com.sumologic.jenkins.jenkinssumologicplugin.sender.LogSender;
+import com.sumologic.jenkins.jenkinssumologicplugin.sender.LogBatchCoalescer;
+import com.sumologic.jenkins.jenkinssumologicplugin.sender.LogSendQueue;
 import com.sumologic.jenkins.jenkinssumologicplugin.sender.LogSenderHelper;
+import com.sumologic.jenkins.jenkinssumologicplugin.sender.LogSpool;
+import com.sumologic.jenkins.jenkinssumologicplugin.sender.SumoPeriodicPublisher;
+import com.sumologic.jenkins.jenkinssumologicplugin.utility.SumoGson;
 import com.sumologic.jenkins.jenkinssumologicplugin.utility.SumoLogHandler;
 import hudson.Extension;
 import hudson.ExtensionList;
@@ -13,6 +20,7 @@ import hudson.init.Initializer;
 import hudson.init.TermMilestone;
 import hudson.init.Terminator;
 import hudson.model.AbstractProject;
+import hudson.model.PeriodicWork;
 import hudson.tasks.BuildStepDescriptor;
 import hudson.tasks.Publisher;
 import hudson.util.FormValidation;
@@ -20,8 +28,8 @@ import hudson.util.Secret;
 import jenkins.model.Jenkins;
 import jenkins.util.Timer;
 import net.sf.json.JSONObject;
-import org.apache.commons.httpclient.StatusLine;
 import org.apache.commons.lang.StringUtils;
+import org.apache.http.StatusLine;
 import org.kohsuke.accmod.Restricted;
 import org.kohsuke.accmod.restrictions.NoExternalUse;
 import org.kohsuke.stapler.QueryParameter;
@@ -35,6 +43,7 @@ import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Handler;
 import java.util.logging.Logger;
+import java.util.regex.PatternSyntaxException;
 
 import static com.sumologic.jenkins.jenkinssumologicplugin.constants.SumoConstants.DATETIME_FORMATTER;
 import static hudson.init.InitMilestone.JOB_LOADED;
@@ -55,12 +64,29 @@ public final class PluginDescriptorImpl extends BuildStepDescriptor<Publisher> {
     private String queryPortal;
     private String sourceCategory;
     private String metricDataPrefix;
+    private boolean metricDataCarbon2Enabled;
+    private String metricDataStatistics;
+    private String metricDataFilter;
+    private boolean metricDataChangesOnly;
+    private int metricDataInterval = SumoMetricDataPublisher.DEFAULT_INTERVAL_SECONDS;
     private boolean auditLogEnabled;
     private boolean keepOldConfigData;
     private boolean metricDataEnabled;
     private boolean periodicLogEnabled;
+    private boolean periodicChangesOnly;
+    private boolean queueEventsEnabled;
+    private boolean periodicNodesEnabled = true;
+    private int periodicNodesInterval = SumoPeriodicPublisher.DEFAULT_INTERVAL_SECONDS;
+    private int periodicNodesTimeout;
+    private boolean periodicQueueEnabled = true;
+    private int periodicQueueInterval = SumoPeriodicPublisher.DEFAULT_INTERVAL_SECONDS;
+    private int periodicQueueTimeout;
+    private boolean periodicBuildsEnabled = true;
+    private int periodicBuildsInterval = SumoPeriodicPublisher.DEFAULT_INTERVAL_SECONDS;
+    private int periodicBuildsTimeout;
     private boolean jobStatusLogEnabled;
     private boolean jobConsoleLogEnabled;
+    private boolean jobConsoleLogStreamingEnabled;
     private boolean scmLogEnabled;
 
     public PluginDescriptorImpl() {
@@ -69,7 +95,7 @@ public final class PluginDescriptorImpl extends BuildStepDescriptor<Publisher> {
         sumoMetricDataPublisher = new SumoMetricDataPublisher();
         if (metricDataEnabled && metricDataPrefix != null) {
             getSumoMetricDataPublisher().stopReporter();
-            getSumoMetricDataPublisher().publishMetricData(metricDataPrefix);
+            getSumoMetricDataPublisher().publishMetricData(this);
         }
         if (!metricDataEnabled) {
             getSumoMetricDataPublisher().stopReporter();
@@ -107,20 +133,41 @@ public final class PluginDescriptorImpl extends BuildStepDescriptor<Publisher> {
 
         auditLogEnabled = formData.getBoolean("auditLogEnabled");
         metricDataEnabled = formData.getBoolean("metricDataEnabled");
+        metricDataCarbon2Enabled = formData.getBoolean("metricDataCarbon2Enabled");
+        metricDataStatistics = formData.getString("metricDataStatistics");
+        metricDataFilter = formData.getString("metricDataFilter");
+        metricDataChangesOnly = formData.getBoolean("metricDataChangesOnly");
+        metricDataInterval = formData.optInt("metricDataInterval", SumoMetricDataPublisher.DEFAULT_INTERVAL_SECONDS);
         periodicLogEnabled = formData.getBoolean("periodicLogEnabled");
+        periodicChangesOnly = formData.getBoolean("periodicChangesOnly");
+        queueEventsEnabled = formData.getBoolean("queueEventsEnabled");
+        periodicNodesEnabled = formData.getBoolean("periodicNodesEnabled");
+        periodicNodesInterval = formData.optInt("periodicNodesInterval", SumoPeriodicPublisher.DEFAULT_INTERVAL_SECONDS);
+        periodicNodesTimeout = formData.optInt("periodicNodesTimeout", 0);
+        periodicQueueEnabled = formData.getBoolean("periodicQueueEnabled");
+        periodicQueueInterval = formData.optInt("periodicQueueInterval", SumoPeriodicPublisher.DEFAULT_INTERVAL_SECONDS);
+        periodicQueueTimeout = formData.optInt("periodicQueueTimeout", 0);
+        periodicBuildsEnabled = formData.getBoolean("periodicBuildsEnabled");
+        periodicBuildsInterval = formData.optInt("periodicBuildsInterval", SumoPeriodicPublisher.DEFAULT_INTERVAL_SECONDS);
+        periodicBuildsTimeout = formData.optInt("periodicBuildsTimeout", 0);
         jobStatusLogEnabled = formData.getBoolean("jobStatusLogEnabled");
         jobConsoleLogEnabled = formData.getBoolean("jobConsoleLogEnabled");
+        jobConsoleLogStreamingEnabled = formData.getBoolean("jobConsoleLogStreamingEnabled");
         scmLogEnabled = formData.getBoolean("scmLogEnabled");
         keepOldConfigData = formData.getBoolean("keepOldConfigData");
 
         save();
         if (metricDataEnabled && metricDataPrefix != null) {
             getSumoMetricDataPublisher().stopReporter();
-            getSumoMetricDataPublisher().publishMetricData(metricDataPrefix);
+            getSumoMetricDataPublisher().publishMetricData(this);
         }
         if (!metricDataEnabled) {
             getSumoMetricDataPublisher().stopReporter();
         }
+        SumoPeriodicPublisher periodicPublisher = PeriodicWork.all().get(SumoPeriodicPublisher.class);
+        if (periodicPublisher != null) {
+            periodicPublisher.applySchedules(this);
+        }
         return configOk;
     }
 
@@ -136,8 +183,12 @@ public final class PluginDescriptorImpl extends BuildStepDescriptor<Publisher> {
         shutDown.put("logType", LogTypeEnum.SLAVE_EVENT.getValue());
         shutDown.put("eventTime", DATETIME_FORMATTER.format(new Date()));
         shutDown.put("eventSource", EventSourceEnum.SHUTDOWN.getValue());
-        Gson gson = new Gson();
-        logSenderHelper.sendLogsToPeriodicSourceCategory(gson.toJson(shutDown));
+        logSenderHelper.sendLogsToPeriodicSourceCategory(SumoGson.toJson(shutDown));
+
+        // Give queued payloads, including the shutdown event, a chance to reach Sumo Logic before the JVM exits.
+        LogBatchCoalescer.getInstance().flushAll();
+        LogSendQueue.getInstance().shutdown(30, TimeUnit.SECONDS);
+        LogSpool.getInstance().close();
     }
 
     private static PluginDescriptorImpl checkIfPluginInUse() {
@@ -163,6 +214,69 @@ public final class PluginDescriptorImpl extends BuildStepDescriptor<Publisher> {
         return FormValidation.ok();
     }
 
+    public FormValidation doCheckMetricDataStatistics(@QueryParameter String value) {
+        if (StringUtils.isBlank(value)) {
+            return FormValidation.ok();
+        }
+        for (String statistic : value.split(",")) {
+            if (StringUtils.isNotBlank(statistic) && MetricStatisticEnum.fromValue(statistic) == null) {
+                return FormValidation.error("Unknown statistic " + statistic.trim() + ".");
+            }
+        }
+        return FormValidation.ok();
+    }
+
+    public FormValidation doCheckMetricDataFilter(@QueryParameter String value) {
+        try {
+            SumoMetricFilter.compile(value);
+        } catch (PatternSyntaxException e) {
+            return FormValidation.error("Invalid regular expression " + e.getPattern() + ".");
+        }
+        return FormValidation.ok();
+    }
+
+    public FormValidation doCheckMetricDataInterval(@QueryParameter String value) {
+        return checkSeconds(value, SumoMetricDataPublisher.MIN_INTERVAL_SECONDS, "interval");
+    }
+
+    public FormValidation doCheckPeriodicNodesInterval(@QueryParameter String value) {
+        return checkSeconds(value, SumoPeriodicPublisher.MIN_INTERVAL_SECONDS, "interval");
+    }
+
+    public FormValidation doCheckPeriodicQueueInterval(@QueryParameter String value) {
+        return checkSeconds(value, SumoPeriodicPublisher.MIN_INTERVAL_SECONDS, "interval");
+    }
+
+    public FormValidation doCheckPeriodicBuildsInterval(@QueryParameter String value) {
+        return checkSeconds(value, SumoPeriodicPublisher.MIN_INTERVAL_SECONDS, "interval");
+    }
+
+    public FormValidation doCheckPeriodicNodesTimeout(@QueryParameter String value) {
+        return checkSeconds(value, 0, "timeout");
+    }
+
+    public FormValidation doCheckPeriodicQueueTimeout(@QueryParameter String value) {
+        return checkSeconds(value, 0, "timeout");
+    }
+
+    public FormValidation doCheckPeriodicBuildsTimeout(@QueryParameter String value) {
+        return checkSeconds(value, 0, "timeout");
+    }
+
+    private static FormValidation checkSeconds(String value, int minSeconds, String name) {
+        if (StringUtils.isBlank(value)) {
+            return FormValidation.ok();
+        }
+        try {
+            if (Integer.parseInt(value.trim()) < minSeconds) {
+                return FormValidation.error("The " + name + " must be at least " + minSeconds + " seconds.");
+            }
+        } catch (NumberFormatException e) {
+            return FormValidation.error("The " + name + " must be a number of seconds.");
+        }
+        return FormValidation.ok();
+    }
+
     public FormValidation doTestURL(@QueryParameter("url") String url) {
         try {
             StatusLine output = LogSender.getInstance().testHTTPUrl(url);
@@ -216,6 +330,94 @@ public final class PluginDescriptorImpl extends BuildStepDescriptor<Publisher> {
         this.periodicLogEnabled = periodicLogEnabled;
     }
 
+    public boolean isPeriodicChangesOnly() {
+        return periodicChangesOnly;
+    }
+
+    public void setPeriodicChangesOnly(boolean periodicChangesOnly) {
+        this.periodicChangesOnly = periodicChangesOnly;
+    }
+
+    public boolean isQueueEventsEnabled() {
+        return queueEventsEnabled;
+    }
+
+    public void setQueueEventsEnabled(boolean queueEventsEnabled) {
+        this.queueEventsEnabled = queueEventsEnabled;
+    }
+
+    public boolean isPeriodicNodesEnabled() {
+        return periodicNodesEnabled;
+    }
+
+    public void setPeriodicNodesEnabled(boolean periodicNodesEnabled) {
+        this.periodicNodesEnabled = periodicNodesEnabled;
+    }
+
+    public int getPeriodicNodesInterval() {
+        return periodicNodesInterval;
+    }
+
+    public void setPeriodicNodesInterval(int periodicNodesInterval) {
+        this.periodicNodesInterval = periodicNodesInterval;
+    }
+
+    public int getPeriodicNodesTimeout() {
+        return periodicNodesTimeout;
+    }
+
+    public void setPeriodicNodesTimeout(int periodicNodesTimeout) {
+        this.periodicNodesTimeout = periodicNodesTimeout;
+    }
+
+    public boolean isPeriodicQueueEnabled() {
+        return periodicQueueEnabled;
+    }
+
+    public void setPeriodicQueueEnabled(boolean periodicQueueEnabled) {
+        this.periodicQueueEnabled = periodicQueueEnabled;
+    }
+
+    public int getPeriodicQueueInterval() {
+        return periodicQueueInterval;
+    }
+
+    public void setPeriodicQueueInterval(int periodicQueueInterval) {
+        this.periodicQueueInterval = periodicQueueInterval;
+    }
+
+    public int getPeriodicQueueTimeout() {
+        return periodicQueueTimeout;
+    }
+
+    public void setPeriodicQueueTimeout(int periodicQueueTimeout) {
+        this.periodicQueueTimeout = periodicQueueTimeout;
+    }
+
+    public boolean isPeriodicBuildsEnabled() {
+        return periodicBuildsEnabled;
+    }
+
+    public void setPeriodicBuildsEnabled(boolean periodicBuildsEnabled) {
+        this.periodicBuildsEnabled = periodicBuildsEnabled;
+    }
+
+    public int getPeriodicBuildsInterval() {
+        return periodicBuildsInterval;
+    }
+
+    public void setPeriodicBuildsInterval(int periodicBuildsInterval) {
+        this.periodicBuildsInterval = periodicBuildsInterval;
+    }
+
+    public int getPeriodicBuildsTimeout() {
+        return periodicBuildsTimeout;
+    }
+
+    public void setPeriodicBuildsTimeout(int periodicBuildsTimeout) {
+        this.periodicBuildsTimeout = periodicBuildsTimeout;
+    }
+
     public boolean isJobStatusLogEnabled() {
         return jobStatusLogEnabled;
     }
@@ -232,6 +434,14 @@ public final class PluginDescriptorImpl extends BuildStepDescriptor<Publisher> {
         this.jobConsoleLogEnabled = jobConsoleLogEnabled;
     }
 
+    public boolean isJobConsoleLogStreamingEnabled() {
+        return jobConsoleLogStreamingEnabled;
+    }
+
+    public void setJobConsoleLogStreamingEnabled(boolean jobConsoleLogStreamingEnabled) {
+        this.jobConsoleLogStreamingEnabled = jobConsoleLogStreamingEnabled;
+    }
+
     public boolean isScmLogEnabled() {
         return scmLogEnabled;
     }
@@ -248,6 +458,50 @@ public final class PluginDescriptorImpl extends BuildStepDescriptor<Publisher> {
         this.metricDataPrefix = metricDataPrefix;
     }
 
+    public boolean isMetricDataCarbon2Enabled() {
+        return metricDataCarbon2Enabled;
+    }
+
+    public void setMetricDataCarbon2Enabled(boolean metricDataCarbon2Enabled) {
+        this.metricDataCarbon2Enabled = metricDataCarbon2Enabled;
+    }
+
+    public String getMetricDataStatistics() {
+        return metricDataStatistics;
+    }
+
+    public void setMetricDataStatistics(String metricDataStatistics) {
+        this.metricDataStatistics = metricDataStatistics;
+    }
+
+    public String getMetricDataFilter() {
+        return metricDataFilter;
+    }
+
+    public void setMetricDataFilter(String metricDataFilter) {
+        this.metricDataFilter = metricDataFilter;
+    }
+
+    public boolean isMetricDataChangesOnly() {
+        return metricDataChangesOnly;
+    }
+
+    public void setMetricDataChangesOnly(boolean metricDataChangesOnly) {
+        this.metricDataChangesOnly = metricDataChangesOnly;
+    }
+
+    public int getMetricDataInterval() {
+        return metricDataInterval;
+    }
+
+    public void setMetricDataInterval(int metricDataInterval) {
+        this.metricDataInterval = metricDataInterval;
+    }
+
+    public MetricDataFormatEnum getMetricDataFormat() {
+        return metricDataCarbon2Enabled ? MetricDataFormatEnum.CARBON2 : MetricDataFormatEnum.GRAPHITE;
+    }
+
     public String getUrl() {
         return url.getPlainText();
     }
@@ -1,10 +1,10 @@
 package com.sumologic.jenkins.jenkinssumologicplugin;
 
-import com.google.gson.Gson;
 import com.sumologic.jenkins.jenkinssumologicplugin.integration.SearchAction;
 import com.sumologic.jenkins.jenkinssumologicplugin.model.BuildModel;
 import com.sumologic.jenkins.jenkinssumologicplugin.model.ModelFactory;
-import com.sumologic.jenkins.jenkinssumologicplugin.sender.LogSender;
+import com.sumologic.jenkins.jenkinssumologicplugin.sender.LogSenderHelper;
+import com.sumologic.jenkins.jenkinssumologicplugin.utility.SumoGson;
 import hudson.FilePath;
 import hudson.Launcher;
 import hudson.model.*;
@@ -34,7 +34,7 @@ import static com.sumologic.jenkins.jenkinssumologicplugin.utility.CommonModelFa
 public class SumoBuildNotifier extends Notifier implements SimpleBuildStep {
 
     private final static Logger LOG = Logger.getLogger(SumoBuildNotifier.class.getName());
-    private static LogSender logSender = LogSender.getInstance();
+    private static LogSenderHelper logSenderHelper = LogSenderHelper.getInstance();
 
     @DataBoundConstructor
     public SumoBuildNotifier() {
@@ -84,18 +84,14 @@ public class SumoBuildNotifier extends Notifier implements SimpleBuildStep {
     protected void send(Run build, TaskListener taskListener) {
         try {
             PluginDescriptorImpl descriptor = PluginDescriptorImpl.getInstance();
-            Gson gson = new Gson();
             BuildModel buildModel = ModelFactory.createBuildModel(build, descriptor);
-            String json = gson.toJson(buildModel);
+            String json = SumoGson.toJson(buildModel);
 
 
-            String url = descriptor.getUrl();
-            String category = descriptor.getSourceCategory();
-            byte[] bytes = json.getBytes();
             if (StringUtils.isNotEmpty(buildModel.getJobType())) {
                 if (!descriptor.isJobStatusLogEnabled()) {
                     LOG.info("Uploading build status to sumologic: " + json);
-                    logSender.sendLogs(url, bytes, null, category);
+                    logSenderHelper.sendJobStatusLogs(json);
                 }
                 if (!descriptor.isJobConsoleLogEnabled()) {
                     build.addAction(new SearchAction(build));
@@ -15,6 +15,7 @@ public enum LogTypeEnum {
     PIPELINE_STAGES("Pipeline_Stages"),
     AUDIT_EVENT("Audit_Event"),
     QUEUE_EVENT("Queue_Event"),
+    QUEUE_STATS("Queue_Stats"),
     SLAVE_EVENT("Slave_Event"),
     SCM_STATUS("Scm_Status"),
     JENKINS_LOG("Jenkins_Log");
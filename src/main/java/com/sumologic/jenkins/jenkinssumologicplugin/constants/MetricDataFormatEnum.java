@@ -0,0 +1,27 @@
+package com.sumologic.jenkins.jenkinssumologicplugin.constants;
+
+import static com.sumologic.jenkins.jenkinssumologicplugin.constants.SumoConstants.CARBON_CONTENT_TYPE;
+import static com.sumologic.jenkins.jenkinssumologicplugin.constants.SumoConstants.GRAPHITE_CONTENT_TYPE;
+
+/**
+ * Sumo Logic plugin for Jenkins model.
+ * <p>
+ * Metric Data Format Enum
+ * <p>
+ * Graphite puts every dimension in the dotted metric name, Carbon2 sends them as tags.
+ */
+public enum MetricDataFormatEnum {
+
+    GRAPHITE(GRAPHITE_CONTENT_TYPE),
+    CARBON2(CARBON_CONTENT_TYPE);
+
+    private String contentType;
+
+    MetricDataFormatEnum(final String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+}
@@ -0,0 +1,64 @@
+package com.sumologic.jenkins.jenkinssumologicplugin.constants;
+
+/**
+ * Sumo Logic plugin for Jenkins model.
+ * <p>
+ * Metric Statistic Enum
+ * <p>
+ * The statistics that can be reported for histograms, meters and timers. The value is the last component of the
+ * graphite name, or the statistic tag in carbon2.
+ */
+public enum MetricStatisticEnum {
+
+    COUNT("count"),
+    MAX("max"),
+    MEAN("mean"),
+    MIN("min"),
+    STDDEV("stddev"),
+    P50("p50"),
+    P75("p75"),
+    P95("p95"),
+    P98("p98"),
+    P99("p99"),
+    P999("p999"),
+    M1_RATE("m1_rate"),
+    M5_RATE("m5_rate"),
+    M15_RATE("m15_rate"),
+    MEAN_RATE("mean_rate");
+
+    private String value;
+
+    MetricStatisticEnum(final String value) {
+        this.value = value;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * @return whether the statistic is read from a snapshot of the samples, histograms and timers have one
+     */
+    public boolean isSampled() {
+        return this != COUNT && !isRate();
+    }
+
+    /**
+     * @return whether the statistic is a rate, meters and timers have one
+     */
+    public boolean isRate() {
+        return this == M1_RATE || this == M5_RATE || this == M15_RATE || this == MEAN_RATE;
+    }
+
+    /**
+     * @return the statistic with the given value, ignoring case, or null if there is none
+     */
+    public static MetricStatisticEnum fromValue(String value) {
+        for (MetricStatisticEnum statistic : values()) {
+            if (statistic.value.equalsIgnoreCase(value.trim())) {
+                return statistic;
+            }
+        }
+        return null;
+    }
+}
@@ -1,6 +1,13 @@
 package com.sumologic.jenkins.jenkinssumologicplugin.constants;
 
+import com.sumologic.jenkins.jenkinssumologicplugin.sender.CircuitBreaker;
+import com.sumologic.jenkins.jenkinssumologicplugin.sender.ConsoleLogUploader;
+import com.sumologic.jenkins.jenkinssumologicplugin.sender.GzipCompressor;
+import com.sumologic.jenkins.jenkinssumologicplugin.sender.LogBatchCoalescer;
+import com.sumologic.jenkins.jenkinssumologicplugin.sender.LogSendQueue;
 import com.sumologic.jenkins.jenkinssumologicplugin.sender.LogSender;
+import com.sumologic.jenkins.jenkinssumologicplugin.sender.LogSpool;
+import com.sumologic.jenkins.jenkinssumologicplugin.sender.RetryPolicy;
 import org.apache.commons.lang.time.FastDateFormat;
 
 import java.util.Arrays;
@@ -40,12 +47,15 @@ public class SumoConstants {
     public static final String IGNORE_PATTERN = "(queue|nodeMonitors|UpdateCenter|global-build-stats\" +\n" +
             "            \"|fingerprint|build)(.*?xml)";
 
-    public static final int DIVIDER_FOR_MESSAGES = 100;
-
     public static final String MONITOR_PATTERN_MATCHER = "error.*?>(.*?)</span>";
 
-    public static final List<String> skipLoggerNames = Collections.unmodifiableList(Arrays.asList(LogSender.class.getName(), "hudson.Extension", "hudson.node_monitors",
-            "jenkins.InitReactorRunner", "hudson.util.BootFailure", "shaded.splk.org.apache.http"));
+    // The classes on the send path, so warnings about an unreachable source, e.g. from the queue, spool or retries,
+    // are not sent through the queue they are about
+    public static final List<String> skipLoggerNames = Collections.unmodifiableList(Arrays.asList(LogSender.class.getName(),
+            LogSpool.class.getName(), LogSendQueue.class.getName(), LogBatchCoalescer.class.getName(),
+            RetryPolicy.class.getName(), CircuitBreaker.class.getName(), ConsoleLogUploader.class.getName(),
+            GzipCompressor.class.getName(), "hudson.Extension", "hudson.node_monitors",
+            "jenkins.InitReactorRunner", "hudson.util.BootFailure", "shaded.splk.org.apache.http", "org.apache.http"));
 
     public static final String PIPELINE = "[Pipeline]";
 
@@ -1,6 +1,8 @@
 package com.sumologic.jenkins.jenkinssumologicplugin.listeners;
 
+import com.codahale.metrics.Timer;
 import com.sumologic.jenkins.jenkinssumologicplugin.constants.AuditEventTypeEnum;
+import com.sumologic.jenkins.jenkinssumologicplugin.metrics.PluginMetrics;
 import hudson.Extension;
 import hudson.model.Item;
 import hudson.model.listeners.ItemListener;
@@ -19,27 +21,37 @@ public class SumoItemListener extends ItemListener {
 
     @Override
     public void onCreated(Item item) {
-        captureItemAuditEvent(AuditEventTypeEnum.CREATED, getItemName(item), null);
+        try (Timer.Context ignored = PluginMetrics.time(SumoItemListener.class, "onCreated")) {
+            captureItemAuditEvent(AuditEventTypeEnum.CREATED, getItemName(item), null);
+        }
     }
 
     @Override
     public void onCopied(Item src, Item item) {
-        captureItemAuditEvent(AuditEventTypeEnum.UPDATED, getItemName(item), getItemName(src));
+        try (Timer.Context ignored = PluginMetrics.time(SumoItemListener.class, "onCopied")) {
+            captureItemAuditEvent(AuditEventTypeEnum.UPDATED, getItemName(item), getItemName(src));
+        }
     }
 
     @Override
     public void onDeleted(Item item) {
-        captureItemAuditEvent(AuditEventTypeEnum.DELETED, getItemName(item), null);
+        try (Timer.Context ignored = PluginMetrics.time(SumoItemListener.class, "onDeleted")) {
+            captureItemAuditEvent(AuditEventTypeEnum.DELETED, getItemName(item), null);
+        }
     }
 
     @Override
     public void onUpdated(Item item) {
-        captureItemAuditEvent(AuditEventTypeEnum.UPDATED, getItemName(item), null);
+        try (Timer.Context ignored = PluginMetrics.time(SumoItemListener.class, "onUpdated")) {
+            captureItemAuditEvent(AuditEventTypeEnum.UPDATED, getItemName(item), null);
+        }
     }
 
     @Override
     public void onLocationChanged(Item item, String oldFullName, String newFullName) {
-        captureItemAuditEvent(AuditEventTypeEnum.UPDATED, oldFullName, newFullName);
+        try (Timer.Context ignored = PluginMetrics.time(SumoItemListener.class, "onLocationChanged")) {
+            captureItemAuditEvent(AuditEventTypeEnum.UPDATED, oldFullName, newFullName);
+        }
     }
 
     @Override
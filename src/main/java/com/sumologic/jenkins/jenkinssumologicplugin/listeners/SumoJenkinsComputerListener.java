@@ -1,6 +1,8 @@
 package com.sumologic.jenkins.jenkinssumologicplugin.listeners;
 
+import com.codahale.metrics.Timer;
 import com.sumologic.jenkins.jenkinssumologicplugin.constants.EventSourceEnum;
+import com.sumologic.jenkins.jenkinssumologicplugin.metrics.PluginMetrics;
 import hudson.Extension;
 import hudson.FilePath;
 import hudson.model.Computer;
@@ -33,34 +35,46 @@ public class SumoJenkinsComputerListener extends ComputerListener {
 
     @Override
     public void preOnline(Computer computer, Channel channel, FilePath root, TaskListener listener) throws IOException, InterruptedException {
-        updateStatus(computer, EventSourceEnum.COMPUTER_PRE_ONLINE.getValue());
-        listener.getLogger().flush();
+        try (Timer.Context ignored = PluginMetrics.time(SumoJenkinsComputerListener.class, "preOnline")) {
+            updateStatus(computer, EventSourceEnum.COMPUTER_PRE_ONLINE.getValue());
+            listener.getLogger().flush();
+        }
     }
 
     @Override
     public void onOnline(Computer computer, TaskListener listener) throws IOException, InterruptedException {
-        updateStatus(computer, EventSourceEnum.COMPUTER_ONLINE.getValue());
-        listener.getLogger().flush();
+        try (Timer.Context ignored = PluginMetrics.time(SumoJenkinsComputerListener.class, "onOnline")) {
+            updateStatus(computer, EventSourceEnum.COMPUTER_ONLINE.getValue());
+            listener.getLogger().flush();
+        }
     }
 
     @Override
     public void onOffline(@Nonnull Computer computer, @CheckForNull OfflineCause cause) {
-        updateStatus(computer, EventSourceEnum.COMPUTER_OFFLINE.getValue());
+        try (Timer.Context ignored = PluginMetrics.time(SumoJenkinsComputerListener.class, "onOffline")) {
+            updateStatus(computer, EventSourceEnum.COMPUTER_OFFLINE.getValue());
+        }
     }
 
     @Override
     public void onTemporarilyOnline(Computer computer) {
-        updateStatus(computer, EventSourceEnum.COMPUTER_TEMP_ONLINE.getValue());
+        try (Timer.Context ignored = PluginMetrics.time(SumoJenkinsComputerListener.class, "onTemporarilyOnline")) {
+            updateStatus(computer, EventSourceEnum.COMPUTER_TEMP_ONLINE.getValue());
+        }
     }
 
     @Override
     public void onTemporarilyOffline(Computer computer, OfflineCause cause) {
-        updateStatus(computer, EventSourceEnum.COMPUTER_TEMP_OFFLINE.getValue());
+        try (Timer.Context ignored = PluginMetrics.time(SumoJenkinsComputerListener.class, "onTemporarilyOffline")) {
+            updateStatus(computer, EventSourceEnum.COMPUTER_TEMP_OFFLINE.getValue());
+        }
     }
 
     @Override
     public void onLaunchFailure(Computer computer, TaskListener taskListener) throws IOException, InterruptedException {
-        updateStatus(computer, EventSourceEnum.LAUNCH_FAILURE.getValue());
-        taskListener.getLogger().flush();
+        try (Timer.Context ignored = PluginMetrics.time(SumoJenkinsComputerListener.class, "onLaunchFailure")) {
+            updateStatus(computer, EventSourceEnum.LAUNCH_FAILURE.getValue());
+            taskListener.getLogger().flush();
+        }
     }
 }
@@ -1,6 +1,8 @@
 package com.sumologic.jenkins.jenkinssumologicplugin.listeners;
 
+import com.codahale.metrics.Timer;
 import com.sumologic.jenkins.jenkinssumologicplugin.constants.AuditEventTypeEnum;
+import com.sumologic.jenkins.jenkinssumologicplugin.metrics.PluginMetrics;
 import hudson.Extension;
 import jenkins.security.SecurityListener;
 import org.acegisecurity.userdetails.UserDetails;
@@ -23,12 +25,16 @@ public class SumoJenkinsUserLoginListener extends SecurityListener {
 
     @Override
     protected void authenticated(@Nonnull UserDetails details) {
-        captureUserLoginEvent(details.getUsername(), AuditEventTypeEnum.LOGIN);
+        try (Timer.Context ignored = PluginMetrics.time(SumoJenkinsUserLoginListener.class, "authenticated")) {
+            captureUserLoginEvent(details.getUsername(), AuditEventTypeEnum.LOGIN);
+        }
     }
 
     @Override
     protected void failedToAuthenticate(@Nonnull String username) {
-        captureUserLoginEvent(username, AuditEventTypeEnum.LOGIN_FAILURE);
+        try (Timer.Context ignored = PluginMetrics.time(SumoJenkinsUserLoginListener.class, "failedToAuthenticate")) {
+            captureUserLoginEvent(username, AuditEventTypeEnum.LOGIN_FAILURE);
+        }
     }
 
     @Override
@@ -43,6 +49,8 @@ public class SumoJenkinsUserLoginListener extends SecurityListener {
 
     @Override
     protected void loggedOut(@Nonnull String username) {
-        captureUserLoginEvent(username, AuditEventTypeEnum.LOGOUT);
+        try (Timer.Context ignored = PluginMetrics.time(SumoJenkinsUserLoginListener.class, "loggedOut")) {
+            captureUserLoginEvent(username, AuditEventTypeEnum.LOGOUT);
+        }
     }
 }
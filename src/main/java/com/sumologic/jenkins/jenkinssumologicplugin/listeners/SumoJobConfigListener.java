@@ -1,7 +1,9 @@
 package com.sumologic.jenkins.jenkinssumologicplugin.listeners;
 
+import com.codahale.metrics.Timer;
 import com.sumologic.jenkins.jenkinssumologicplugin.PluginDescriptorImpl;
 import com.sumologic.jenkins.jenkinssumologicplugin.constants.AuditEventTypeEnum;
+import com.sumologic.jenkins.jenkinssumologicplugin.metrics.PluginMetrics;
 import hudson.Extension;
 import hudson.XmlFile;
 import hudson.model.Item;
@@ -41,7 +43,7 @@ public class SumoJobConfigListener extends SaveableListener implements Serializa
 
     @Override
     public void onChange(Saveable saveable, XmlFile file) {
-        try {
+        try (Timer.Context ignored = PluginMetrics.time(SumoJobConfigListener.class, "onChange")) {
             String configPath = file.getFile().getAbsolutePath();
             if (saveable == null || IGNORED.matcher(configPath).find()
                     || "SYSTEM".equals(Jenkins.getAuthentication().getName())
@@ -1,9 +1,11 @@
 package com.sumologic.jenkins.jenkinssumologicplugin.listeners;
 
+import com.codahale.metrics.Timer;
 import com.sumologic.jenkins.jenkinssumologicplugin.PluginDescriptorImpl;
 import com.sumologic.jenkins.jenkinssumologicplugin.constants.AuditEventTypeEnum;
 import com.sumologic.jenkins.jenkinssumologicplugin.constants.EventSourceEnum;
 import com.sumologic.jenkins.jenkinssumologicplugin.integration.SearchAction;
+import com.sumologic.jenkins.jenkinssumologicplugin.metrics.PluginMetrics;
 import com.sumologic.jenkins.jenkinssumologicplugin.model.BuildModel;
 import com.sumologic.jenkins.jenkinssumologicplugin.sender.LogSenderHelper;
 import hudson.Extension;
@@ -44,7 +46,7 @@ public class SumoPipelineStatusListener extends RunListener<Run> {
 
     @Override
     public void onStarted(Run run, TaskListener listener) {
-        try {
+        try (Timer.Context ignored = PluginMetrics.time(SumoPipelineStatusListener.class, "onStarted")) {
             String userId = getUserId(run);
             String message = String.format(AuditEventTypeEnum.JOB_STARTED.getMessage(), userId, run.getParent().getFullName(), run.getNumber());
             captureAuditEvent(userId, AuditEventTypeEnum.JOB_STARTED, message, null);
@@ -58,7 +60,7 @@ public class SumoPipelineStatusListener extends RunListener<Run> {
 
     @Override
     public void onCompleted(Run run, @Nonnull TaskListener listener) {
-        try {
+        try (Timer.Context ignored = PluginMetrics.time(SumoPipelineStatusListener.class, "onCompleted")) {
             PluginDescriptorImpl pluginDescriptor = PluginDescriptorImpl.getInstance();
             /*
             Get the Last 10 Log Lines from the log file. Check if the lines have SumoPipelineLogCollection, then it is
@@ -76,7 +78,11 @@ public class SumoPipelineStatusListener extends RunListener<Run> {
                 }
                 if (pluginDescriptor.isJobConsoleLogEnabled() || isSpecificJobFlagEnabled) {
                     run.addAction(new SearchAction(run));
-                    sendConsoleLogs(run, listener);
+                    // Already shipped by LogListener while the build ran, unless only the SumoPipelineLogCollection
+                    // step enabled the job, then only the step body was streamed
+                    if (!(pluginDescriptor.isJobConsoleLogEnabled() && pluginDescriptor.isJobConsoleLogStreamingEnabled())) {
+                        sendConsoleLogs(run, listener);
+                    }
                 }
             }
 
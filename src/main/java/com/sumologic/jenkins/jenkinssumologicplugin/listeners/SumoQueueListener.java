@@ -0,0 +1,66 @@
+package com.sumologic.jenkins.jenkinssumologicplugin.listeners;
+
+import com.codahale.metrics.Timer;
+import com.sumologic.jenkins.jenkinssumologicplugin.PluginDescriptorImpl;
+import com.sumologic.jenkins.jenkinssumologicplugin.metrics.PluginMetrics;
+import com.sumologic.jenkins.jenkinssumologicplugin.metrics.QueueTelemetry;
+import hudson.Extension;
+import hudson.model.Label;
+import hudson.model.Queue;
+import hudson.model.queue.QueueListener;
+
+/**
+ * Sumo Logic plugin for Jenkins model.
+ * <p>
+ * Queue Listener recording how long each item waits in the queue, when queue events are enabled. Jenkins calls it
+ * with the queue lock held, so it only updates {@link QueueTelemetry}, which is sent with the periodic logs.
+ */
+@Extension
+public class SumoQueueListener extends QueueListener {
+
+    @Override
+    public void onEnterWaiting(Queue.WaitingItem item) {
+        try (Timer.Context ignored = PluginMetrics.time(SumoQueueListener.class, "onEnterWaiting")) {
+            entered(item, QueueTelemetry.State.WAITING);
+        }
+    }
+
+    @Override
+    public void onEnterBlocked(Queue.BlockedItem item) {
+        try (Timer.Context ignored = PluginMetrics.time(SumoQueueListener.class, "onEnterBlocked")) {
+            entered(item, QueueTelemetry.State.BLOCKED);
+        }
+    }
+
+    @Override
+    public void onEnterBuildable(Queue.BuildableItem item) {
+        try (Timer.Context ignored = PluginMetrics.time(SumoQueueListener.class, "onEnterBuildable")) {
+            entered(item, QueueTelemetry.State.BUILDABLE);
+        }
+    }
+
+    @Override
+    public void onLeft(Queue.LeftItem item) {
+        try (Timer.Context ignored = PluginMetrics.time(SumoQueueListener.class, "onLeft")) {
+            if (isQueueEventsEnabled()) {
+                Label label = item.getAssignedLabel();
+                QueueTelemetry.getInstance().left(item.getId(), label != null ? label.getName() : null,
+                        item.getInQueueSince(), item.isCancelled(), System.currentTimeMillis());
+            } else {
+                // Items tracked before the events were disabled still leave, so they are not kept forever
+                QueueTelemetry.getInstance().forget(item.getId());
+            }
+        }
+    }
+
+    private static void entered(Queue.Item item, QueueTelemetry.State state) {
+        if (isQueueEventsEnabled()) {
+            QueueTelemetry.getInstance().entered(item.getId(), state, System.currentTimeMillis());
+        }
+    }
+
+    private static boolean isQueueEventsEnabled() {
+        PluginDescriptorImpl pluginDescriptor = PluginDescriptorImpl.getInstance();
+        return pluginDescriptor != null && pluginDescriptor.isQueueEventsEnabled();
+    }
+}
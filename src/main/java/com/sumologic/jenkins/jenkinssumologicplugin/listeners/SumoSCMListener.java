@@ -1,7 +1,9 @@
 package com.sumologic.jenkins.jenkinssumologicplugin.listeners;
 
+import com.codahale.metrics.Timer;
 import com.sumologic.jenkins.jenkinssumologicplugin.PluginDescriptorImpl;
 import com.sumologic.jenkins.jenkinssumologicplugin.constants.LogTypeEnum;
+import com.sumologic.jenkins.jenkinssumologicplugin.metrics.PluginMetrics;
 import com.sumologic.jenkins.jenkinssumologicplugin.model.ScmModel;
 import com.sumologic.jenkins.jenkinssumologicplugin.sender.LogSenderHelper;
 import hudson.Extension;
@@ -35,7 +37,7 @@ public class SumoSCMListener extends SCMListener {
 
     @Override
     public void onChangeLogParsed(Run<?, ?> build, SCM scm, TaskListener listener, ChangeLogSet<?> changelog) {
-        try {
+        try (Timer.Context ignored = PluginMetrics.time(SumoSCMListener.class, "onChangeLogParsed")) {
             ScmModel scmModel = new ScmModel();
 
             scmModel.setLogType(LogTypeEnum.SCM_STATUS.getValue());
@@ -0,0 +1,82 @@
+package com.sumologic.jenkins.jenkinssumologicplugin.metrics;
+
+import com.codahale.metrics.Gauge;
+import com.sumologic.jenkins.jenkinssumologicplugin.model.SlaveModel;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Sumo Logic plugin for Jenkins model.
+ * <p>
+ * The node monitor values of every node as gauges, e.g.
+ * {@code sumologic.plugin.NodeMonitorMetrics.agent-1.freeDiskSpace}, so they are shipped with the metric data. The
+ * gauges read the values of the last periodic update, and the gauges of nodes and values that are gone are removed.
+ */
+public class NodeMonitorMetrics {
+
+    private static final Pattern UNSAFE_CHARACTERS = Pattern.compile("[^A-Za-z0-9_-]");
+
+    private final Map<String, Map<String, Number>> values = new ConcurrentHashMap<>();
+    private final Set<String> registered = new HashSet<>();
+
+    public static NodeMonitorMetrics getInstance() {
+        return NodeMonitorMetricsHolder.nodeMonitorMetrics;
+    }
+
+    public synchronized void update(Collection<SlaveModel> slaveModels) {
+        Map<String, Map<String, Number>> latest = new HashMap<>();
+        Set<String> names = new HashSet<>();
+        for (SlaveModel slaveModel : slaveModels) {
+            Map<String, Number> monitorValues = slaveModel.getMonitorValues();
+            if (monitorValues == null || slaveModel.getNodeName() == null) {
+                continue;
+            }
+            // A dot in the node name would add a level to the metric name
+            String node = UNSAFE_CHARACTERS.matcher(slaveModel.getNodeName()).replaceAll("_");
+            latest.put(node, monitorValues);
+            for (String value : monitorValues.keySet()) {
+                String name = PluginMetrics.name(NodeMonitorMetrics.class, node, value);
+                names.add(name);
+                if (registered.add(name)) {
+                    PluginMetrics.registerIfAbsent(name, (Gauge<Number>) () -> getValue(node, value));
+                }
+            }
+        }
+        values.putAll(latest);
+        values.keySet().retainAll(latest.keySet());
+        for (Iterator<String> iterator = registered.iterator(); iterator.hasNext(); ) {
+            String name = iterator.next();
+            if (!names.contains(name)) {
+                PluginMetrics.remove(name);
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Remove every gauge, e.g. when metric data is not sent.
+     */
+    public synchronized void clear() {
+        for (String name : registered) {
+            PluginMetrics.remove(name);
+        }
+        registered.clear();
+        values.clear();
+    }
+
+    Number getValue(String node, String value) {
+        Map<String, Number> nodeValues = values.get(node);
+        return nodeValues != null ? nodeValues.get(value) : null;
+    }
+
+    private static class NodeMonitorMetricsHolder {
+        static NodeMonitorMetrics nodeMonitorMetrics = new NodeMonitorMetrics();
+    }
+}
@@ -0,0 +1,148 @@
+package com.sumologic.jenkins.jenkinssumologicplugin.metrics;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.sumologic.jenkins.jenkinssumologicplugin.sender.GzipCompressor;
+import com.sumologic.jenkins.jenkinssumologicplugin.sender.LogBatchCoalescer;
+import com.sumologic.jenkins.jenkinssumologicplugin.sender.LogBatchSizer;
+import com.sumologic.jenkins.jenkinssumologicplugin.sender.LogSendQueue;
+import com.sumologic.jenkins.jenkinssumologicplugin.sender.LogSpool;
+import hudson.init.InitMilestone;
+import hudson.init.Initializer;
+import jenkins.metrics.api.Metrics;
+import jenkins.model.Jenkins;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Sumo Logic plugin for Jenkins model.
+ * <p>
+ * The plugin's own metrics: how long sends, listener callbacks and periodic tasks take, how many bytes and requests
+ * go out, and the state of the send queue, spool and batching. They live in the Jenkins metrics registry under
+ * {@code sumologic.plugin.}, so they show up in the metrics plugin and are shipped by the {@link SumoMetricReporter}.
+ * Where there is no Jenkins, e.g. on an agent, they are kept in a local registry instead.
+ */
+public class PluginMetrics {
+
+    private static final Logger LOG = Logger.getLogger(PluginMetrics.class.getName());
+
+    public static final String PREFIX = "sumologic.plugin";
+
+    private static final MetricRegistry localRegistry = new MetricRegistry();
+    private static volatile JenkinsRegistry jenkinsRegistry;
+
+    private PluginMetrics() {
+    }
+
+    public static Timer timer(Class<?> type, String... names) {
+        return registry().timer(name(type, names));
+    }
+
+    /**
+     * Start timing, stop it by closing the context, e.g. in a try-with-resources block.
+     */
+    public static Timer.Context time(Class<?> type, String... names) {
+        return timer(type, names).time();
+    }
+
+    public static Meter meter(Class<?> type, String... names) {
+        return registry().meter(name(type, names));
+    }
+
+    public static Histogram histogram(Class<?> type, String... names) {
+        return registry().histogram(name(type, names));
+    }
+
+    static String name(Class<?> type, String... names) {
+        return MetricRegistry.name(PREFIX + "." + type.getSimpleName(), names);
+    }
+
+    /**
+     * Gauges over state the sender keeps anyway, registered once the metrics plugin is up.
+     */
+    @Initializer(after = InitMilestone.PLUGINS_STARTED)
+    public static void registerGauges() {
+        register(LogSendQueue.class, "size", (Gauge<Integer>) () -> LogSendQueue.getInstance().getQueueSize());
+        register(LogSendQueue.class, "spooled", (Gauge<Long>) () -> LogSendQueue.getInstance().getSpooledCount());
+        register(LogSendQueue.class, "dropped", (Gauge<Long>) () -> LogSendQueue.getInstance().getDroppedCount());
+        register(LogSendQueue.class, "failed", (Gauge<Long>) () -> LogSendQueue.getInstance().getFailedCount());
+        register(LogSendQueue.class, "queueTime", (Gauge<Long>) () -> LogSendQueue.getInstance().getQueueTimeMillis());
+        register(LogSpool.class, "depthBytes", (Gauge<Long>) () -> LogSpool.getInstance().getDepthBytes());
+        register(LogSpool.class, "segments", (Gauge<Integer>) () -> LogSpool.getInstance().getSegmentCount());
+        register(LogSpool.class, "replayLag", (Gauge<Long>) () -> LogSpool.getInstance().getReplayLagMillis());
+        register(LogSpool.class, "rejected", (Gauge<Long>) () -> LogSpool.getInstance().getRejectedCount());
+        register(LogBatchCoalescer.class, "coalesced", (Gauge<Long>) () -> LogBatchCoalescer.getInstance().getCoalescedCount());
+        register(GzipCompressor.class, "compressionRatio", (Gauge<Double>) GzipCompressor::getCompressionRatio);
+        register(LogBatchSizer.class, "batchBytes", LogBatchSizer.getBatchSizes());
+    }
+
+    private static void register(Class<?> type, String name, Metric metric) {
+        try {
+            registry().register(name(type, name), metric);
+        } catch (IllegalArgumentException e) {
+            // Already registered, e.g. when Jenkins is restarted in the same JVM by a test
+            LOG.log(Level.FINE, "Metric " + name(type, name) + " is already registered");
+        }
+    }
+
+    /**
+     * Register a metric that comes and goes, e.g. one per node, leaving one that is already there.
+     */
+    static void registerIfAbsent(String name, Metric metric) {
+        try {
+            registry().register(name, metric);
+        } catch (IllegalArgumentException e) {
+            LOG.log(Level.FINE, "Metric " + name + " is already registered");
+        }
+    }
+
+    static void remove(String name) {
+        registry().remove(name);
+    }
+
+    private static MetricRegistry registry() {
+        Jenkins jenkins = jenkins();
+        if (jenkins == null) {
+            return localRegistry;
+        }
+        JenkinsRegistry registry = jenkinsRegistry;
+        // Checked against the instance so a Jenkins restarted in the same JVM, e.g. by a test, gets its own registry
+        if (registry == null || registry.jenkins != jenkins) {
+            MetricRegistry metricRegistry = null;
+            try {
+                metricRegistry = Metrics.metricRegistry();
+            } catch (RuntimeException | AssertionError e) {
+                LOG.log(Level.FINE, "Jenkins metrics registry is not available yet", e);
+            }
+            if (metricRegistry == null) {
+                return localRegistry;
+            }
+            registry = new JenkinsRegistry(jenkins, metricRegistry);
+            jenkinsRegistry = registry;
+        }
+        return registry.registry;
+    }
+
+    private static Jenkins jenkins() {
+        try {
+            return Jenkins.getInstance();
+        } catch (IllegalStateException e) {
+            return null;
+        }
+    }
+
+    private static class JenkinsRegistry {
+        private final Jenkins jenkins;
+        private final MetricRegistry registry;
+
+        JenkinsRegistry(Jenkins jenkins, MetricRegistry registry) {
+            this.jenkins = jenkins;
+            this.registry = registry;
+        }
+    }
+}
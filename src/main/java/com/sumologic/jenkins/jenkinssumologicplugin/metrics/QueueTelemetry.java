@@ -0,0 +1,163 @@
+package com.sumologic.jenkins.jenkinssumologicplugin.metrics;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Snapshot;
+import com.codahale.metrics.UniformReservoir;
+import com.sumologic.jenkins.jenkinssumologicplugin.constants.LogTypeEnum;
+import com.sumologic.jenkins.jenkinssumologicplugin.model.QueueStatsModel;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Sumo Logic plugin for Jenkins model.
+ * <p>
+ * Queue wait times from the queue listener. The time an item spends in each state is taken from the queue events as
+ * they happen, and once it leaves the queue its waits go into histograms per label. {@link #drain(String)} turns the
+ * histograms into one {@link QueueStatsModel} per label and starts new ones, so each report covers the items that
+ * left since the previous one.
+ * <p>
+ * The events are recorded under the queue lock, so they only update a few fields.
+ */
+public class QueueTelemetry {
+
+    private static final Logger LOG = Logger.getLogger(QueueTelemetry.class.getName());
+
+    // Every item that enters the queue leaves it, this only guards against a listener that missed the leave
+    private static final int MAX_TRACKED_ITEMS = Integer.getInteger(QueueTelemetry.class.getName() + ".maxTrackedItems", 100000);
+
+    public static final String NO_LABEL = "none";
+
+    public enum State {
+        WAITING, BLOCKED, BUILDABLE
+    }
+
+    private final Map<Long, TrackedItem> items = new ConcurrentHashMap<>();
+    private Map<String, LabelStats> labels = new HashMap<>();
+
+    public static QueueTelemetry getInstance() {
+        return QueueTelemetryHolder.queueTelemetry;
+    }
+
+    /**
+     * An item entered a state, closing the time spent in its previous one.
+     */
+    public void entered(long id, State state, long now) {
+        TrackedItem item = items.get(id);
+        if (item == null) {
+            if (items.size() >= MAX_TRACKED_ITEMS) {
+                LOG.log(Level.FINE, "Not tracking queue item {0}, {1} items are tracked already", new Object[]{id, items.size()});
+                return;
+            }
+            item = new TrackedItem(state, now);
+            items.put(id, item);
+        } else {
+            item.enter(state, now);
+        }
+    }
+
+    /**
+     * An item left the queue, to be built or cancelled. Items that were not tracked, e.g. because they entered
+     * before the listener was enabled, only count towards the total wait.
+     */
+    public void left(long id, String label, long inQueueSince, boolean cancelled, long now) {
+        TrackedItem item = items.remove(id);
+        if (item != null) {
+            item.enter(null, now);
+        }
+        synchronized (this) {
+            LabelStats stats = labels.computeIfAbsent(label != null ? label : NO_LABEL, key -> new LabelStats());
+            stats.left++;
+            if (cancelled) {
+                stats.cancelled++;
+            }
+            stats.total.update(Math.max(0, now - inQueueSince));
+            if (item != null) {
+                stats.waiting.update(item.millis[State.WAITING.ordinal()]);
+                stats.blocked.update(item.millis[State.BLOCKED.ordinal()]);
+                stats.buildable.update(item.millis[State.BUILDABLE.ordinal()]);
+            }
+        }
+    }
+
+    public void forget(long id) {
+        items.remove(id);
+    }
+
+    /**
+     * @return the stats per label of the items that left the queue since the last call
+     */
+    public List<QueueStatsModel> drain(String eventTime) {
+        Map<String, LabelStats> drained;
+        synchronized (this) {
+            if (labels.isEmpty()) {
+                return new ArrayList<>();
+            }
+            drained = labels;
+            labels = new HashMap<>();
+        }
+        List<QueueStatsModel> models = new ArrayList<>(drained.size());
+        drained.forEach((label, stats) -> {
+            QueueStatsModel model = new QueueStatsModel();
+            model.setLogType(LogTypeEnum.QUEUE_STATS.getValue());
+            model.setEventTime(eventTime);
+            model.setLabel(label);
+            model.setItemsLeft(stats.left);
+            model.setItemsCancelled(stats.cancelled);
+            model.setTotal(waitTime(stats.total));
+            model.setWaiting(waitTime(stats.waiting));
+            model.setBlocked(waitTime(stats.blocked));
+            model.setBuildable(waitTime(stats.buildable));
+            models.add(model);
+        });
+        return models;
+    }
+
+    public int getTrackedItemCount() {
+        return items.size();
+    }
+
+    private static QueueStatsModel.WaitTime waitTime(Histogram histogram) {
+        if (histogram.getCount() == 0) {
+            return null;
+        }
+        Snapshot snapshot = histogram.getSnapshot();
+        return new QueueStatsModel.WaitTime(snapshot.getMin(), snapshot.getMax(), snapshot.getMean(),
+                snapshot.getMedian(), snapshot.get95thPercentile(), snapshot.get99thPercentile());
+    }
+
+    private static class TrackedItem {
+        private final long[] millis = new long[State.values().length];
+        private State state;
+        private long since;
+
+        TrackedItem(State state, long now) {
+            this.state = state;
+            this.since = now;
+        }
+
+        void enter(State next, long now) {
+            millis[state.ordinal()] += Math.max(0, now - since);
+            state = next;
+            since = now;
+        }
+    }
+
+    private static class LabelStats {
+        private long left;
+        private long cancelled;
+        private final Histogram total = new Histogram(new UniformReservoir());
+        private final Histogram waiting = new Histogram(new UniformReservoir());
+        private final Histogram blocked = new Histogram(new UniformReservoir());
+        private final Histogram buildable = new Histogram(new UniformReservoir());
+    }
+
+    private static class QueueTelemetryHolder {
+        static QueueTelemetry queueTelemetry = new QueueTelemetry();
+    }
+}
@@ -1,16 +1,27 @@
 package com.sumologic.jenkins.jenkinssumologicplugin.metrics;
 
-import com.codahale.metrics.Metric;
-import com.codahale.metrics.MetricFilter;
 import com.codahale.metrics.MetricRegistry;
+import com.sumologic.jenkins.jenkinssumologicplugin.PluginDescriptorImpl;
+import com.sumologic.jenkins.jenkinssumologicplugin.constants.MetricDataFormatEnum;
+import com.sumologic.jenkins.jenkinssumologicplugin.constants.MetricStatisticEnum;
 import com.sumologic.jenkins.jenkinssumologicplugin.sender.LogSenderHelper;
 import jenkins.metrics.api.Metrics;
+import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import static com.sumologic.jenkins.jenkinssumologicplugin.utility.NodeMonitorExtractor.FREE_DISK_SPACE;
+import static com.sumologic.jenkins.jenkinssumologicplugin.utility.NodeMonitorExtractor.RESPONSE_TIME;
 
 /**
  * Sumo Logic plugin for Jenkins model.
@@ -23,6 +34,12 @@ public class SumoMetricDataPublisher {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(SumoMetricDataPublisher.class);
 
+    public static final int DEFAULT_INTERVAL_SECONDS = 120;
+    public static final int MIN_INTERVAL_SECONDS = 10;
+
+    // Names containing any of these are reported
+    private static final List<String> DEFAULT_METRICS = createDefaultMetrics();
+
     private transient SumoMetricReporter sumoMetricReporter;
 
 
@@ -34,23 +51,81 @@ public class SumoMetricDataPublisher {
     }
 
     public synchronized void publishMetricData(String metricDataPrefix) {
-        LOGGER.info("Starting Reporter with prefix as "+metricDataPrefix);
+        publishMetricData(metricDataPrefix, MetricDataFormatEnum.GRAPHITE, null, null, DEFAULT_INTERVAL_SECONDS, false);
+    }
+
+    public synchronized void publishMetricData(PluginDescriptorImpl pluginDescriptor) {
+        publishMetricData(pluginDescriptor.getMetricDataPrefix(), pluginDescriptor.getMetricDataFormat(),
+                parseStatistics(pluginDescriptor.getMetricDataStatistics()), pluginDescriptor.getMetricDataFilter(),
+                pluginDescriptor.getMetricDataInterval(), pluginDescriptor.isMetricDataChangesOnly());
+    }
+
+    private void publishMetricData(String metricDataPrefix, MetricDataFormatEnum metricDataFormat,
+                                   Set<MetricStatisticEnum> statistics, String filterRules, int intervalSeconds,
+                                   boolean changesOnly) {
+        int interval = Math.max(intervalSeconds > 0 ? intervalSeconds : DEFAULT_INTERVAL_SECONDS, MIN_INTERVAL_SECONDS);
+        LOGGER.info("Starting Reporter with prefix as "+metricDataPrefix+" in "+metricDataFormat+" format every "
+                +interval+" seconds");
         MetricRegistry metricRegistry = Metrics.metricRegistry();
 
-        sumoMetricReporter = SumoMetricReporter
+        SumoMetricReporter.Builder builder = SumoMetricReporter
                 .forRegistry(metricRegistry)
                 .prefixedWith(metricDataPrefix)
+                .formattedAs(metricDataFormat)
+                .reportChangesOnly(changesOnly)
                 .convertRatesTo(TimeUnit.SECONDS)
                 .convertDurationsTo(TimeUnit.MILLISECONDS)
-                .filter(new WhitelistMetricFilter(createMetricFilter()))
-                .build(LogSenderHelper.getInstance());
+                .filter(createMetricFilter(filterRules));
+        if (statistics != null) {
+            builder.withStatistics(statistics);
+        }
+        sumoMetricReporter = builder.build(LogSenderHelper.getInstance());
+
+        sumoMetricReporter.start(interval, TimeUnit.SECONDS);
+
+    }
 
-        sumoMetricReporter.start(2, TimeUnit.MINUTES);
+    /**
+     * @return the comma separated statistics, or null for the defaults when none are given
+     */
+    static Set<MetricStatisticEnum> parseStatistics(String statistics) {
+        if (StringUtils.isBlank(statistics)) {
+            return null;
+        }
+        Set<MetricStatisticEnum> parsed = EnumSet.noneOf(MetricStatisticEnum.class);
+        for (String value : statistics.split(",")) {
+            if (StringUtils.isBlank(value)) {
+                continue;
+            }
+            MetricStatisticEnum statistic = MetricStatisticEnum.fromValue(value);
+            if (statistic == null) {
+                LOGGER.warn("Ignoring unknown metric statistic " + value.trim());
+            } else {
+                parsed.add(statistic);
+            }
+        }
+        return parsed.isEmpty() ? null : parsed;
+    }
 
+    /**
+     * The default metrics, plus the user's include and exclude rules. An invalid rule is logged and the defaults
+     * are used.
+     */
+    static SumoMetricFilter createMetricFilter(String filterRules) {
+        List<String> rules = new ArrayList<>(DEFAULT_METRICS);
+        if (StringUtils.isNotBlank(filterRules)) {
+            rules.addAll(Arrays.asList(filterRules.split("\\r?\\n")));
+        }
+        try {
+            return SumoMetricFilter.compile(rules);
+        } catch (PatternSyntaxException e) {
+            LOGGER.warn("Ignoring invalid metric filter rules " + e.getMessage());
+            return SumoMetricFilter.compile(DEFAULT_METRICS);
+        }
     }
 
-    private Set<String> createMetricFilter() {
-        final Set<String> whitelist = new HashSet<>();
+    private static List<String> createDefaultMetrics() {
+        final List<String> whitelist = new ArrayList<>();
 
         whitelist.add("jenkins.executor.count.value");
         whitelist.add("jenkins.executor.free.value");
@@ -85,24 +160,13 @@ public class SumoMetricDataPublisher {
         whitelist.add("vm.runnable.count");
         whitelist.add("vm.waiting.count");
         whitelist.add("vm.gc.");
-
-        return whitelist;
-    }
-
-    static class WhitelistMetricFilter implements MetricFilter {
-        private final Set<String> whitelist;
-
-        private WhitelistMetricFilter(Set<String> whitelist) {
-            this.whitelist = whitelist;
-        }
-
-        @Override
-        public boolean matches(String name, Metric metric) {
-            for (String whitelisted : whitelist) {
-                if (whitelisted.endsWith(name) || name.contains(whitelisted))
-                    return true;
-            }
-            return false;
-        }
+        // The plugin's own metrics, but of the per node gauges, which are many on a large farm, only the free disk
+        // space and response time; a sumologic.plugin.NodeMonitorMetrics. rule adds the others
+        String nodeMonitorMetrics = NodeMonitorMetrics.class.getSimpleName();
+        whitelist.add("/^" + Pattern.quote(PluginMetrics.PREFIX + ".") + "(?!" + nodeMonitorMetrics + "\\.)/");
+        whitelist.add("/^" + Pattern.quote(PluginMetrics.PREFIX + "." + nodeMonitorMetrics + ".") + "[^.]+\\.("
+                + FREE_DISK_SPACE + "|" + RESPONSE_TIME + ")$/");
+
+        return Collections.unmodifiableList(whitelist);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,147 @@
+package com.sumologic.jenkins.jenkinssumologicplugin.metrics;
+
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricFilter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Sumo Logic plugin for Jenkins model.
+ * <p>
+ * Include and exclude rules for the metric names to report, one rule per line:
+ * <ul>
+ * <li>{@code jenkins.queue.} - names containing the text</li>
+ * <li>{@code jenkins.*.duration} - names matching the glob, {@code *} and {@code ?} being wildcards</li>
+ * <li>{@code /vm\.gc\..*\.count/} - names containing a match of the regular expression</li>
+ * </ul>
+ * A rule starting with {@code !} excludes the names it matches, which wins over any include. Empty lines and lines
+ * starting with {@code #} are ignored.
+ * <p>
+ * The includes and the excludes are each compiled once into a single pattern, and the decision is cached per name,
+ * so a report only matches names it has not seen before. The cache keeps the most recently used names, so names of
+ * metrics that were removed, e.g. of a node that is gone, age out instead of filling it up.
+ */
+public class SumoMetricFilter implements MetricFilter {
+
+    // Room for the per node gauges of a large farm, which are all matched on every report
+    private static final int MAX_CACHED_NAMES = Integer.getInteger(SumoMetricFilter.class.getName() + ".maxCachedNames", 50000);
+
+    private final Pattern includes;
+    private final Pattern excludes;
+    private final Map<String, Boolean> decisions;
+
+    private SumoMetricFilter(Pattern includes, Pattern excludes, int maxCachedNames) {
+        this.includes = includes;
+        this.excludes = excludes;
+        this.decisions = Collections.synchronizedMap(new LinkedHashMap<String, Boolean>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > maxCachedNames;
+            }
+        });
+    }
+
+    /**
+     * @throws java.util.regex.PatternSyntaxException if a regular expression is not valid
+     */
+    public static SumoMetricFilter compile(Collection<String> rules) {
+        return compile(rules, MAX_CACHED_NAMES);
+    }
+
+    static SumoMetricFilter compile(Collection<String> rules, int maxCachedNames) {
+        List<String> includes = new ArrayList<>();
+        List<String> excludes = new ArrayList<>();
+        for (String rule : rules) {
+            String trimmed = rule.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+            if (trimmed.startsWith("!")) {
+                String exclude = trimmed.substring(1).trim();
+                if (!exclude.isEmpty()) {
+                    excludes.add(toRegex(exclude));
+                }
+            } else {
+                includes.add(toRegex(trimmed));
+            }
+        }
+        return new SumoMetricFilter(toPattern(includes), toPattern(excludes), Math.max(1, maxCachedNames));
+    }
+
+    /**
+     * @throws java.util.regex.PatternSyntaxException if a regular expression is not valid
+     */
+    public static SumoMetricFilter compile(String rules) {
+        return compile(rules == null ? Collections.<String>emptyList() : Arrays.asList(rules.split("\\r?\\n")));
+    }
+
+    @Override
+    public boolean matches(String name, Metric metric) {
+        Boolean decision = decisions.get(name);
+        if (decision == null) {
+            decision = decide(name);
+            decisions.put(name, decision);
+        }
+        return decision;
+    }
+
+    boolean isCached(String name) {
+        return decisions.containsKey(name);
+    }
+
+    private boolean decide(String name) {
+        if (excludes != null && excludes.matcher(name).find()) {
+            return false;
+        }
+        return includes != null && includes.matcher(name).find();
+    }
+
+    private static String toRegex(String rule) {
+        if (rule.length() > 1 && rule.startsWith("/") && rule.endsWith("/")) {
+            String regex = rule.substring(1, rule.length() - 1);
+            // Compiled on its own first so an error points at the rule rather than the combined pattern
+            Pattern.compile(regex);
+            return regex;
+        }
+        if (rule.indexOf('*') < 0 && rule.indexOf('?') < 0) {
+            return Pattern.quote(rule);
+        }
+        StringBuilder regex = new StringBuilder("^");
+        int start = 0;
+        for (int i = 0; i < rule.length(); i++) {
+            char c = rule.charAt(i);
+            if (c == '*' || c == '?') {
+                if (i > start) {
+                    regex.append(Pattern.quote(rule.substring(start, i)));
+                }
+                regex.append(c == '*' ? ".*" : ".");
+                start = i + 1;
+            }
+        }
+        if (start < rule.length()) {
+            regex.append(Pattern.quote(rule.substring(start)));
+        }
+        return regex.append('$').toString();
+    }
+
+    private static Pattern toPattern(List<String> regexes) {
+        if (regexes.isEmpty()) {
+            return null;
+        }
+        StringBuilder alternation = new StringBuilder();
+        for (String regex : regexes) {
+            if (alternation.length() > 0) {
+                alternation.append('|');
+            }
+            alternation.append("(?:").append(regex).append(')');
+        }
+        return Pattern.compile(alternation.toString());
+    }
+}
@@ -2,10 +2,13 @@ package com.sumologic.jenkins.jenkinssumologicplugin.metrics;
 
 import com.codahale.metrics.Timer;
 import com.codahale.metrics.*;
+import com.sumologic.jenkins.jenkinssumologicplugin.constants.MetricDataFormatEnum;
+import com.sumologic.jenkins.jenkinssumologicplugin.constants.MetricStatisticEnum;
 import com.sumologic.jenkins.jenkinssumologicplugin.listeners.SumoSCMListener;
 import com.sumologic.jenkins.jenkinssumologicplugin.sender.LogSenderHelper;
 
 import java.io.IOException;
+import java.net.InetAddress;
 import java.util.*;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
@@ -14,7 +17,11 @@ import java.util.logging.Logger;
 /**
  * Sumo Logic plugin for Jenkins model.
  * <p>
- * Sumo Metric Reporter to generate graphite metric data
+ * Sumo Metric Reporter to generate graphite or carbon2 metric data
+ * <p>
+ * When only changes are reported, the last value of every series is kept by a hash of the line up to the value. A
+ * series is left out while its value does not change, and counters are sent as the change since the last report.
+ * Every {@code heartbeat} reports all series are sent, so they do not look gone in Sumo Logic.
  * <p>
  * Created by Sourabh Jain on 5/2019.
  */
@@ -24,11 +31,30 @@ public class SumoMetricReporter extends ScheduledReporter {
 
     private final Clock clock;
     private final String prefix;
+    private final MetricDataFormatEnum format;
+    private final String node;
+    private final MetricStatisticEnum[] histogramStatistics;
+    private final MetricStatisticEnum[] meterStatistics;
+    private final MetricStatisticEnum[] timerStatistics;
+    private final boolean changesOnly;
+    private final int heartbeat;
     private final LogSenderHelper logSenderHelper;
 
-    private static final String[] snapshotStatisticsKeys = new String[]{"max", "mean", "min"};
-    //, "stddev", "p50", "p75", "p95", "p98", "p99", "p999"};
-    //private static final String[] snapshotRateKeys = new String[]{"m1_rate", "m5_rate", "m15_rate", "mean_rate"};
+    // Only used by buildMessages, which is synchronized
+    private LongLongHashMap lastValues = new LongLongHashMap();
+    private LongLongHashMap reportedValues = lastValues;
+    private boolean fullReport = true;
+    private long reportCount;
+
+    public static final Set<MetricStatisticEnum> DEFAULT_HISTOGRAM_STATISTICS = Collections.unmodifiableSet(EnumSet.of(
+            MetricStatisticEnum.COUNT, MetricStatisticEnum.MAX, MetricStatisticEnum.MEAN, MetricStatisticEnum.MIN));
+    public static final Set<MetricStatisticEnum> DEFAULT_METER_STATISTICS = Collections.unmodifiableSet(EnumSet.of(
+            MetricStatisticEnum.COUNT, MetricStatisticEnum.M1_RATE, MetricStatisticEnum.M5_RATE,
+            MetricStatisticEnum.M15_RATE, MetricStatisticEnum.MEAN_RATE));
+    public static final Set<MetricStatisticEnum> DEFAULT_TIMER_STATISTICS = Collections.unmodifiableSet(EnumSet.of(
+            MetricStatisticEnum.MAX, MetricStatisticEnum.MEAN, MetricStatisticEnum.MIN));
+
+    private static final int DEFAULT_HEARTBEAT = Integer.getInteger(SumoMetricReporter.class.getName() + ".heartbeat", 10);
 
     public static Builder forRegistry(MetricRegistry metricRegistry) {
         return new Builder(metricRegistry);
@@ -40,134 +66,285 @@ public class SumoMetricReporter extends ScheduledReporter {
                                TimeUnit rateUnit,
                                TimeUnit durationUnit,
                                MetricFilter filter,
+                               MetricDataFormatEnum format,
+                               String node,
+                               MetricStatisticEnum[] histogramStatistics,
+                               MetricStatisticEnum[] meterStatistics,
+                               MetricStatisticEnum[] timerStatistics,
+                               boolean changesOnly,
+                               int heartbeat,
                                LogSenderHelper logSenderHelper) {
         super(metricRegistry, "sumo-metric-reporter", filter, rateUnit, durationUnit);
         this.clock = clock;
         this.prefix = prefix;
+        this.format = format;
+        this.node = node;
+        this.histogramStatistics = histogramStatistics;
+        this.meterStatistics = meterStatistics;
+        this.timerStatistics = timerStatistics;
+        this.changesOnly = changesOnly;
+        this.heartbeat = heartbeat;
         this.logSenderHelper = logSenderHelper;
     }
 
-    private String prefix(String... components) {
-        return MetricRegistry.name(prefix, components);
-    }
-
     public void report(SortedMap<String, Gauge> gauges, SortedMap<String, Counter> counters,
                        SortedMap<String, Histogram> histograms, SortedMap<String, Meter> meters,
                        SortedMap<String, Timer> timers) {
-        final long timeInSec = this.clock.getTime() / 1000;
+        try (Timer.Context ignored = PluginMetrics.time(SumoMetricReporter.class, "report")) {
+            logSenderHelper.sendLogsToMetricDataCategory(buildMessages(gauges, counters, histograms, meters, timers),
+                    format.getContentType());
+        } catch (Exception e) {
+            LOG.log(Level.WARNING, "An error occurred while Sending Metrics", e);
+        }
+    }
 
-        List<String> messages = new ArrayList<>();
+    synchronized List<String> buildMessages(SortedMap<String, Gauge> gauges, SortedMap<String, Counter> counters,
+                                            SortedMap<String, Histogram> histograms, SortedMap<String, Meter> meters,
+                                            SortedMap<String, Timer> timers) throws IOException {
+        final long timeInSec = this.clock.getTime() / 1000;
+        if (changesOnly) {
+            fullReport = heartbeat <= 1 || reportCount++ % heartbeat == 0;
+            // A full report starts a new map, dropping series that are gone from the registry
+            reportedValues = fullReport ? new LongLongHashMap(lastValues.size()) : lastValues;
+        }
 
-        try {
-            for (Map.Entry<String, Gauge> gauge : gauges.entrySet()) {
-                reportGauge(gauge.getKey(), gauge.getValue(), timeInSec, messages);
-            }
+        List<String> messages = new ArrayList<>(gauges.size() + counters.size()
+                + histograms.size() * histogramStatistics.length
+                + meters.size() * meterStatistics.length
+                + timers.size() * timerStatistics.length);
+        // One builder for every line of the report
+        StringBuilder line = new StringBuilder(128);
 
-            for (Map.Entry<String, Counter> counter : counters.entrySet()) {
-                reportCounter(counter.getKey(), counter.getValue(), timeInSec, messages);
-            }
+        for (Map.Entry<String, Gauge> gauge : gauges.entrySet()) {
+            reportGauge(gauge.getKey(), gauge.getValue(), timeInSec, line, messages);
+        }
 
-            /*for (Map.Entry<String, Histogram> histogram : histograms.entrySet()) {
-                reportHistogram(histogram.getKey(), histogram.getValue(), timeInMilli, messages);
-            }
+        for (Map.Entry<String, Counter> counter : counters.entrySet()) {
+            reportCounter(counter.getKey(), counter.getValue(), timeInSec, line, messages);
+        }
 
-            for (Map.Entry<String, Meter> meter : meters.entrySet()) {
-                reportMetered(meter.getKey(), meter.getValue(), timeInMilli, messages);
-            }*/
+        for (Map.Entry<String, Histogram> histogram : histograms.entrySet()) {
+            reportHistogram(histogram.getKey(), histogram.getValue(), timeInSec, line, messages);
+        }
 
-            for (Map.Entry<String, Timer> timer : timers.entrySet()) {
-                reportTimer(timer.getKey(), timer.getValue(), timeInSec, messages);
-            }
+        for (Map.Entry<String, Meter> meter : meters.entrySet()) {
+            reportMetered(meter.getKey(), meter.getValue(), timeInSec, line, messages);
+        }
 
-            logSenderHelper.sendLogsToMetricDataCategory(messages);
-        } catch (Exception e) {
-            LOG.log(Level.WARNING, "An error occurred while Sending Metrics", e);
+        for (Map.Entry<String, Timer> timer : timers.entrySet()) {
+            reportTimer(timer.getKey(), timer.getValue(), timeInSec, line, messages);
         }
+
+        lastValues = reportedValues;
+        return messages;
     }
 
-    private void reportGauge(String name, Gauge gauge, long timestamp, List<String> messages) throws IOException {
-        final String value = format(gauge.getValue());
-        if (value != null) {
-            messages.add(buildMessage(prefix(name), value, timestamp));
+    private void reportGauge(String name, Gauge gauge, long timestamp, StringBuilder line, List<String> messages) {
+        Object value = gauge.getValue();
+        if (value instanceof Float || value instanceof Double) {
+            addMessage(line, name, null, "gauge", ((Number) value).doubleValue(), timestamp, messages);
+        } else if (value instanceof Byte || value instanceof Short || value instanceof Integer || value instanceof Long) {
+            addMessage(line, name, null, "gauge", ((Number) value).longValue(), timestamp, messages);
         }
     }
 
-    private void reportCounter(String name, Counter counter, long timestamp, List<String> messages) throws IOException {
-        messages.add(buildMessage(prefix(name, "count"), format(counter.getCount()), timestamp));
+    private void reportCounter(String name, Counter counter, long timestamp, StringBuilder line, List<String> messages) {
+        long count = counter.getCount();
+        if (!changesOnly) {
+            addMessage(line, name, "count", "counter", count, timestamp, messages);
+            return;
+        }
+        startLine(line, name, "count", "counter");
+        long key = seriesKey(line);
+        long delta = count - lastValues.get(key, 0);
+        reportedValues.put(key, count);
+        if (delta != 0 || fullReport) {
+            line.append(delta);
+            messages.add(endLine(line, timestamp));
+        }
     }
 
-    private void reportTimer(String name, Timer timer, long timestamp, List<String> messages) throws IOException {
-        double[] values = prepareDataFromSnapshotForStatistics(timer.getSnapshot());
-        for (int i = 0; i < snapshotStatisticsKeys.length; i++) {
-            messages.add(buildMessage(prefix(name, snapshotStatisticsKeys[i]), format(convertDuration(values[i])), timestamp));
-        }
+    private void reportTimer(String name, Timer timer, long timestamp, StringBuilder line, List<String> messages) {
+        reportStatistics(name, "timer", timer, timerStatistics, timestamp, line, messages);
+    }
 
-        //reportMetered(name, timer, timestamp, messages);
+    private void reportMetered(String name, Metered meter, long timestamp, StringBuilder line, List<String> messages) {
+        reportStatistics(name, "meter", meter, meterStatistics, timestamp, line, messages);
     }
 
-    /*private void reportMetered(String name, Metered meter, long timestamp, List<String> messages) throws IOException {
-        messages.add(buildMessage(prefix(name, "count"), format(meter.getCount()), timestamp));
+    private void reportHistogram(String name, Histogram histogram, long timestamp, StringBuilder line, List<String> messages) {
+        reportStatistics(name, "histogram", histogram, histogramStatistics, timestamp, line, messages);
+    }
 
-        String[] values = prepareDataFromMeterForRate(meter);
-        for (int i = 0; i < snapshotRateKeys.length; i++) {
-            messages.add(buildMessage(prefix(name, snapshotRateKeys[i]), values[i], timestamp));
+    /**
+     * The statistics were filtered to those the metric has when the reporter was built. The snapshot, a copy of the
+     * samples, is only taken if a sampled statistic is reported.
+     */
+    private void reportStatistics(String name, String type, Metric metric, MetricStatisticEnum[] statistics,
+                                  long timestamp, StringBuilder line, List<String> messages) {
+        Snapshot snapshot = null;
+        for (MetricStatisticEnum statistic : statistics) {
+            if (statistic == MetricStatisticEnum.COUNT) {
+                addMessage(line, name, statistic.getValue(), type, ((Counting) metric).getCount(), timestamp, messages);
+            } else if (statistic.isRate()) {
+                addMessage(line, name, statistic.getValue(), type, convertRate(rate((Metered) metric, statistic)),
+                        timestamp, messages);
+            } else {
+                if (snapshot == null) {
+                    snapshot = ((Sampling) metric).getSnapshot();
+                }
+                double value = sample(snapshot, statistic);
+                addMessage(line, name, statistic.getValue(), type, metric instanceof Timer ? convertDuration(value) : value,
+                        timestamp, messages);
+            }
         }
     }
 
-    private void reportHistogram(String name, Histogram histogram, long timestamp, List<String> messages) throws IOException {
+    private static double rate(Metered metered, MetricStatisticEnum statistic) {
+        switch (statistic) {
+            case M1_RATE:
+                return metered.getOneMinuteRate();
+            case M5_RATE:
+                return metered.getFiveMinuteRate();
+            case M15_RATE:
+                return metered.getFifteenMinuteRate();
+            default:
+                return metered.getMeanRate();
+        }
+    }
 
-        messages.add(buildMessage(prefix(name, "count"), format(histogram.getCount()), timestamp));
+    private static double sample(Snapshot snapshot, MetricStatisticEnum statistic) {
+        switch (statistic) {
+            case MAX:
+                return snapshot.getMax();
+            case MEAN:
+                return snapshot.getMean();
+            case MIN:
+                return snapshot.getMin();
+            case STDDEV:
+                return snapshot.getStdDev();
+            case P50:
+                return snapshot.getMedian();
+            case P75:
+                return snapshot.get75thPercentile();
+            case P95:
+                return snapshot.get95thPercentile();
+            case P98:
+                return snapshot.get98thPercentile();
+            case P99:
+                return snapshot.get99thPercentile();
+            default:
+                return snapshot.get999thPercentile();
+        }
+    }
 
-        double[] values = prepareDataFromSnapshotForStatistics(histogram.getSnapshot());
-        for (int i = 0; i < snapshotStatisticsKeys.length; i++) {
-            messages.add(buildMessage(prefix(name, snapshotStatisticsKeys[i]), format(values[i]), timestamp));
+    private void addMessage(StringBuilder line, String name, String statistic, String type, long value,
+                            long timestamp, List<String> messages) {
+        startLine(line, name, statistic, type);
+        if (changed(line, value)) {
+            line.append(value);
+            messages.add(endLine(line, timestamp));
         }
-    }*/
+    }
 
-    private double[] prepareDataFromSnapshotForStatistics(final Snapshot snapshot) {
-        return new double[]{
-                snapshot.getMax(), snapshot.getMean(), snapshot.getMin()};
-                /*snapshot.getStdDev(), snapshot.getMedian(), snapshot.get75thPercentile(),
-                snapshot.get95thPercentile(), snapshot.get98thPercentile(),
-                snapshot.get99thPercentile(), snapshot.get999thPercentile()};*/
+    private void addMessage(StringBuilder line, String name, String statistic, String type, double value,
+                            long timestamp, List<String> messages) {
+        startLine(line, name, statistic, type);
+        if (changed(line, Double.doubleToLongBits(value))) {
+            appendValue(line, value);
+            messages.add(endLine(line, timestamp));
+        }
     }
 
-    /*private String[] prepareDataFromMeterForRate(final Metered metered) {
-        return new String[]{
-                format(convertRate(metered.getOneMinuteRate())),
-                format(convertRate(metered.getFiveMinuteRate())),
-                format(convertRate(metered.getFifteenMinuteRate())),
-                format(convertRate(metered.getMeanRate()))
-        };
-    }*/
+    /**
+     * @param line the line up to the value, which identifies the series
+     */
+    private boolean changed(StringBuilder line, long value) {
+        if (!changesOnly) {
+            return true;
+        }
+        long key = seriesKey(line);
+        boolean changed = fullReport || !lastValues.containsKey(key) || lastValues.get(key, 0) != value;
+        reportedValues.put(key, value);
+        return changed;
+    }
 
-    private String buildMessage(String name, String value, long timeStamp) {
-        return name + " " + value + " " + timeStamp;
+    // 64 bit FNV-1a, so the series needs no String of its own
+    private static long seriesKey(StringBuilder line) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < line.length(); i++) {
+            hash ^= line.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
     }
 
-    private String format(Object o) {
-        if (o instanceof Float) {
-            return format(((Float) o).doubleValue());
-        } else if (o instanceof Double) {
-            return format(((Double) o).doubleValue());
-        } else if (o instanceof Byte) {
-            return format(((Byte) o).longValue());
-        } else if (o instanceof Short) {
-            return format(((Short) o).longValue());
-        } else if (o instanceof Integer) {
-            return format(((Integer) o).longValue());
-        } else if (o instanceof Long) {
-            return format(((Long) o).longValue());
+    /**
+     * Graphite: {@code prefix.name.statistic }, Carbon2: {@code metric=name statistic=statistic host=prefix  type=type
+     * node=node }, metric type and node being meta tags.
+     */
+    private void startLine(StringBuilder line, String name, String statistic, String type) {
+        line.setLength(0);
+        if (format == MetricDataFormatEnum.CARBON2) {
+            appendTag(line, "metric", name);
+            if (statistic != null) {
+                line.append(' ');
+                appendTag(line, "statistic", statistic);
+            }
+            if (prefix != null && !prefix.isEmpty()) {
+                line.append(' ');
+                appendTag(line, "host", prefix);
+            }
+            line.append("  ");
+            appendTag(line, "type", type);
+            if (node != null && !node.isEmpty()) {
+                line.append(' ');
+                appendTag(line, "node", node);
+            }
+        } else {
+            if (prefix != null && !prefix.isEmpty()) {
+                line.append(prefix).append('.');
+            }
+            line.append(name);
+            if (statistic != null) {
+                line.append('.').append(statistic);
+            }
         }
-        return null;
+        line.append(' ');
+    }
+
+    private String endLine(StringBuilder line, long timestamp) {
+        return line.append(' ').append(timestamp).toString();
     }
 
-    private String format(long n) {
-        return Long.toString(n);
+    // Tags are separated by spaces and split on '=', so neither may appear in a value
+    private static void appendTag(StringBuilder line, String key, String value) {
+        line.append(key).append('=');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            line.append(c == ' ' || c == '=' ? '_' : c);
+        }
     }
 
-    private String format(double v) {
-        return String.format(Locale.US, "%2.2f", v);
+    /**
+     * Two decimals, like {@code %2.2f}, without going through a Formatter.
+     */
+    static void appendValue(StringBuilder line, double v) {
+        if (Double.isNaN(v) || Double.isInfinite(v) || Math.abs(v) >= 1e15) {
+            line.append(String.format(Locale.US, "%2.2f", v));
+            return;
+        }
+        long hundredths = Math.round(v * 100);
+        if (hundredths < 0) {
+            line.append('-');
+            hundredths = -hundredths;
+        }
+        line.append(hundredths / 100).append('.');
+        long fraction = hundredths % 100;
+        if (fraction < 10) {
+            line.append('0');
+        }
+        line.append(fraction);
     }
 
     public static class Builder {
@@ -177,12 +354,24 @@ public class SumoMetricReporter extends ScheduledReporter {
         private TimeUnit rateUnit;
         private TimeUnit durationUnit;
         private MetricFilter filter;
+        private MetricDataFormatEnum format;
+        private String node;
+        private Set<MetricStatisticEnum> histogramStatistics;
+        private Set<MetricStatisticEnum> meterStatistics;
+        private Set<MetricStatisticEnum> timerStatistics;
+        private boolean changesOnly;
+        private int heartbeat;
 
         private Builder(MetricRegistry metricRegistry) {
             this.metricRegistry = metricRegistry;
             this.clock = Clock.defaultClock();
             this.rateUnit = TimeUnit.SECONDS;
             this.durationUnit = TimeUnit.MILLISECONDS;
+            this.format = MetricDataFormatEnum.GRAPHITE;
+            this.histogramStatistics = DEFAULT_HISTOGRAM_STATISTICS;
+            this.meterStatistics = DEFAULT_METER_STATISTICS;
+            this.timerStatistics = DEFAULT_TIMER_STATISTICS;
+            this.heartbeat = DEFAULT_HEARTBEAT;
         }
 
         public Builder withClock(Clock clock) {
@@ -210,8 +399,84 @@ public class SumoMetricReporter extends ScheduledReporter {
             return this;
         }
 
+        public Builder formattedAs(MetricDataFormatEnum format) {
+            this.format = format;
+            return this;
+        }
+
+        /**
+         * The node tag of carbon2 lines, the local host name unless set.
+         */
+        public Builder onNode(String node) {
+            this.node = node;
+            return this;
+        }
+
+        /**
+         * The statistics for histograms, meters and timers, each only reporting those it has: histograms have no
+         * rates and meters no samples.
+         */
+        public Builder withStatistics(Set<MetricStatisticEnum> statistics) {
+            this.histogramStatistics = statistics;
+            this.meterStatistics = statistics;
+            this.timerStatistics = statistics;
+            return this;
+        }
+
+        public Builder withHistogramStatistics(Set<MetricStatisticEnum> statistics) {
+            this.histogramStatistics = statistics;
+            return this;
+        }
+
+        public Builder withMeterStatistics(Set<MetricStatisticEnum> statistics) {
+            this.meterStatistics = statistics;
+            return this;
+        }
+
+        public Builder withTimerStatistics(Set<MetricStatisticEnum> statistics) {
+            this.timerStatistics = statistics;
+            return this;
+        }
+
+        /**
+         * Leave out series whose value did not change and send counters as the change since the last report.
+         */
+        public Builder reportChangesOnly(boolean changesOnly) {
+            this.changesOnly = changesOnly;
+            return this;
+        }
+
+        /**
+         * Send every series every {@code reports} reports when only changes are reported.
+         */
+        public Builder withHeartbeat(int reports) {
+            this.heartbeat = reports;
+            return this;
+        }
+
         public SumoMetricReporter build(LogSenderHelper logSenderHelper) {
-            return new SumoMetricReporter(metricRegistry, clock, prefix, rateUnit, durationUnit, filter, logSenderHelper);
+            return new SumoMetricReporter(metricRegistry, clock, prefix, rateUnit, durationUnit, filter, format,
+                    node != null ? node : localHostName(),
+                    supported(histogramStatistics, true, false),
+                    supported(meterStatistics, false, true),
+                    supported(timerStatistics, true, true),
+                    changesOnly, heartbeat, logSenderHelper);
+        }
+
+        private static MetricStatisticEnum[] supported(Set<MetricStatisticEnum> statistics, boolean sampled, boolean rates) {
+            return statistics.stream()
+                    .filter(statistic -> statistic.isSampled() ? sampled : !statistic.isRate() || rates)
+                    .sorted()
+                    .toArray(MetricStatisticEnum[]::new);
+        }
+
+        private static String localHostName() {
+            try {
+                return InetAddress.getLocalHost().getHostName();
+            } catch (IOException e) {
+                LOG.log(Level.WARNING, "Couldn't resolve jenkins host name for the metric node tag.");
+                return null;
+            }
         }
     }
 }
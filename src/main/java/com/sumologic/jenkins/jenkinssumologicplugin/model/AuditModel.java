@@ -1,6 +1,6 @@
 package com.sumologic.jenkins.jenkinssumologicplugin.model;
 
-import com.google.gson.Gson;
+import com.sumologic.jenkins.jenkinssumologicplugin.utility.SumoGson;
 
 import java.util.Map;
 
@@ -50,7 +50,6 @@ public class AuditModel extends BaseModel {
     }
 
     public String toString() {
-        Gson gson = new Gson();
-        return gson.toJson(this);
+        return SumoGson.toJson(this);
     }
 }
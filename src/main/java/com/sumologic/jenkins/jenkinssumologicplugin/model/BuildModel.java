@@ -1,6 +1,6 @@
 package com.sumologic.jenkins.jenkinssumologicplugin.model;
 
-import com.google.gson.Gson;
+import com.sumologic.jenkins.jenkinssumologicplugin.utility.SumoGson;
 
 import java.util.Map;
 
@@ -32,8 +32,7 @@ public class BuildModel {
     private Map<String, Object> jobMetaData;
 
     public String toJson() {
-        Gson gson = new Gson();
-        return gson.toJson(this);
+        return SumoGson.toJson(this);
     }
 
     public String getName() {
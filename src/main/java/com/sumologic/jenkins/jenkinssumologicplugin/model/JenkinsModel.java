@@ -1,6 +1,6 @@
 package com.sumologic.jenkins.jenkinssumologicplugin.model;
 
-import com.google.gson.Gson;
+import com.sumologic.jenkins.jenkinssumologicplugin.utility.SumoGson;
 
 import java.util.Collection;
 import java.util.List;
@@ -40,7 +40,7 @@ public class JenkinsModel {
   }
 
   public String toJson() {
-    return new Gson().toJson(this);
+    return SumoGson.toJson(this);
   }
 
   public void setDescription(String description) {
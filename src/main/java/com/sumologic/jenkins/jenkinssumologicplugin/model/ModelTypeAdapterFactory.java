@@ -0,0 +1,222 @@
+package com.sumologic.jenkins.jenkinssumologicplugin.model;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Sumo Logic plugin for Jenkins model.
+ * <p>
+ * Hand-written adapters for the models that are serialized on every build and every periodic run, so writing them
+ * does not go through reflection. The output is the same as the reflective adapter: fields in declaration order,
+ * sub class fields before super class fields, and null fields left out. Only the exact classes are matched, sub
+ * classes such as {@link MavenModuleSetBuildModel} keep the reflective adapter. Reading is left to the reflective
+ * adapter.
+ */
+public class ModelTypeAdapterFactory implements TypeAdapterFactory {
+
+    private static final TypeToken<Map<String, Object>> MAP_TYPE = new TypeToken<Map<String, Object>>() {
+    };
+    private static final TypeToken<Map<String, Number>> VALUES_TYPE = new TypeToken<Map<String, Number>>() {
+    };
+    private static final TypeToken<List<String>> LIST_TYPE = new TypeToken<List<String>>() {
+    };
+    private static final TypeToken<Set<String>> SET_TYPE = new TypeToken<Set<String>>() {
+    };
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        Class<? super T> rawType = type.getRawType();
+        if (rawType != BuildModel.class && rawType != SlaveModel.class && rawType != QueueModel.class
+                && rawType != PipelineStageModel.class && rawType != TestCaseResultModel.class) {
+            return null;
+        }
+        TypeAdapter<T> delegate = gson.getDelegateAdapter(this, type);
+        if (rawType == BuildModel.class) {
+            return (TypeAdapter<T>) new BuildModelAdapter(gson, (TypeAdapter<BuildModel>) delegate);
+        } else if (rawType == SlaveModel.class) {
+            return (TypeAdapter<T>) new SlaveModelAdapter(gson, (TypeAdapter<SlaveModel>) delegate);
+        } else if (rawType == QueueModel.class) {
+            return (TypeAdapter<T>) new QueueModelAdapter((TypeAdapter<QueueModel>) delegate);
+        } else if (rawType == PipelineStageModel.class) {
+            return (TypeAdapter<T>) new PipelineStageModelAdapter(gson, (TypeAdapter<PipelineStageModel>) delegate);
+        }
+        return (TypeAdapter<T>) new TestCaseResultModelAdapter((TypeAdapter<TestCaseResultModel>) delegate);
+    }
+
+    private abstract static class ModelAdapter<T> extends TypeAdapter<T> {
+        private final TypeAdapter<T> delegate;
+
+        ModelAdapter(TypeAdapter<T> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(JsonWriter out, T value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            writeFields(out, value);
+            out.endObject();
+        }
+
+        abstract void writeFields(JsonWriter out, T value) throws IOException;
+
+        @Override
+        public T read(JsonReader in) throws IOException {
+            return delegate.read(in);
+        }
+    }
+
+    // Floats go through Number so they are written like Float.toString, the same as the reflective adapter.
+    private static void writeFloat(JsonWriter out, String name, float value) throws IOException {
+        out.name(name).value(Float.valueOf(value));
+    }
+
+    private static class BuildModelAdapter extends ModelAdapter<BuildModel> {
+        private final TypeAdapter<TestCaseModel> testCaseAdapter;
+        private final TypeAdapter<Map<String, Object>> mapAdapter;
+
+        BuildModelAdapter(Gson gson, TypeAdapter<BuildModel> delegate) {
+            super(delegate);
+            this.testCaseAdapter = gson.getAdapter(TestCaseModel.class);
+            this.mapAdapter = gson.getAdapter(MAP_TYPE);
+        }
+
+        @Override
+        void writeFields(JsonWriter out, BuildModel value) throws IOException {
+            out.name("name").value(value.getName());
+            out.name("hudsonVersion").value(value.getHudsonVersion());
+            out.name("scm").value(value.getScm());
+            out.name("result").value(value.getResult());
+            out.name("description").value(value.getDescription());
+            out.name("number").value(value.getNumber());
+            out.name("start_time").value(value.getStart_time());
+            out.name("duration").value(value.getDuration());
+            out.name("logType").value(value.getLogType());
+            out.name("user").value(value.getUser());
+            out.name("jobStartTime").value(value.getJobStartTime());
+            out.name("jobType").value(value.getJobType());
+            writeFloat(out, "jobRunDuration", value.getJobRunDuration());
+            out.name("jobBuildURL").value(value.getJobBuildURL());
+            out.name("upstreamJobURL").value(value.getUpstreamJobURL());
+            out.name("triggerCauses").value(value.getTriggerCauses());
+            out.name("label").value(value.getLabel());
+            out.name("nodeName").value(value.getNodeName());
+            out.name("testResult");
+            testCaseAdapter.write(out, value.getTestResult());
+            out.name("jobMetaData");
+            mapAdapter.write(out, value.getJobMetaData());
+        }
+    }
+
+    private static class SlaveModelAdapter extends ModelAdapter<SlaveModel> {
+        private final TypeAdapter<Map<String, Object>> mapAdapter;
+        private final TypeAdapter<Map<String, Number>> valuesAdapter;
+
+        SlaveModelAdapter(Gson gson, TypeAdapter<SlaveModel> delegate) {
+            super(delegate);
+            this.mapAdapter = gson.getAdapter(MAP_TYPE);
+            this.valuesAdapter = gson.getAdapter(VALUES_TYPE);
+        }
+
+        @Override
+        void writeFields(JsonWriter out, SlaveModel value) throws IOException {
+            out.name("numberOfExecutors").value(value.getNumberOfExecutors());
+            out.name("numberOfFreeExecutors").value(value.getNumberOfFreeExecutors());
+            out.name("nodeName").value(value.getNodeName());
+            out.name("nodeLabel").value(value.getNodeLabel());
+            out.name("nodeStatus").value(value.getNodeStatus());
+            out.name("isIdle").value(value.isIdle());
+            out.name("isOnline").value(value.isOnline());
+            out.name("reasonOffline").value(value.getReasonOffline());
+            out.name("isRemoved").value(value.isRemoved());
+            out.name("isConnecting").value(value.isConnecting());
+            out.name("nodeURL").value(value.getNodeURL());
+            out.name("eventSource").value(value.getEventSource());
+            out.name("monitorData");
+            mapAdapter.write(out, value.rawMonitorData());
+            out.name("monitorValues");
+            valuesAdapter.write(out, value.getMonitorValues());
+            out.name("logType").value(value.getLogType());
+            out.name("eventTime").value(value.getEventTime());
+        }
+    }
+
+    private static class QueueModelAdapter extends ModelAdapter<QueueModel> {
+
+        QueueModelAdapter(TypeAdapter<QueueModel> delegate) {
+            super(delegate);
+        }
+
+        @Override
+        void writeFields(JsonWriter out, QueueModel value) throws IOException {
+            out.name("queueId").value(value.getQueueId());
+            writeFloat(out, "queueTime", value.getQueueTime());
+            out.name("isBlocked").value(value.isBlocked());
+            out.name("reasonForBlock").value(value.getReasonForBlock());
+            out.name("isConcurrentBuild").value(value.isConcurrentBuild());
+            out.name("jobName").value(value.getJobName());
+            out.name("jobURL").value(value.getJobURL());
+            out.name("logType").value(value.getLogType());
+            out.name("eventTime").value(value.getEventTime());
+        }
+    }
+
+    private static class PipelineStageModelAdapter extends ModelAdapter<PipelineStageModel> {
+        private final TypeAdapter<Set<String>> setAdapter;
+        private final TypeAdapter<List<String>> listAdapter;
+
+        PipelineStageModelAdapter(Gson gson, TypeAdapter<PipelineStageModel> delegate) {
+            super(delegate);
+            this.setAdapter = gson.getAdapter(SET_TYPE);
+            this.listAdapter = gson.getAdapter(LIST_TYPE);
+        }
+
+        @Override
+        void writeFields(JsonWriter out, PipelineStageModel value) throws IOException {
+            out.name("id").value(value.getId());
+            out.name("stageId").value(value.getStageId());
+            out.name("name").value(value.getName());
+            out.name("status").value(value.getStatus());
+            out.name("startTime").value(value.getStartTime());
+            writeFloat(out, "duration", value.getDuration());
+            writeFloat(out, "pauseDuration", value.getPauseDuration());
+            out.name("arguments").value(value.getArguments());
+            out.name("executionNode").value(value.getExecutionNode());
+            out.name("parallelStage");
+            setAdapter.write(out, value.getParallelStage());
+            out.name("steps");
+            listAdapter.write(out, value.getSteps());
+            out.name("error").value(value.getError());
+        }
+    }
+
+    private static class TestCaseResultModelAdapter extends ModelAdapter<TestCaseResultModel> {
+
+        TestCaseResultModelAdapter(TypeAdapter<TestCaseResultModel> delegate) {
+            super(delegate);
+        }
+
+        @Override
+        void writeFields(JsonWriter out, TestCaseResultModel value) throws IOException {
+            out.name("className").value(value.getClassName());
+            out.name("testName").value(value.getTestName());
+            out.name("errorStackTrace").value(value.getErrorStackTrace());
+            out.name("errorDetails").value(value.getErrorDetails());
+            out.name("status").value(value.getStatus());
+            writeFloat(out, "duration", value.getDuration());
+        }
+    }
+}
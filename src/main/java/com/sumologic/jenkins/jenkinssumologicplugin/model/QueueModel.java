@@ -1,6 +1,6 @@
 package com.sumologic.jenkins.jenkinssumologicplugin.model;
 
-import com.google.gson.Gson;
+import com.sumologic.jenkins.jenkinssumologicplugin.utility.SumoGson;
 
 /**
  * Created by deven on 8/6/15.
@@ -119,7 +119,6 @@ public class QueueModel extends BaseModel {
     }
 
     public String toString() {
-        Gson gson = new Gson();
-        return gson.toJson(this);
+        return SumoGson.toJson(this);
     }
 }
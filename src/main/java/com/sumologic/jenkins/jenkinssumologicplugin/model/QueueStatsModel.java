@@ -0,0 +1,124 @@
+package com.sumologic.jenkins.jenkinssumologicplugin.model;
+
+import com.sumologic.jenkins.jenkinssumologicplugin.utility.SumoGson;
+
+/**
+ * Sumo Logic plugin for Jenkins model.
+ * <p>
+ * Queue Stats Model
+ * <p>
+ * How long the items of one label that left the queue since the last report waited, in milliseconds, in total and
+ * per state: waiting, e.g. in the quiet period, blocked and buildable, i.e. waiting for an executor.
+ */
+public class QueueStatsModel extends BaseModel {
+
+    private String label;
+    private long itemsLeft;
+    private long itemsCancelled;
+    private WaitTime total;
+    private WaitTime waiting;
+    private WaitTime blocked;
+    private WaitTime buildable;
+
+    public String getLabel() {
+        return label;
+    }
+
+    public void setLabel(String label) {
+        this.label = label;
+    }
+
+    public long getItemsLeft() {
+        return itemsLeft;
+    }
+
+    public void setItemsLeft(long itemsLeft) {
+        this.itemsLeft = itemsLeft;
+    }
+
+    public long getItemsCancelled() {
+        return itemsCancelled;
+    }
+
+    public void setItemsCancelled(long itemsCancelled) {
+        this.itemsCancelled = itemsCancelled;
+    }
+
+    public WaitTime getTotal() {
+        return total;
+    }
+
+    public void setTotal(WaitTime total) {
+        this.total = total;
+    }
+
+    public WaitTime getWaiting() {
+        return waiting;
+    }
+
+    public void setWaiting(WaitTime waiting) {
+        this.waiting = waiting;
+    }
+
+    public WaitTime getBlocked() {
+        return blocked;
+    }
+
+    public void setBlocked(WaitTime blocked) {
+        this.blocked = blocked;
+    }
+
+    public WaitTime getBuildable() {
+        return buildable;
+    }
+
+    public void setBuildable(WaitTime buildable) {
+        this.buildable = buildable;
+    }
+
+    public String toString() {
+        return SumoGson.toJson(this);
+    }
+
+    public static class WaitTime {
+        private long min;
+        private long max;
+        private double mean;
+        private double p50;
+        private double p95;
+        private double p99;
+
+        public WaitTime(long min, long max, double mean, double p50, double p95, double p99) {
+            this.min = min;
+            this.max = max;
+            this.mean = mean;
+            this.p50 = p50;
+            this.p95 = p95;
+            this.p99 = p99;
+        }
+
+        public long getMin() {
+            return min;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        public double getMean() {
+            return mean;
+        }
+
+        public double getP50() {
+            return p50;
+        }
+
+        public double getP95() {
+            return p95;
+        }
+
+        public double getP99() {
+            return p99;
+        }
+    }
+}
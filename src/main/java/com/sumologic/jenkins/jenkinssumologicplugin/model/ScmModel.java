@@ -1,6 +1,6 @@
 package com.sumologic.jenkins.jenkinssumologicplugin.model;
 
-import com.google.gson.Gson;
+import com.sumologic.jenkins.jenkinssumologicplugin.utility.SumoGson;
 
 import java.util.List;
 
@@ -71,7 +71,6 @@ public class ScmModel extends BaseModel{
     }
 
     public String toString() {
-        Gson gson = new Gson();
-        return gson.toJson(this);
+        return SumoGson.toJson(this);
     }
 }
@@ -1,6 +1,6 @@
 package com.sumologic.jenkins.jenkinssumologicplugin.model;
 
-import com.google.gson.Gson;
+import com.sumologic.jenkins.jenkinssumologicplugin.utility.SumoGson;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -24,6 +24,7 @@ public class SlaveModel extends BaseModel {
     private String nodeURL;
     private String eventSource;
     private Map<String, Object> monitorData;
+    private Map<String, Number> monitorValues;
 
     public SlaveModel() {
 
@@ -110,6 +111,23 @@ public class SlaveModel extends BaseModel {
         return monitorData;
     }
 
+    // Without the lazy default, so the serialized form leaves out monitor data that was never set
+    Map<String, Object> rawMonitorData() {
+        return monitorData;
+    }
+
+    /**
+     * @return the numbers read from the monitor data, sizes in bytes and times in milliseconds, or null if there are
+     * none
+     */
+    public Map<String, Number> getMonitorValues() {
+        return monitorValues;
+    }
+
+    public void setMonitorValues(Map<String, Number> monitorValues) {
+        this.monitorValues = monitorValues;
+    }
+
     public String getNodeName() {
         return nodeName;
     }
@@ -151,7 +169,6 @@ public class SlaveModel extends BaseModel {
     }
 
     public String toString() {
-        Gson gson = new Gson();
-        return gson.toJson(this);
+        return SumoGson.toJson(this);
     }
 }
@@ -57,7 +57,8 @@ public class PipelineStageExtractor extends SumoPipelineJobIdentifier<WorkflowRu
                     pipelineStageModel.setId(counter.getAndIncrement());
                 });
 
-                if(pluginDescriptor.isJobConsoleLogEnabled() || isPipeLineJobWithSpecificFlagEnabled(workflowRun)){
+                if((pluginDescriptor.isJobConsoleLogEnabled() || isPipeLineJobWithSpecificFlagEnabled(workflowRun))
+                        && !pluginDescriptor.isJobConsoleLogStreamingEnabled()){
                     sendConsoleLogsForPipelineStages(workflowRun, visitor);
                 }
 
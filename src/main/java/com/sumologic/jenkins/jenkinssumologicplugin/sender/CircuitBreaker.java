@@ -0,0 +1,64 @@
+package com.sumologic.jenkins.jenkinssumologicplugin.sender;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sumo Logic plugin for Jenkins model.
+ * <p>
+ * Per endpoint circuit breaker used by {@link LogSender}. After a number of consecutive failures the circuit opens
+ * and sends are short-circuited for a while. Once that time has passed a single trial request is let through; its
+ * outcome decides whether the circuit closes again or stays open.
+ */
+public class CircuitBreaker {
+
+    private static final int FAILURE_THRESHOLD = Integer.getInteger(CircuitBreaker.class.getName() + ".failureThreshold", 5);
+    private static final long OPEN_MILLIS = Long.getLong(CircuitBreaker.class.getName() + ".openMillis", TimeUnit.MINUTES.toMillis(1));
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openMillis;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+
+    public CircuitBreaker() {
+        this(FAILURE_THRESHOLD, OPEN_MILLIS);
+    }
+
+    public CircuitBreaker(int failureThreshold, long openMillis) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openMillis = openMillis;
+    }
+
+    /**
+     * @return true if a request may be sent now
+     */
+    public synchronized boolean allowRequest() {
+        if (state == State.OPEN && System.currentTimeMillis() - openedAt >= openMillis) {
+            state = State.HALF_OPEN;
+            return true;
+        }
+        return state == State.CLOSED;
+    }
+
+    public synchronized void recordSuccess() {
+        consecutiveFailures = 0;
+        state = State.CLOSED;
+    }
+
+    public synchronized void recordFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = System.currentTimeMillis();
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+}
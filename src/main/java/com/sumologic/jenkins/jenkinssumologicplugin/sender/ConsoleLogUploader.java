@@ -0,0 +1,455 @@
+package com.sumologic.jenkins.jenkinssumologicplugin.sender;
+
+import com.sumologic.jenkins.jenkinssumologicplugin.PluginDescriptorImpl;
+import hudson.Util;
+import hudson.console.ConsoleNote;
+import hudson.init.InitMilestone;
+import hudson.init.Initializer;
+import hudson.model.Job;
+import hudson.model.Run;
+import hudson.util.AtomicFileWriter;
+import jenkins.model.Jenkins;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.StringUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static com.sumologic.jenkins.jenkinssumologicplugin.constants.SumoConstants.END_OF_PIPELINE;
+import static com.sumologic.jenkins.jenkinssumologicplugin.constants.SumoConstants.PIPELINE;
+import static com.sumologic.jenkins.jenkinssumologicplugin.constants.SumoConstants.START_OF_PIPELINE;
+
+/**
+ * Sumo Logic plugin for Jenkins model.
+ * <p>
+ * Uploads build console logs in the background. The log file is read through NIO in large chunks that are cut at
+ * line boundaries. After every batch Sumo Logic accepts, the byte offset is saved for the build under JENKINS_HOME.
+ * A failed upload, or one cut short by a restart, resumes from that offset. While the build is still writing its log
+ * the upload keeps following the tail instead of finishing early. An upload that fails a number of times in a row
+ * without any batch being accepted is given up.
+ */
+public class ConsoleLogUploader {
+
+    private static final Logger LOG = Logger.getLogger(ConsoleLogUploader.class.getName());
+
+    private static final String UPLOAD_DIR = "sumologic-console-uploads";
+    private static final String STATE_SUFFIX = ".properties";
+
+    private static final int CHUNK_BYTES = Integer.getInteger(ConsoleLogUploader.class.getName() + ".chunkBytes", 1024 * 1024);
+    private static final int THREADS = Integer.getInteger(ConsoleLogUploader.class.getName() + ".threads", 2);
+    private static final long RETRY_DELAY_MILLIS = Long.getLong(ConsoleLogUploader.class.getName() + ".retryDelayMillis", TimeUnit.MINUTES.toMillis(1));
+    private static final int MAX_ATTEMPTS = Integer.getInteger(ConsoleLogUploader.class.getName() + ".maxAttempts", 60);
+    private static final long TAIL_DELAY_MILLIS = Long.getLong(ConsoleLogUploader.class.getName() + ".tailDelayMillis", TimeUnit.SECONDS.toMillis(5));
+
+    private static final byte[] PIPELINE_BYTES = PIPELINE.getBytes(StandardCharsets.UTF_8);
+    private static final byte[] START_OF_PIPELINE_BYTES = START_OF_PIPELINE.getBytes(StandardCharsets.UTF_8);
+    private static final byte[] END_OF_PIPELINE_BYTES = END_OF_PIPELINE.getBytes(StandardCharsets.UTF_8);
+
+    private enum Outcome {
+        DONE, FOLLOW_TAIL, RETRY
+    }
+
+    /**
+     * Receives the lines of the log, {@code endOffset} is the offset just past the line break.
+     */
+    interface LineConsumer {
+        /**
+         * @return false to stop reading
+         */
+        boolean accept(byte[] bytes, int start, int length, long endOffset) throws IOException;
+    }
+
+    private final File directory;
+    private final LogSender logSender;
+    private final ScheduledExecutorService executor;
+    private final Set<String> active = ConcurrentHashMap.newKeySet();
+
+    private static class ConsoleLogUploaderHolder {
+        static ConsoleLogUploader consoleLogUploader = new ConsoleLogUploader(getDefaultDirectory(), LogSender.getInstance(), THREADS);
+    }
+
+    public static ConsoleLogUploader getInstance() {
+        return ConsoleLogUploaderHolder.consoleLogUploader;
+    }
+
+    private static File getDefaultDirectory() {
+        try {
+            Jenkins jenkins = Jenkins.getInstance();
+            return jenkins == null ? null : new File(jenkins.getRootDir(), UPLOAD_DIR);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    ConsoleLogUploader(File directory, LogSender logSender, int threads) {
+        this.logSender = logSender;
+        this.directory = directory != null && (directory.isDirectory() || directory.mkdirs()) ? directory : null;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newScheduledThreadPool(Math.max(1, threads), runnable -> {
+            Thread thread = new Thread(runnable, "Sumo Logic Console Uploader #" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Start uploading the console log of the build, returns immediately. A build that is already being uploaded is
+     * not uploaded twice, and nothing is uploaded while no HTTP source URL is configured.
+     */
+    public void submit(Run run) {
+        if (!hasUrl()) {
+            return;
+        }
+        start(new Upload(run.getParent().getFullName(), run.getNumber()));
+    }
+
+    private static boolean hasUrl() {
+        PluginDescriptorImpl pluginDescriptor = PluginDescriptorImpl.getInstance();
+        return pluginDescriptor != null && StringUtils.isNotBlank(pluginDescriptor.getUrl());
+    }
+
+    @Initializer(after = InitMilestone.JOB_LOADED)
+    public static void resumePendingUploads() {
+        getInstance().resume();
+    }
+
+    /**
+     * Pick up uploads that were still in progress when Jenkins stopped.
+     */
+    void resume() {
+        if (directory == null) {
+            return;
+        }
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(STATE_SUFFIX));
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            Upload upload = Upload.load(file);
+            if (upload == null) {
+                LOG.log(Level.WARNING, "Discarding unreadable console upload state " + file);
+                delete(file);
+            } else {
+                start(upload);
+            }
+        }
+    }
+
+    private void start(Upload upload) {
+        if (!active.add(upload.key())) {
+            return;
+        }
+        save(upload);
+        executor.execute(() -> process(upload));
+    }
+
+    private void process(Upload upload) {
+        Outcome outcome;
+        try {
+            Run run = findRun(upload);
+            outcome = run == null ? Outcome.DONE : upload(run, upload);
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Console log upload for " + upload.key() + " failed, retrying", e);
+            outcome = Outcome.RETRY;
+        } catch (Exception e) {
+            LOG.log(Level.WARNING, "Console log upload for " + upload.key() + " failed", e);
+            outcome = Outcome.DONE;
+        }
+        if (outcome == Outcome.RETRY && ++upload.failures >= MAX_ATTEMPTS) {
+            LOG.log(Level.WARNING, "Giving up the console log upload for {0} after {1} failed attempts",
+                    new Object[]{upload.key(), upload.failures});
+            outcome = Outcome.DONE;
+        }
+        switch (outcome) {
+            case FOLLOW_TAIL:
+                executor.schedule(() -> process(upload), TAIL_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+                break;
+            case RETRY:
+                save(upload);
+                executor.schedule(() -> process(upload), RETRY_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+                break;
+            default:
+                delete(stateFile(upload));
+                active.remove(upload.key());
+        }
+    }
+
+    private static Run findRun(Upload upload) {
+        Job job = Jenkins.getInstance().getItemByFullName(upload.job, Job.class);
+        return job == null ? null : job.getBuildByNumber(upload.number);
+    }
+
+    private Outcome upload(Run run, Upload upload) throws IOException {
+        // Checked before reading, so anything written after the check is still picked up by the next pass
+        boolean building = run.isLogUpdated();
+        PluginDescriptorImpl pluginDescriptor = PluginDescriptorImpl.getInstance();
+        if (StringUtils.isBlank(pluginDescriptor.getUrl())) {
+            LOG.log(Level.INFO, "No HTTP source URL is configured, dropping the console log upload for {0}", upload.key());
+            return Outcome.DONE;
+        }
+        Batch batch = new Batch(upload, pluginDescriptor.getUrl(), pluginDescriptor.getSourceCategory());
+
+        boolean completed;
+        try (ReadableByteChannel channel = openLog(run, upload.offset)) {
+            completed = readLines(channel, upload.offset, CHUNK_BYTES, !building, batch::line) && batch.flush();
+        }
+        if (!completed) {
+            return Outcome.RETRY;
+        }
+        return building ? Outcome.FOLLOW_TAIL : Outcome.DONE;
+    }
+
+    private static ReadableByteChannel openLog(Run run, long offset) throws IOException {
+        File logFile = run.getLogFile();
+        if (logFile.isFile() && !logFile.getName().endsWith(".gz")) {
+            FileChannel channel = FileChannel.open(logFile.toPath(), StandardOpenOption.READ);
+            channel.position(offset);
+            return channel;
+        }
+        // Compressed logs can only be read as a stream, offsets are positions in the uncompressed log
+        InputStream in = run.getLogInputStream();
+        IOUtils.skipFully(in, offset);
+        return Channels.newChannel(in);
+    }
+
+    /**
+     * Read the channel in chunks and hand every complete line to the consumer. A line longer than a chunk is handed
+     * over in pieces. A trailing line without a line break is only handed over when {@code complete} is set, i.e.
+     * nothing more will be written to the log.
+     *
+     * @return false if the consumer stopped reading
+     */
+    static boolean readLines(ReadableByteChannel channel, long offset, int chunkBytes, boolean complete,
+                             LineConsumer consumer) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(chunkBytes);
+        byte[] array = buffer.array();
+        // Log offset of the first byte in the buffer
+        long position = offset;
+        int scanned = 0;
+        while (channel.read(buffer) >= 0) {
+            int limit = buffer.position();
+            int lineStart = 0;
+            for (int i = scanned; i < limit; i++) {
+                if (array[i] == '\n') {
+                    if (!consumer.accept(array, lineStart, i - lineStart, position + i + 1)) {
+                        return false;
+                    }
+                    lineStart = i + 1;
+                }
+            }
+            if (lineStart == 0 && limit == array.length) {
+                if (!consumer.accept(array, 0, limit, position + limit)) {
+                    return false;
+                }
+                lineStart = limit;
+            }
+            // Keep the partial line at the start of the buffer for the next read
+            System.arraycopy(array, lineStart, array, 0, limit - lineStart);
+            buffer.position(limit - lineStart);
+            position += lineStart;
+            scanned = limit - lineStart;
+        }
+        if (complete && buffer.position() > 0) {
+            return consumer.accept(array, 0, buffer.position(), position + buffer.position());
+        }
+        return true;
+    }
+
+    /**
+     * Turns log lines into batches in the same format as the console logs streamed from the build, and records the
+     * offset once a batch has been accepted.
+     */
+    private class Batch {
+        private final Upload upload;
+        private final String url;
+        private final String sourceName;
+        private final String sourceCategory;
+        private final TimestampingOutputStream.CachedTimestamp timestamp = new TimestampingOutputStream.CachedTimestamp("");
+        private final ByteArrayOutputStream data = new ByteArrayOutputStream(8192);
+
+        private boolean skipping;
+        private long lineEnd;
+
+        Batch(Upload upload, String url, String sourceCategory) {
+            this.upload = upload;
+            this.url = url;
+            this.sourceName = upload.job + "#" + upload.number;
+            this.sourceCategory = sourceCategory;
+            this.skipping = upload.skipping;
+            this.lineEnd = upload.offset;
+        }
+
+        boolean line(byte[] bytes, int start, int length, long endOffset) {
+            if (length > 0 && bytes[start + length - 1] == '\r') {
+                length--;
+            }
+            if (ConsoleNote.findPreamble(bytes, start, length) >= 0) {
+                bytes = ConsoleNote.removeNotes(new String(bytes, start, length, StandardCharsets.UTF_8)).getBytes(StandardCharsets.UTF_8);
+                start = 0;
+                length = bytes.length;
+            }
+
+            // Pipeline steps are sent per stage, only the lines before and after the pipeline are sent here
+            if (startsWith(bytes, start, length, START_OF_PIPELINE_BYTES)) {
+                skipping = true;
+            }
+            if (!skipping && !startsWith(bytes, start, length, PIPELINE_BYTES)) {
+                byte[] timestampBytes = timestamp.get();
+                int batchBytes = LogBatchSizer.getBatchBytes();
+                // Start a new batch rather than split a line that fits into one
+                if (data.size() > 0 && data.size() + timestampBytes.length + length + 2 > batchBytes && !flush()) {
+                    return false;
+                }
+                data.write(timestampBytes, 0, timestampBytes.length);
+                data.write(' ');
+                // A line longer than a batch is sent in pieces cut on character boundaries
+                while (data.size() + length + 1 > batchBytes) {
+                    int room = batchBytes - data.size() - 1;
+                    if (room > 0) {
+                        room = LogBatchSizer.splitPoint(bytes, start, room);
+                        data.write(bytes, start, room);
+                        start += room;
+                        length -= room;
+                    }
+                    data.write('\n');
+                    if (!flush()) {
+                        return false;
+                    }
+                }
+                data.write(bytes, start, length);
+                data.write('\n');
+            }
+            if (startsWith(bytes, start, length, END_OF_PIPELINE_BYTES)) {
+                skipping = false;
+            }
+            lineEnd = endOffset;
+            return true;
+        }
+
+        /**
+         * Send what has been batched and save the offset of the last line read.
+         *
+         * @return false if Sumo Logic did not accept the batch
+         */
+        boolean flush() {
+            if (data.size() > 0) {
+                LogBatchSizer.recordBatch(data.size());
+                if (!logSender.sendWithoutSpooling(url, data.toByteArray(), sourceName, sourceCategory, null, null, null)) {
+                    return false;
+                }
+                data.reset();
+            }
+            if (lineEnd != upload.offset) {
+                upload.offset = lineEnd;
+                upload.skipping = skipping;
+                upload.failures = 0;
+                save(upload);
+            }
+            return true;
+        }
+    }
+
+    private static boolean startsWith(byte[] bytes, int start, int length, byte[] prefix) {
+        if (length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (bytes[start + i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private File stateFile(Upload upload) {
+        return directory == null ? null : new File(directory, Util.getDigestOf(upload.key()) + STATE_SUFFIX);
+    }
+
+    private void save(Upload upload) {
+        File file = stateFile(upload);
+        if (file == null) {
+            return;
+        }
+        try {
+            AtomicFileWriter writer = new AtomicFileWriter(file);
+            try {
+                upload.toProperties().store(writer, null);
+                writer.commit();
+            } finally {
+                writer.abort();
+            }
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Could not save console upload state for " + upload.key(), e);
+        }
+    }
+
+    private static void delete(File file) {
+        if (file != null && file.exists() && !file.delete()) {
+            LOG.log(Level.WARNING, "Could not delete console upload state " + file);
+        }
+    }
+
+    /**
+     * Progress of the upload of one build log. The HTTP source URL is deliberately not stored, it is read from the
+     * configuration on each pass.
+     */
+    static class Upload {
+        final String job;
+        final int number;
+        long offset;
+        boolean skipping;
+        // Passes in a row that failed without a batch being accepted
+        int failures;
+
+        Upload(String job, int number) {
+            this.job = job;
+            this.number = number;
+        }
+
+        String key() {
+            return job + "#" + number;
+        }
+
+        Properties toProperties() {
+            Properties properties = new Properties();
+            properties.setProperty("job", job);
+            properties.setProperty("number", String.valueOf(number));
+            properties.setProperty("offset", String.valueOf(offset));
+            properties.setProperty("skipping", String.valueOf(skipping));
+            properties.setProperty("failures", String.valueOf(failures));
+            return properties;
+        }
+
+        static Upload load(File file) {
+            Properties properties = new Properties();
+            try (InputStream in = new FileInputStream(file)) {
+                properties.load(in);
+                Upload upload = new Upload(properties.getProperty("job"), Integer.parseInt(properties.getProperty("number")));
+                upload.offset = Long.parseLong(properties.getProperty("offset", "0"));
+                upload.skipping = Boolean.parseBoolean(properties.getProperty("skipping"));
+                upload.failures = Integer.parseInt(properties.getProperty("failures", "0"));
+                return upload.job == null ? null : upload;
+            } catch (IOException | RuntimeException e) {
+                return null;
+            }
+        }
+    }
+}
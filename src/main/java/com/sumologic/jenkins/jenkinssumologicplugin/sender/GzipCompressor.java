@@ -0,0 +1,104 @@
+package com.sumologic.jenkins.jenkinssumologicplugin.sender;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Sumo Logic plugin for Jenkins model.
+ * <p>
+ * Writes gzip data straight to an output stream using a pooled {@link Deflater} and scratch buffer, so that no
+ * intermediate copy of the compressed payload is built. The compression level is configurable. A moving average of
+ * the compression ratio is kept for sizing batches against a compressed budget.
+ */
+public class GzipCompressor {
+
+    private static final int LEVEL = Integer.getInteger(GzipCompressor.class.getName() + ".level", Deflater.DEFAULT_COMPRESSION);
+    private static final int POOL_SIZE = Integer.getInteger(GzipCompressor.class.getName() + ".poolSize", 16);
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final byte[] GZIP_HEADER = new byte[]{
+            (byte) 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+    private static final Queue<GzipCompressor> pool = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger pooled = new AtomicInteger();
+    // Compressed size divided by uncompressed size, updates may race, an approximate value is good enough
+    private static volatile double compressionRatio = 0.1;
+
+    private final Deflater deflater = new Deflater(LEVEL, true);
+    private final CRC32 crc = new CRC32();
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+
+    private GzipCompressor() {
+    }
+
+    /**
+     * Compress the data and write it in gzip format to the output stream.
+     *
+     * @return the number of bytes written
+     */
+    public static long compress(byte[] data, int offset, int length, OutputStream out) throws IOException {
+        GzipCompressor compressor = acquire();
+        try {
+            return compressor.write(data, offset, length, out);
+        } finally {
+            release(compressor);
+        }
+    }
+
+    private long write(byte[] data, int offset, int length, OutputStream out) throws IOException {
+        out.write(GZIP_HEADER);
+        deflater.setInput(data, offset, length);
+        deflater.finish();
+        while (!deflater.finished()) {
+            int count = deflater.deflate(buffer);
+            out.write(buffer, 0, count);
+        }
+        crc.update(data, offset, length);
+        writeInt((int) crc.getValue(), out);
+        writeInt(length, out);
+        if (length > 0) {
+            compressionRatio = 0.9 * compressionRatio + 0.1 * ((double) deflater.getBytesWritten() / length);
+        }
+        // Header, deflated data, then the CRC and the length as trailer
+        return GZIP_HEADER.length + deflater.getBytesWritten() + 8;
+    }
+
+    /**
+     * @return moving average of compressed size divided by uncompressed size
+     */
+    public static double getCompressionRatio() {
+        return compressionRatio;
+    }
+
+    private static void writeInt(int value, OutputStream out) throws IOException {
+        out.write(value & 0xff);
+        out.write((value >> 8) & 0xff);
+        out.write((value >> 16) & 0xff);
+        out.write((value >> 24) & 0xff);
+    }
+
+    private static GzipCompressor acquire() {
+        GzipCompressor compressor = pool.poll();
+        if (compressor != null) {
+            pooled.decrementAndGet();
+            return compressor;
+        }
+        return new GzipCompressor();
+    }
+
+    private static void release(GzipCompressor compressor) {
+        compressor.deflater.reset();
+        compressor.crc.reset();
+        if (pooled.incrementAndGet() <= POOL_SIZE) {
+            pool.offer(compressor);
+        } else {
+            pooled.decrementAndGet();
+            compressor.deflater.end();
+        }
+    }
+}
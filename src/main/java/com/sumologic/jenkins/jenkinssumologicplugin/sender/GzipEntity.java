@@ -0,0 +1,69 @@
+package com.sumologic.jenkins.jenkinssumologicplugin.sender;
+
+import org.apache.http.entity.AbstractHttpEntity;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Sumo Logic plugin for Jenkins model.
+ * <p>
+ * Request entity that gzips the source buffer directly onto the connection output stream. The entity is
+ * repeatable, a retry compresses the source buffer again. The length is unknown up front, so the request is sent
+ * with chunked transfer encoding, and the compressed size is known once the entity has been written.
+ */
+public class GzipEntity extends AbstractHttpEntity {
+
+    private final byte[] data;
+    private final int offset;
+    private final int length;
+    private volatile long writtenBytes;
+
+    public GzipEntity(byte[] data) {
+        this(data, 0, data.length);
+    }
+
+    public GzipEntity(byte[] data, int offset, int length) {
+        this.data = data;
+        this.offset = offset;
+        this.length = length;
+        setChunked(true);
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return true;
+    }
+
+    @Override
+    public long getContentLength() {
+        return -1;
+    }
+
+    @Override
+    public InputStream getContent() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeTo(out);
+        return new ByteArrayInputStream(out.toByteArray());
+    }
+
+    @Override
+    public void writeTo(OutputStream outputStream) throws IOException {
+        writtenBytes = GzipCompressor.compress(data, offset, length, outputStream);
+    }
+
+    /**
+     * @return the compressed size of the last write, 0 before the entity was written
+     */
+    public long getWrittenBytes() {
+        return writtenBytes;
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return false;
+    }
+}
@@ -0,0 +1,118 @@
+package com.sumologic.jenkins.jenkinssumologicplugin.sender;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Sumo Logic plugin for Jenkins model.
+ * <p>
+ * Writes a list of records as a series of JSON documents of the form {@code {<header fields>, "name": [records]}}
+ * that each stay within a byte budget. Every record is serialized exactly once and copied into the current chunk; a
+ * chunk is handed to the consumer as soon as the next record would not fit. A record that is larger than the budget
+ * on its own is sent in a chunk of its own.
+ */
+public class JsonChunkWriter<T> {
+
+    private static final byte[] SUFFIX = "]}".getBytes(StandardCharsets.UTF_8);
+
+    private final Gson gson;
+    private final int maxBytes;
+    private final Consumer<Chunk> consumer;
+    private final byte[] prefix;
+
+    private final ByteArrayOutputStream chunk;
+    private final ByteArrayOutputStream record = new ByteArrayOutputStream();
+    private final Writer recordWriter = new OutputStreamWriter(record, StandardCharsets.UTF_8);
+    private int count;
+
+    /**
+     * A finished JSON document and the number of records in it.
+     */
+    public static class Chunk {
+        private final byte[] data;
+        private final int count;
+
+        Chunk(byte[] data, int count) {
+            this.data = data;
+            this.count = count;
+        }
+
+        public byte[] getData() {
+            return data;
+        }
+
+        public int getCount() {
+            return count;
+        }
+    }
+
+    public JsonChunkWriter(Gson gson, Map<String, Object> header, String arrayName, int maxBytes, Consumer<Chunk> consumer) {
+        this.gson = gson;
+        this.maxBytes = maxBytes;
+        this.consumer = consumer;
+        this.prefix = prefix(gson, header, arrayName);
+        this.chunk = new ByteArrayOutputStream(Math.max(maxBytes, prefix.length + SUFFIX.length));
+        this.chunk.write(prefix, 0, prefix.length);
+    }
+
+    private static byte[] prefix(Gson gson, Map<String, Object> header, String arrayName) {
+        try {
+            StringWriter out = new StringWriter();
+            JsonWriter writer = gson.newJsonWriter(out);
+            writer.beginObject();
+            for (Map.Entry<String, Object> entry : header.entrySet()) {
+                writer.name(entry.getKey());
+                gson.toJson(entry.getValue(), entry.getValue() == null ? Object.class : entry.getValue().getClass(), writer);
+            }
+            writer.name(arrayName).beginArray();
+            writer.flush();
+            return out.toString().getBytes(StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void write(T value) {
+        try {
+            record.reset();
+            JsonWriter writer = gson.newJsonWriter(recordWriter);
+            gson.toJson(value, value.getClass(), writer);
+            writer.flush();
+
+            if (count > 0 && chunk.size() + 1 + record.size() + SUFFIX.length > maxBytes) {
+                flush();
+            }
+            if (count > 0) {
+                chunk.write(',');
+            }
+            record.writeTo(chunk);
+            count++;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Hand the current chunk, if it holds any records, to the consumer.
+     */
+    public void flush() {
+        if (count == 0) {
+            return;
+        }
+        chunk.write(SUFFIX, 0, SUFFIX.length);
+        consumer.accept(new Chunk(chunk.toByteArray(), count));
+        chunk.reset();
+        chunk.write(prefix, 0, prefix.length);
+        count = 0;
+    }
+}
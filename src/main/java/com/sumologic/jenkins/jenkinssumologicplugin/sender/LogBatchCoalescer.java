@@ -0,0 +1,146 @@
+package com.sumologic.jenkins.jenkinssumologicplugin.sender;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static com.sumologic.jenkins.jenkinssumologicplugin.constants.SumoConstants.MAX_DATA_SIZE;
+
+/**
+ * Sumo Logic plugin for Jenkins model.
+ * <p>
+ * Merges small newline delimited events that share the same URL, name, category, content type and host into a
+ * single payload before handing it to the {@link LogSendQueue}. A batch is flushed once it reaches the byte
+ * threshold or when the linger time elapses, whichever comes first.
+ */
+public class LogBatchCoalescer {
+
+    private static final Logger LOG = Logger.getLogger(LogBatchCoalescer.class.getName());
+
+    private static final int MAX_BATCH_BYTES = Integer.getInteger(LogBatchCoalescer.class.getName() + ".maxBatchBytes", MAX_DATA_SIZE);
+    private static final long LINGER_MILLIS = Long.getLong(LogBatchCoalescer.class.getName() + ".lingerMillis", 1000L);
+
+    private final LogSendQueue logSendQueue;
+    private final int maxBatchBytes;
+    private final Map<List<String>, Batch> batches = new HashMap<>();
+
+    private final AtomicLong coalescedCount = new AtomicLong();
+    private final AtomicLong flushedCount = new AtomicLong();
+
+    private static class LogBatchCoalescerHolder {
+        static LogBatchCoalescer logBatchCoalescer = new LogBatchCoalescer(LogSendQueue.getInstance(), MAX_BATCH_BYTES, LINGER_MILLIS);
+    }
+
+    public static LogBatchCoalescer getInstance() {
+        return LogBatchCoalescerHolder.logBatchCoalescer;
+    }
+
+    LogBatchCoalescer(LogSendQueue logSendQueue, int maxBatchBytes, long lingerMillis) {
+        this.logSendQueue = logSendQueue;
+        this.maxBatchBytes = maxBatchBytes;
+        if (lingerMillis > 0) {
+            ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "Sumo Logic Batch Coalescer");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(this::flushAll, lingerMillis, lingerMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static class Batch {
+        private final LogPayload template;
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+        private Batch(LogPayload template) {
+            this.template = template;
+        }
+
+        private void append(byte[] data) {
+            buffer.write(data, 0, data.length);
+            if (data.length > 0 && data[data.length - 1] != '\n') {
+                buffer.write('\n');
+            }
+        }
+
+        private int size() {
+            return buffer.size();
+        }
+
+        private LogPayload toPayload() {
+            return new LogPayload(template.getUrl(), buffer.toByteArray(), template.getSumoName(), template.getSumoCategory(),
+                    template.getContentType(), template.getFields(), template.getHost());
+        }
+    }
+
+    /**
+     * Add the event to the batch for its header tuple. Events that are already larger than the
+     * threshold bypass the batching and go to the send queue directly.
+     *
+     * @param payload event to send
+     */
+    public void append(LogPayload payload) {
+        byte[] data = payload.getData();
+        if (data.length >= maxBatchBytes) {
+            logSendQueue.offer(payload);
+            return;
+        }
+        LogPayload full = null;
+        synchronized (this) {
+            List<String> key = Arrays.asList(payload.getUrl(), payload.getSumoName(), payload.getSumoCategory(),
+                    payload.getContentType(), payload.getHost());
+            Batch batch = batches.get(key);
+            if (batch != null && batch.size() + data.length + 1 > maxBatchBytes) {
+                full = batches.remove(key).toPayload();
+                batch = null;
+            }
+            if (batch == null) {
+                batch = new Batch(payload);
+                batches.put(key, batch);
+            }
+            batch.append(data);
+        }
+        coalescedCount.incrementAndGet();
+        if (full != null) {
+            offer(full);
+        }
+    }
+
+    /**
+     * Hand every pending batch to the send queue.
+     */
+    public void flushAll() {
+        List<LogPayload> pending = new ArrayList<>();
+        synchronized (this) {
+            batches.values().forEach(batch -> pending.add(batch.toPayload()));
+            batches.clear();
+        }
+        try {
+            pending.forEach(this::offer);
+        } catch (Exception e) {
+            LOG.log(Level.WARNING, "An error occurred while flushing coalesced batches", e);
+        }
+    }
+
+    private void offer(LogPayload payload) {
+        flushedCount.incrementAndGet();
+        logSendQueue.offer(payload);
+    }
+
+    public long getCoalescedCount() {
+        return coalescedCount.get();
+    }
+
+    public long getFlushedCount() {
+        return flushedCount.get();
+    }
+}
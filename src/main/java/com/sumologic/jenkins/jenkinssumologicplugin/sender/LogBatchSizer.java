@@ -0,0 +1,141 @@
+package com.sumologic.jenkins.jenkinssumologicplugin.sender;
+
+import com.codahale.metrics.ExponentiallyDecayingReservoir;
+import com.codahale.metrics.Histogram;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sumo Logic plugin for Jenkins model.
+ * <p>
+ * Decides how large a batch of log lines may grow before it is sent. The budget is either a number of uncompressed
+ * bytes, or a number of compressed bytes that is turned into an uncompressed size using the compression ratio
+ * observed by the {@link GzipCompressor}. Lines longer than a batch are split on UTF-8 character boundaries. The
+ * sizes of the batches sent are tracked in a histogram.
+ */
+public class LogBatchSizer {
+
+    public enum Budget {
+        UNCOMPRESSED, COMPRESSED;
+
+        static Budget fromString(String value) {
+            return "compressed".equalsIgnoreCase(value) ? COMPRESSED : UNCOMPRESSED;
+        }
+    }
+
+    private static final Budget BUDGET = Budget.fromString(System.getProperty(LogBatchSizer.class.getName() + ".budget"));
+    private static final int BUDGET_BYTES = Integer.getInteger(LogBatchSizer.class.getName() + ".budgetBytes", 256 * 1024);
+    private static final int MAX_BATCH_BYTES = Integer.getInteger(LogBatchSizer.class.getName() + ".maxBatchBytes", 4 * 1024 * 1024);
+
+    private static final Histogram batchSizes = new Histogram(new ExponentiallyDecayingReservoir());
+
+    private LogBatchSizer() {
+    }
+
+    /**
+     * @return the number of uncompressed bytes a batch may hold
+     */
+    public static int getBatchBytes() {
+        return getBatchBytes(BUDGET, BUDGET_BYTES, MAX_BATCH_BYTES, GzipCompressor.getCompressionRatio());
+    }
+
+    static int getBatchBytes(Budget budget, int budgetBytes, int maxBatchBytes, double compressionRatio) {
+        if (budget == Budget.COMPRESSED && compressionRatio > 0) {
+            return (int) Math.max(budgetBytes, Math.min(maxBatchBytes, budgetBytes / compressionRatio));
+        }
+        return Math.min(budgetBytes, maxBatchBytes);
+    }
+
+    /**
+     * Record the uncompressed size of a batch that is about to be sent.
+     */
+    public static void recordBatch(int bytes) {
+        batchSizes.update(bytes);
+    }
+
+    public static Histogram getBatchSizes() {
+        return batchSizes;
+    }
+
+    /**
+     * Only called when there are more than {@code maxLength} bytes left, the byte after the cut decides where a
+     * character starts.
+     *
+     * @return the largest length, at most {@code maxLength}, at which the UTF-8 bytes can be cut without splitting a
+     * character
+     */
+    public static int splitPoint(byte[] bytes, int start, int maxLength) {
+        int length = maxLength;
+        // Continuation bytes look like 10xxxxxx, never cut in front of one
+        while (length > 0 && (bytes[start + length] & 0xC0) == 0x80) {
+            length--;
+        }
+        return length > 0 ? length : maxLength;
+    }
+
+    /**
+     * Join messages, one per line, into batches that stay within the batch budget.
+     */
+    public static List<String> divide(List<String> messages) {
+        int batchBytes = getBatchBytes();
+        List<String> batches = new ArrayList<>();
+        StringBuilder batch = new StringBuilder();
+        int size = 0;
+        for (String message : messages) {
+            int length = utf8Length(message) + 1;
+            if (size > 0 && size + length > batchBytes) {
+                add(batches, batch, size);
+                batch.setLength(0);
+                size = 0;
+            }
+            if (length > batchBytes) {
+                splitMessage(batches, message, batchBytes);
+                continue;
+            }
+            batch.append(message).append('\n');
+            size += length;
+        }
+        if (size > 0) {
+            add(batches, batch, size);
+        }
+        return batches;
+    }
+
+    private static void splitMessage(List<String> batches, String message, int batchBytes) {
+        byte[] bytes = message.getBytes(StandardCharsets.UTF_8);
+        int offset = 0;
+        while (offset < bytes.length) {
+            int remaining = bytes.length - offset;
+            int length = remaining < batchBytes ? remaining : splitPoint(bytes, offset, batchBytes - 1);
+            String piece = new String(bytes, offset, length, StandardCharsets.UTF_8) + '\n';
+            recordBatch(length + 1);
+            batches.add(piece);
+            offset += length;
+        }
+    }
+
+    private static void add(List<String> batches, StringBuilder batch, int size) {
+        recordBatch(size);
+        batches.add(batch.toString());
+    }
+
+    static int utf8Length(String value) {
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c)) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+}
@@ -1,5 +1,6 @@
 package com.sumologic.jenkins.jenkinssumologicplugin.sender;
 
+import com.sumologic.jenkins.jenkinssumologicplugin.PluginDescriptorImpl;
 import hudson.Extension;
 import hudson.console.ConsoleLogFilter;
 import hudson.model.AbstractBuild;
@@ -10,14 +11,22 @@ import javax.annotation.Nonnull;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.Serializable;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import static com.sumologic.jenkins.jenkinssumologicplugin.constants.SumoConstants.CONSOLE_ERROR;
+
 /**
  * This class intercepts console output stream for every jenkins build and decorates it with additional functionality.
  * Depending on configuration it can add two functionalities:
  * 1) Add consistent timestamps to all output lines.
  * 2) Forward all output logs to Sumo Logic.
  * <p>
+ * Forwarding happens while the build runs when console log streaming is enabled. The registered extension streams
+ * every build from the controller when console logs are enabled for all jobs. The instance created by the
+ * SumoPipelineLogCollection step carries its configuration with it, so when the filter is applied on an agent the
+ * output is sent from the agent JVM instead of being funneled through the controller.
+ * <p>
  * Created by lukasz on 3/21/17.
  * <p>
  * Modified By Sourabh Jain 5/2019
@@ -31,6 +40,13 @@ public class LogListener extends ConsoleLogFilter implements Serializable {
     private transient Run run;
     private SumologicOutputStream.State streamState;
 
+    // Captured on the controller for the SumoPipelineLogCollection step, the descriptor is not available on agents
+    private boolean streaming;
+    private String jobName;
+    private String jobNumber;
+    private String url;
+    private String sourceCategory;
+    private String host;
 
     public LogListener() {
         super();
@@ -40,7 +56,14 @@ public class LogListener extends ConsoleLogFilter implements Serializable {
     public LogListener(Run build) {
         this();
         this.run = build;
-        //build.addAction(new SearchAction(build));
+        PluginDescriptorImpl pluginDescriptor = PluginDescriptorImpl.getInstance();
+        // When console logs are enabled for all jobs the registered extension already streams this build
+        this.streaming = pluginDescriptor.isJobConsoleLogStreamingEnabled() && !pluginDescriptor.isJobConsoleLogEnabled();
+        this.jobName = build.getParent().getFullName();
+        this.jobNumber = String.valueOf(build.getNumber());
+        this.url = pluginDescriptor.getUrl();
+        this.sourceCategory = pluginDescriptor.getSourceCategory();
+        this.host = pluginDescriptor.getMetricDataPrefix();
     }
 
 
@@ -52,21 +75,22 @@ public class LogListener extends ConsoleLogFilter implements Serializable {
 
     @Override
     public OutputStream decorateLogger(Run build, OutputStream outputStream) throws IOException, InterruptedException {
-        /*try {
-            PluginDescriptorImpl pluginDescriptor = PluginDescriptorImpl.getInstance();
-            if (!pluginDescriptor.isJobConsoleLogEnabled()) {
-                if (build != null) {
-                    build.addAction(new SearchAction(build));
-                    return new SumologicOutputStream(outputStream, build, pluginDescriptor, streamState);
-                } else {
-                    return new SumologicOutputStream(outputStream, run, pluginDescriptor, streamState);
+        try {
+            if (jobName != null) {
+                if (streaming) {
+                    return new SumologicOutputStream(outputStream, jobName, jobNumber, url, sourceCategory, host, null);
+                }
+            } else if (build != null) {
+                PluginDescriptorImpl pluginDescriptor = PluginDescriptorImpl.getInstance();
+                if (pluginDescriptor.isJobConsoleLogEnabled() && pluginDescriptor.isJobConsoleLogStreamingEnabled()) {
+                    // Every build gets its own batch, the extension instance is shared by all of them
+                    return new SumologicOutputStream(outputStream, build, pluginDescriptor, null);
                 }
             }
         } catch (Exception e) {
-            String errorMessage = CONSOLE_ERROR + Arrays.toString(e.getStackTrace());
-            LOG.log(Level.WARNING, errorMessage);
-            outputStream.write(errorMessage.getBytes());
-        }*/
+            String errorMessage = CONSOLE_ERROR + e.getMessage();
+            LOG.log(Level.WARNING, errorMessage, e);
+        }
         return outputStream;
     }
 
@@ -0,0 +1,64 @@
+package com.sumologic.jenkins.jenkinssumologicplugin.sender;
+
+import java.util.HashMap;
+
+/**
+ * Sumo Logic plugin for Jenkins model.
+ * <p>
+ * A single uncompressed payload waiting to be sent to a Sumo Logic HTTP source along with its headers.
+ */
+public class LogPayload {
+
+    private final String url;
+    private final byte[] data;
+    private final String sumoName;
+    private final String sumoCategory;
+    private final String contentType;
+    private final HashMap<String, String> fields;
+    private final String host;
+    private final long enqueueTime;
+
+    public LogPayload(String url, byte[] data, String sumoName, String sumoCategory, String contentType,
+                      HashMap<String, String> fields, String host) {
+        this.url = url;
+        this.data = data;
+        this.sumoName = sumoName;
+        this.sumoCategory = sumoCategory;
+        this.contentType = contentType;
+        this.fields = fields;
+        this.host = host;
+        this.enqueueTime = System.currentTimeMillis();
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public byte[] getData() {
+        return data;
+    }
+
+    public String getSumoName() {
+        return sumoName;
+    }
+
+    public String getSumoCategory() {
+        return sumoCategory;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public HashMap<String, String> getFields() {
+        return fields;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public long getEnqueueTime() {
+        return enqueueTime;
+    }
+}
@@ -0,0 +1,251 @@
+package com.sumologic.jenkins.jenkinssumologicplugin.sender;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Sumo Logic plugin for Jenkins model.
+ * <p>
+ * Bounded queue in front of {@link LogSender}. Producers enqueue payloads and return immediately, while a small
+ * pool of daemon workers drains the queue and performs the HTTP calls. When the queue is full the payload goes to
+ * the {@link LogSpool}, right away or after the producer waited for a bounded time, depending on the overflow policy.
+ * Spooling writes to disk, so overflowing payloads are handed to a small buffer that a spool thread drains, and the
+ * producer never waits on the disk. Payloads that do not fit in that buffer either, or that overflow when there is
+ * no spool, are dropped.
+ */
+public class LogSendQueue {
+
+    private static final Logger LOG = Logger.getLogger(LogSendQueue.class.getName());
+
+    private static final int CAPACITY = Integer.getInteger(LogSendQueue.class.getName() + ".capacity", 10000);
+    private static final int OVERFLOW_CAPACITY = Integer.getInteger(LogSendQueue.class.getName() + ".overflowCapacity", 1000);
+    private static final int WORKERS = Integer.getInteger(LogSendQueue.class.getName() + ".workers", 2);
+    private static final long BLOCK_TIMEOUT_MILLIS = Long.getLong(LogSendQueue.class.getName() + ".blockTimeoutMillis", 5000L);
+    private static final long SHUTDOWN_GRACE_MILLIS = 1000L;
+    private static final OverflowPolicy OVERFLOW_POLICY = OverflowPolicy.fromString(
+            System.getProperty(LogSendQueue.class.getName() + ".overflowPolicy", OverflowPolicy.DROP.name()));
+
+    public enum OverflowPolicy {
+        DROP, BLOCK;
+
+        static OverflowPolicy fromString(String value) {
+            for (OverflowPolicy policy : values()) {
+                if (policy.name().equalsIgnoreCase(value)) {
+                    return policy;
+                }
+            }
+            return DROP;
+        }
+    }
+
+    private final BlockingQueue<LogPayload> queue;
+    private final BlockingQueue<LogPayload> overflow;
+    private final LogSender logSender;
+    private final LogSpool logSpool;
+    private final OverflowPolicy overflowPolicy;
+    private final long blockTimeoutMillis;
+    private final List<Thread> workers = new ArrayList<>();
+    private final Thread spooler;
+
+    private final AtomicLong enqueuedCount = new AtomicLong();
+    private final AtomicLong sentCount = new AtomicLong();
+    private final AtomicLong spooledCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong queueTimeMillis = new AtomicLong();
+
+    private volatile boolean running = true;
+
+    private static class LogSendQueueHolder {
+        static LogSendQueue logSendQueue = new LogSendQueue(LogSender.getInstance(), LogSpool.getInstance(), CAPACITY,
+                OVERFLOW_CAPACITY, WORKERS, OVERFLOW_POLICY, BLOCK_TIMEOUT_MILLIS);
+    }
+
+    public static LogSendQueue getInstance() {
+        return LogSendQueueHolder.logSendQueue;
+    }
+
+    LogSendQueue(LogSender logSender, LogSpool logSpool, int capacity, int overflowCapacity, int workerCount,
+                 OverflowPolicy overflowPolicy, long blockTimeoutMillis) {
+        this.logSender = logSender;
+        this.logSpool = logSpool;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        this.overflow = new ArrayBlockingQueue<>(Math.max(1, overflowCapacity));
+        this.overflowPolicy = overflowPolicy;
+        this.blockTimeoutMillis = blockTimeoutMillis;
+        for (int i = 0; i < Math.max(1, workerCount); i++) {
+            Thread worker = new Thread(this::drain, "Sumo Logic Log Sender #" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+        spooler = new Thread(this::spool, "Sumo Logic Log Spooler");
+        spooler.setDaemon(true);
+        spooler.start();
+    }
+
+    /**
+     * Enqueue the payload for asynchronous delivery.
+     *
+     * @param payload payload to send
+     * @return false if the payload was not queued because the queue is full or stopped, in which case it was
+     * handed to the spool or dropped
+     */
+    public boolean offer(LogPayload payload) {
+        boolean accepted = false;
+        if (running) {
+            try {
+                if (overflowPolicy == OverflowPolicy.BLOCK) {
+                    accepted = queue.offer(payload, blockTimeoutMillis, TimeUnit.MILLISECONDS);
+                } else {
+                    accepted = queue.offer(payload);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (accepted) {
+            enqueuedCount.incrementAndGet();
+        } else if (running && logSpool.isEnabled() && overflow.offer(payload)) {
+            LOG.log(Level.FINE, "Sumo Logic send queue is full, spooling payload of {0} bytes", payload.getData().length);
+        } else {
+            droppedCount.incrementAndGet();
+            LOG.log(Level.FINE, "Sumo Logic send queue is full, dropping payload of {0} bytes", payload.getData().length);
+        }
+        return accepted;
+    }
+
+    private void spool() {
+        while (running || !overflow.isEmpty()) {
+            try {
+                LogPayload payload = overflow.poll(1, TimeUnit.SECONDS);
+                if (payload != null) {
+                    spool(payload);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                LOG.log(Level.WARNING, "An error occurred while spooling the Sumo Logic send queue", e);
+            }
+        }
+    }
+
+    private void spool(LogPayload payload) {
+        logSpool.append(payload);
+        spooledCount.incrementAndGet();
+    }
+
+    private void drain() {
+        while (running || !queue.isEmpty()) {
+            try {
+                LogPayload payload = queue.poll(1, TimeUnit.SECONDS);
+                if (payload != null) {
+                    send(payload);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                LOG.log(Level.WARNING, "An error occurred while draining the Sumo Logic send queue", e);
+            }
+        }
+    }
+
+    private void send(LogPayload payload) {
+        queueTimeMillis.addAndGet(System.currentTimeMillis() - payload.getEnqueueTime());
+        if (logSender.sendLogs(payload.getUrl(), payload.getData(), payload.getSumoName(), payload.getSumoCategory(),
+                payload.getContentType(), payload.getFields(), payload.getHost())) {
+            sentCount.incrementAndGet();
+        } else {
+            failedCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Stop accepting new payloads and wait for the workers to send whatever is still queued. Workers that are not
+     * done once the timeout is reached are interrupted, and the payloads they left are spooled from the calling
+     * thread.
+     *
+     * @param timeout maximum time to wait for the workers
+     * @param unit    unit of the timeout
+     */
+    public void shutdown(long timeout, TimeUnit unit) {
+        running = false;
+        long deadline = System.currentTimeMillis() + unit.toMillis(timeout);
+        for (Thread worker : workers) {
+            join(worker, deadline);
+        }
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+        // A worker in the middle of a send may not see the interrupt until the call returns. The spooler is not
+        // interrupted, as that would close the spool segment it writes to, it stops once its buffer is empty.
+        long grace = Math.max(deadline, System.currentTimeMillis()) + SHUTDOWN_GRACE_MILLIS;
+        for (Thread worker : workers) {
+            join(worker, grace);
+        }
+        join(spooler, grace);
+
+        if (!queue.isEmpty()) {
+            LOG.log(Level.WARNING, "Sumo Logic send queue shut down with {0} payloads still pending, spooling them", queue.size());
+        }
+        LogPayload payload;
+        while ((payload = overflow.poll()) != null || (payload = queue.poll()) != null) {
+            if (logSpool.isEnabled()) {
+                spool(payload);
+            } else {
+                droppedCount.incrementAndGet();
+            }
+        }
+    }
+
+    private static void join(Thread thread, long deadline) {
+        long remaining = deadline - System.currentTimeMillis();
+        if (remaining <= 0) {
+            return;
+        }
+        try {
+            thread.join(remaining);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    public long getEnqueuedCount() {
+        return enqueuedCount.get();
+    }
+
+    public long getSentCount() {
+        return sentCount.get();
+    }
+
+    /**
+     * @return the number of payloads that overflowed the queue and were written to the spool
+     */
+    public long getSpooledCount() {
+        return spooledCount.get();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    public long getQueueTimeMillis() {
+        return queueTimeMillis.get();
+    }
+}
@@ -1,21 +1,31 @@
 package com.sumologic.jenkins.jenkinssumologicplugin.sender;
 
 import com.sumologic.jenkins.jenkinssumologicplugin.PluginDescriptorImpl;
-import org.apache.commons.httpclient.HttpClient;
-import org.apache.commons.httpclient.MultiThreadedHttpConnectionManager;
-import org.apache.commons.httpclient.StatusLine;
-import org.apache.commons.httpclient.methods.ByteArrayRequestEntity;
-import org.apache.commons.httpclient.methods.PostMethod;
+import com.sumologic.jenkins.jenkinssumologicplugin.metrics.PluginMetrics;
 import org.apache.commons.lang.StringUtils;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.StatusLine;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.util.EntityUtils;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.net.InetAddress;
 import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
-import java.util.zip.GZIPOutputStream;
 
 import static com.sumologic.jenkins.jenkinssumologicplugin.constants.SumoConstants.CARBON_CONTENT_TYPE;
 import static com.sumologic.jenkins.jenkinssumologicplugin.constants.SumoConstants.GRAPHITE_CONTENT_TYPE;
@@ -27,12 +37,50 @@ import static com.sumologic.jenkins.jenkinssumologicplugin.constants.SumoConstan
 public class LogSender {
     public final static Logger LOG = Logger.getLogger(LogSender.class.getName());
 
-    private final HttpClient httpClient;
+    private static final int MAX_CONNECTIONS = Integer.getInteger(LogSender.class.getName() + ".maxConnections", 50);
+    private static final int MAX_CONNECTIONS_PER_ROUTE = Integer.getInteger(LogSender.class.getName() + ".maxConnectionsPerRoute", 20);
+    private static final int CONNECT_TIMEOUT_MILLIS = Integer.getInteger(LogSender.class.getName() + ".connectTimeoutMillis", 10000);
+    private static final int SOCKET_TIMEOUT_MILLIS = Integer.getInteger(LogSender.class.getName() + ".socketTimeoutMillis", 30000);
+    private static final int CONNECTION_REQUEST_TIMEOUT_MILLIS = Integer.getInteger(LogSender.class.getName() + ".connectionRequestTimeoutMillis", 10000);
+    private static final long IDLE_TIMEOUT_MILLIS = Long.getLong(LogSender.class.getName() + ".idleTimeoutMillis", 60000L);
+    private static final long KEEP_ALIVE_MILLIS = Long.getLong(LogSender.class.getName() + ".keepAliveMillis", 60000L);
+
+    /**
+     * Outcome of a send, telling a failure worth retrying from a payload the endpoint will never accept.
+     */
+    enum Outcome {
+        SENT, FAILED, REJECTED
+    }
+
+    private final CloseableHttpClient httpClient;
+    private final RetryPolicy retryPolicy = new RetryPolicy();
+    private final Map<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
 
     private LogSender() {
-        MultiThreadedHttpConnectionManager connectionManager = new MultiThreadedHttpConnectionManager();
-        httpClient = new HttpClient(connectionManager);
-        httpClient.getParams().setParameter("http.protocol.max-redirects", 10);
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(MAX_CONNECTIONS);
+        connectionManager.setDefaultMaxPerRoute(MAX_CONNECTIONS_PER_ROUTE);
+
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(CONNECT_TIMEOUT_MILLIS)
+                .setSocketTimeout(SOCKET_TIMEOUT_MILLIS)
+                .setConnectionRequestTimeout(CONNECTION_REQUEST_TIMEOUT_MILLIS)
+                .setMaxRedirects(10)
+                .build();
+
+        httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy((response, context) -> {
+                    // Reuse connections for as long as the server allows, but never longer than the configured maximum
+                    long keepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                    return keepAlive > 0 ? Math.min(keepAlive, KEEP_ALIVE_MILLIS) : KEEP_ALIVE_MILLIS;
+                })
+                // Retries are driven by the RetryPolicy
+                .disableAutomaticRetries()
+                .evictExpiredConnections()
+                .evictIdleConnections(IDLE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)
+                .build();
     }
 
     private String getHost() {
@@ -57,34 +105,145 @@ public class LogSender {
         return LogSenderHolder.logSender;
     }
 
-    void sendLogs(String url, byte[] msg, String sumoName, String sumoCategory, String contentType, HashMap<String, String> fields, String host) {
-        PostMethod post = null;
-
+    /**
+     * Compress and send the payload. The payload is gzipped straight onto the connection, only payloads that could
+     * not be delivered are compressed into a buffer and written to the {@link LogSpool} to be replayed later.
+     * Payloads rejected with a status that is not retryable are not spooled.
+     *
+     * @return true if Sumo Logic accepted the payload
+     */
+    boolean sendLogs(String url, byte[] msg, String sumoName, String sumoCategory, String contentType, HashMap<String, String> fields, String host) {
         if (StringUtils.isBlank(url)) {
             LOG.log(Level.WARNING, "Trying to send logs with blank url. Update config first!");
-            return;
+            return false;
         }
 
-        try {
-            post = new PostMethod(url);
+        Outcome outcome = send(url, new GzipEntity(msg), sumoName, sumoCategory, contentType, fields, host);
+        if (outcome == Outcome.FAILED) {
+            try {
+                LogSpool.getInstance().append(url, compress(msg), sumoName, sumoCategory, contentType, fields, host);
+            } catch (IOException e) {
+                LOG.log(Level.WARNING, String.format("Could not compress log for Sumo Logic: %s", e.toString()));
+            }
+        }
+        return outcome == Outcome.SENT;
+    }
 
-            createHeaders(post, sumoName, sumoCategory, contentType, fields, host);
+    /**
+     * Compress and send the payload, leaving it to the caller to keep undelivered data, e.g. the console upload which
+     * resumes from its last acknowledged offset.
+     *
+     * @return true if Sumo Logic accepted the payload
+     */
+    boolean sendWithoutSpooling(String url, byte[] msg, String sumoName, String sumoCategory, String contentType,
+                                HashMap<String, String> fields, String host) {
+        if (StringUtils.isBlank(url)) {
+            LOG.log(Level.WARNING, "Trying to send logs with blank url. Update config first!");
+            return false;
+        }
+        return send(url, new GzipEntity(msg), sumoName, sumoCategory, contentType, fields, host) == Outcome.SENT;
+    }
 
-            byte[] compressedData = compress(msg);
+    /**
+     * Send an already compressed payload, e.g. one replayed from the {@link LogSpool}.
+     *
+     * @return whether Sumo Logic accepted the payload, or else whether sending it again may succeed
+     */
+    Outcome sendCompressed(String url, byte[] compressedData, String sumoName, String sumoCategory, String contentType,
+                           HashMap<String, String> fields, String host) {
+        return send(url, new ByteArrayEntity(compressedData), sumoName, sumoCategory, contentType, fields, host);
+    }
+
+    /**
+     * Send the gzipped entity, retrying transient failures according to the {@link RetryPolicy}.
+     * Sends are short-circuited while the {@link CircuitBreaker} for the endpoint is open, only transport errors and
+     * retryable statuses count towards opening it. The time taken, retries
+     * included, the compressed bytes sent and the failures are recorded in the {@link PluginMetrics}.
+     */
+    private Outcome send(String url, HttpEntity entity, String sumoName, String sumoCategory, String contentType,
+                         HashMap<String, String> fields, String host) {
+        CircuitBreaker circuitBreaker = circuitBreakers.computeIfAbsent(url, key -> new CircuitBreaker());
+        if (!circuitBreaker.allowRequest()) {
+            LOG.log(Level.FINE, "Circuit to Sumo Logic is open, skipping send");
+            return Outcome.FAILED;
+        }
 
-            post.setRequestEntity(new ByteArrayRequestEntity(compressedData));
-            httpClient.executeMethod(post);
-            int statusCode = post.getStatusCode();
-            if (statusCode != 200) {
+        long start = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
+        long delay = 0;
+        int attempts = 0;
+        int statusCode;
+        while (true) {
+            attempts++;
+            statusCode = -1;
+            long retryAfter = -1;
+            try {
+                HttpPost post = new HttpPost(url);
+                PluginMetrics.meter(LogSender.class, "requests").mark();
+
+                createHeaders(post, sumoName, sumoCategory, contentType, fields, host);
+
+                post.setEntity(entity);
+                try (CloseableHttpResponse response = httpClient.execute(post)) {
+                    // Consume the body so the connection goes back to the pool for reuse
+                    EntityUtils.consume(response.getEntity());
+                    statusCode = response.getStatusLine().getStatusCode();
+                    if (statusCode == 200) {
+                        circuitBreaker.recordSuccess();
+                        PluginMetrics.timer(LogSender.class, "send").update(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+                        PluginMetrics.meter(LogSender.class, "bytes").mark(wireBytes(entity));
+                        return Outcome.SENT;
+                    }
+                    Header retryAfterHeader = response.getFirstHeader("Retry-After");
+                    if (retryAfterHeader != null) {
+                        retryAfter = RetryPolicy.parseRetryAfter(retryAfterHeader.getValue());
+                    }
+                }
                 LOG.log(Level.WARNING, String.format("Received HTTP error from Sumo Service: %d", statusCode));
+            } catch (Exception e) {
+                LOG.log(Level.WARNING, String.format("Could not send log to Sumo Logic: %s", e.toString()));
             }
-        } catch (Exception e) {
-            LOG.log(Level.WARNING, String.format("Could not send log to Sumo Logic: %s", e.toString()));
-        } finally {
-            if (post != null) {
-                post.releaseConnection();
+
+            if (!retryPolicy.isRetryable(statusCode)) {
+                break;
+            }
+            delay = retryPolicy.nextDelay(delay, retryAfter);
+            if (!retryPolicy.canRetry(attempts, System.currentTimeMillis() - start, delay)) {
+                break;
+            }
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
             }
         }
+        PluginMetrics.timer(LogSender.class, "send").update(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        PluginMetrics.meter(LogSender.class, "failures").mark();
+        // A payload the endpoint rejected, e.g. with a 400, says nothing about whether the endpoint is up
+        if (!retryPolicy.isRetryable(statusCode)) {
+            return Outcome.REJECTED;
+        }
+        circuitBreaker.recordFailure();
+        return Outcome.FAILED;
+    }
+
+    /**
+     * @return the state of the circuit to the endpoint, closed for one nothing was sent to yet
+     */
+    CircuitBreaker.State getCircuitState(String url) {
+        CircuitBreaker circuitBreaker = circuitBreakers.get(url);
+        return circuitBreaker != null ? circuitBreaker.getState() : CircuitBreaker.State.CLOSED;
+    }
+
+    /**
+     * @return the size of the request body as sent, which is compressed on both send paths
+     */
+    static long wireBytes(HttpEntity entity) {
+        if (entity instanceof GzipEntity) {
+            return ((GzipEntity) entity).getWrittenBytes();
+        }
+        return Math.max(0, entity.getContentLength());
     }
 
     public void sendLogs(String url, byte[] msg, String sumoName, String sumoCategory) {
@@ -95,44 +254,41 @@ public class LogSender {
         sendLogs(url, msg, sumoName, sumoCategory, contentType, null, null);
     }
 
-    private byte[] compress(byte[] content) throws IOException {
-        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-        GZIPOutputStream gzipOutputStream = new GZIPOutputStream(byteArrayOutputStream);
-        gzipOutputStream.write(content);
-        gzipOutputStream.close();
-
+    static byte[] compress(byte[] content) throws IOException {
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream(content.length / 4 + 64);
+        GzipCompressor.compress(content, 0, content.length, byteArrayOutputStream);
         return byteArrayOutputStream.toByteArray();
     }
 
-    private void createHeaders(final PostMethod post, final String sumoName,
+    private void createHeaders(final HttpPost post, final String sumoName,
                                final String sumoCategory, final String contentType,
                                HashMap<String, String> fields, final String host) {
         if (StringUtils.isNotEmpty(host)) {
-            post.addRequestHeader("X-Sumo-Host", host);
+            post.addHeader("X-Sumo-Host", host);
         } else {
-            post.addRequestHeader("X-Sumo-Host", getHost());
+            post.addHeader("X-Sumo-Host", getHost());
         }
 
         if (StringUtils.isNotBlank(sumoName)) {
-            post.addRequestHeader("X-Sumo-Name", sumoName);
+            post.addHeader("X-Sumo-Name", sumoName);
         }
 
         if (StringUtils.isNotBlank(sumoCategory)) {
-            post.addRequestHeader("X-Sumo-Category", sumoCategory);
+            post.addHeader("X-Sumo-Category", sumoCategory);
         }
 
-        post.addRequestHeader("Content-Encoding", "gzip");
+        post.addHeader("Content-Encoding", "gzip");
 
         if (isValidContentType(contentType)) {
-            post.addRequestHeader("Content-Type", contentType);
+            post.addHeader("Content-Type", contentType);
         }
 
         if (fields != null && !fields.isEmpty()) {
             String field_string = fields.keySet().stream().map(key -> key + "=" + fields.get(key)).collect(Collectors.joining(","));
-            post.addRequestHeader("X-Sumo-Fields", field_string);
+            post.addHeader("X-Sumo-Fields", field_string);
         }
 
-        post.addRequestHeader("X-Sumo-Client", "sumologic-jenkins-plugin");
+        post.addHeader("X-Sumo-Client", "sumologic-jenkins-plugin");
     }
 
     private boolean isValidContentType(final String contentType) {
@@ -143,23 +299,15 @@ public class LogSender {
     }
 
     public StatusLine testHTTPUrl(String url) throws Exception {
-        PostMethod post = null;
-
         if (StringUtils.isBlank(url)) {
             throw new Exception("URL can not be empty.");
         }
 
-        try {
-            post = new PostMethod(url);
-            byte[] compressedData = compress("testMessage".getBytes());
-
-            post.setRequestEntity(new ByteArrayRequestEntity(compressedData));
-            httpClient.executeMethod(post);
-        } finally {
-            if (post != null) {
-                post.releaseConnection();
-            }
+        HttpPost post = new HttpPost(url);
+        post.setEntity(new GzipEntity("testMessage".getBytes()));
+        try (CloseableHttpResponse response = httpClient.execute(post)) {
+            EntityUtils.consume(response.getEntity());
+            return response.getStatusLine();
         }
-        return post.getStatusLine();
     }
 }
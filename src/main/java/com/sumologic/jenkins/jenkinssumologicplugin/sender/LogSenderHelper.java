@@ -1,12 +1,14 @@
 package com.sumologic.jenkins.jenkinssumologicplugin.sender;
 
-import com.google.gson.Gson;
+import com.codahale.metrics.Timer;
 import com.sumologic.jenkins.jenkinssumologicplugin.PluginDescriptorImpl;
 import com.sumologic.jenkins.jenkinssumologicplugin.constants.LogTypeEnum;
+import com.sumologic.jenkins.jenkinssumologicplugin.metrics.PluginMetrics;
 import com.sumologic.jenkins.jenkinssumologicplugin.model.BuildModel;
 import com.sumologic.jenkins.jenkinssumologicplugin.model.PipelineStageModel;
 import com.sumologic.jenkins.jenkinssumologicplugin.model.TestCaseModel;
 import com.sumologic.jenkins.jenkinssumologicplugin.model.TestCaseResultModel;
+import com.sumologic.jenkins.jenkinssumologicplugin.utility.SumoGson;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang.StringUtils;
 
@@ -14,7 +16,13 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
+import java.util.stream.Stream;
 import java.util.logging.Logger;
 
 import static com.sumologic.jenkins.jenkinssumologicplugin.constants.SumoConstants.*;
@@ -30,6 +38,20 @@ public class LogSenderHelper {
 
     public final static Logger LOG = Logger.getLogger(LogSenderHelper.class.getName());
 
+    private static final int TEST_RESULT_THREADS = Integer.getInteger(LogSenderHelper.class.getName() + ".testResultThreads", 4);
+
+    // Shared by all builds, so this also caps how many reports are converted at once across the controller
+    private static final ExecutorService testResultExecutor = createTestResultExecutor();
+
+    private static ExecutorService createTestResultExecutor() {
+        AtomicInteger threadCount = new AtomicInteger();
+        return Executors.newFixedThreadPool(Math.max(1, TEST_RESULT_THREADS), runnable -> {
+            Thread thread = new Thread(runnable, "Sumo Logic Test Result Sender #" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
     private static class LogSenderHelperHolder {
         public static LogSenderHelper logSenderHelper = new LogSenderHelper();
     }
@@ -38,171 +60,176 @@ public class LogSenderHelper {
         return LogSenderHelperHolder.logSenderHelper;
     }
 
-    public void sendLogsToPeriodicSourceCategory(String data) {
+    /**
+     * Hand the data over to the asynchronous send queue so that the calling thread never waits on the Sumo endpoint.
+     */
+    private static void send(String url, String data, String sumoName, String sumoCategory, String contentType) {
+        LogSendQueue.getInstance().offer(new LogPayload(url, data.getBytes(), sumoName, sumoCategory, contentType, null, null));
+    }
 
-        PluginDescriptorImpl pluginDescriptor = PluginDescriptorImpl.getInstance();
-        if (pluginDescriptor.isPeriodicLogEnabled()) {
-            LogSender.getInstance().sendLogs(pluginDescriptor.getUrl(), data.getBytes()
-                    , null, pluginDescriptor.getSourceCategory());
+    /**
+     * Small single events are merged with other events bound for the same source before being queued.
+     */
+    private static void coalesce(String url, String data, String sumoCategory) {
+        LogBatchCoalescer.getInstance().append(new LogPayload(url, data.getBytes(), null, sumoCategory, null, null, null));
+    }
+
+    public void sendLogsToPeriodicSourceCategory(String data) {
+        try (Timer.Context ignored = PluginMetrics.time(LogSenderHelper.class, "sendLogsToPeriodicSourceCategory")) {
+            PluginDescriptorImpl pluginDescriptor = PluginDescriptorImpl.getInstance();
+            if (pluginDescriptor.isPeriodicLogEnabled()) {
+                coalesce(pluginDescriptor.getUrl(), data, pluginDescriptor.getSourceCategory());
+            }
         }
     }
 
     public void sendMultiplePeriodicLogs(final List<String> messages) {
-        List<String> strings = divideDataIntoEquals(messages);
-        for (String data : strings) {
-            sendLogsToPeriodicSourceCategory(data);
+        try (Timer.Context ignored = PluginMetrics.time(LogSenderHelper.class, "sendMultiplePeriodicLogs")) {
+            List<String> strings = LogBatchSizer.divide(messages);
+            for (String data : strings) {
+                sendLogsToPeriodicSourceCategory(data);
+            }
         }
     }
 
+    // Files are uploaded from the agent JVM by the SumoUpload step, keep them synchronous so "Upload complete" holds.
     public void sendFilesData(final List<String> messages, String localFileString, String url, String sourceCategory, HashMap<String, String> fields, String host) {
-        if (CollectionUtils.isNotEmpty(messages)) {
-            List<String> strings = divideDataIntoEquals(messages);
-            for (String data : strings) {
-                LogSender.getInstance().sendLogs(url, data.getBytes(), localFileString, sourceCategory, null, fields, host);
+        try (Timer.Context ignored = PluginMetrics.time(LogSenderHelper.class, "sendFilesData")) {
+            if (CollectionUtils.isNotEmpty(messages)) {
+                List<String> strings = LogBatchSizer.divide(messages);
+                for (String data : strings) {
+                    LogSender.getInstance().sendLogs(url, data.getBytes(), localFileString, sourceCategory, null, fields, host);
+                }
             }
         }
     }
 
     public void sendLogsToMetricDataCategory(final List<String> messages) {
-        PluginDescriptorImpl pluginDescriptor = PluginDescriptorImpl.getInstance();
-        if (pluginDescriptor.isMetricDataEnabled()) {
-            List<String> strings = divideDataIntoEquals(messages);
-            for (String data : strings) {
-                LogSender.getInstance().sendLogs(pluginDescriptor.getUrl(), data.getBytes()
-                        , null, pluginDescriptor.getSourceCategory(), GRAPHITE_CONTENT_TYPE);
+        sendLogsToMetricDataCategory(messages, GRAPHITE_CONTENT_TYPE);
+    }
+
+    public void sendLogsToMetricDataCategory(final List<String> messages, String contentType) {
+        try (Timer.Context ignored = PluginMetrics.time(LogSenderHelper.class, "sendLogsToMetricDataCategory")) {
+            PluginDescriptorImpl pluginDescriptor = PluginDescriptorImpl.getInstance();
+            if (pluginDescriptor.isMetricDataEnabled()) {
+                List<String> strings = LogBatchSizer.divide(messages);
+                for (String data : strings) {
+                    send(pluginDescriptor.getUrl(), data, null, pluginDescriptor.getSourceCategory(), contentType);
+                }
             }
         }
-
     }
 
     public void sendJobStatusLogs(String data) {
-        PluginDescriptorImpl pluginDescriptor = PluginDescriptorImpl.getInstance();
+        try (Timer.Context ignored = PluginMetrics.time(LogSenderHelper.class, "sendJobStatusLogs")) {
+            PluginDescriptorImpl pluginDescriptor = PluginDescriptorImpl.getInstance();
 
-        LogSender.getInstance().sendLogs(pluginDescriptor.getUrl(), data.getBytes()
-                , null, pluginDescriptor.getSourceCategory());
+            coalesce(pluginDescriptor.getUrl(), data, pluginDescriptor.getSourceCategory());
+        }
     }
 
     public void sendConsoleLogs(String data, String jobName, int buildNumber, String stageName) {
-        PluginDescriptorImpl pluginDescriptor = PluginDescriptorImpl.getInstance();
+        try (Timer.Context ignored = PluginMetrics.time(LogSenderHelper.class, "sendConsoleLogs")) {
+            PluginDescriptorImpl pluginDescriptor = PluginDescriptorImpl.getInstance();
 
-        String sourceName = jobName + "#" + buildNumber;
-        if (StringUtils.isNotEmpty(stageName)) {
-            sourceName = sourceName + "#" + stageName;
+            String sourceName = jobName + "#" + buildNumber;
+            if (StringUtils.isNotEmpty(stageName)) {
+                sourceName = sourceName + "#" + stageName;
+            }
+            send(pluginDescriptor.getUrl(), data, sourceName, pluginDescriptor.getSourceCategory(), null);
         }
-        LogSender.getInstance().sendLogs(pluginDescriptor.getUrl(), data.getBytes()
-                , sourceName, pluginDescriptor.getSourceCategory());
     }
 
     public void sendAuditLogs(String data) {
-        PluginDescriptorImpl pluginDescriptor = PluginDescriptorImpl.getInstance();
-        if (pluginDescriptor.isAuditLogEnabled()) {
-            LogSender.getInstance().sendLogs(pluginDescriptor.getUrl(), data.getBytes()
-                    , null, pluginDescriptor.getSourceCategory());
-        }
-    }
-
-    private static List<String> divideDataIntoEquals(final List<String> messages) {
-        List<String> convertedMessages = new ArrayList<>();
-
-        StringBuilder stringBuilder = new StringBuilder();
-        int count = 1;
-        for (String message : messages) {
-            stringBuilder.append(message).append("\n");
-            if (count % DIVIDER_FOR_MESSAGES == 0) {
-                convertedMessages.add(stringBuilder.toString());
-                stringBuilder = new StringBuilder();
+        try (Timer.Context ignored = PluginMetrics.time(LogSenderHelper.class, "sendAuditLogs")) {
+            PluginDescriptorImpl pluginDescriptor = PluginDescriptorImpl.getInstance();
+            if (pluginDescriptor.isAuditLogEnabled()) {
+                coalesce(pluginDescriptor.getUrl(), data, pluginDescriptor.getSourceCategory());
             }
-            count++;
         }
-        convertedMessages.add(stringBuilder.toString());
-
-        return convertedMessages;
     }
 
     public static void sendTestResult(TestCaseModel testCaseModel, BuildModel buildModel) {
-        PluginDescriptorImpl pluginDescriptor = PluginDescriptorImpl.getInstance();
-        Gson gson = new Gson();
-
-        Map<String, Object> data = new HashMap<>();
-
-        data.put("logType", LogTypeEnum.TEST_RESULT.getValue());
-        data.put("name", buildModel.getName());
-        data.put("number", buildModel.getNumber());
+        if (testCaseModel != null && CollectionUtils.isNotEmpty(testCaseModel.getTestResults())) {
+            sendTestResult(testCaseModel.getTestResults().stream(), buildModel);
+        }
+    }
 
-        if (testCaseModel != null) {
-            if (CollectionUtils.isNotEmpty(testCaseModel.getTestResults())) {
-                List<TestCaseResultModel> testResults = testCaseModel.getTestResults();
-                // send test cases based on the size
-                List<TestCaseResultModel> toBeSent = new LinkedList<>();
-                data.put("testResult", toBeSent);
-                int size = gson.toJson(data).getBytes().length;
-                for (TestCaseResultModel testCaseResultModel : testResults) {
-                    if ("Failed".equals(testCaseResultModel.getStatus())) {
-                        testCaseResultModel.setErrorDetails(format(testCaseResultModel.getErrorDetails()));
-                        testCaseResultModel.setErrorStackTrace(format(testCaseResultModel.getErrorStackTrace()));
-                    }
-                    size = size + gson.toJson(testCaseResultModel).getBytes().length;
-                    if (size > MAX_DATA_SIZE) {
-                        sendTestResultInChunksOfPreDefinedSize(buildModel, gson, pluginDescriptor, toBeSent, data);
-                        toBeSent.clear();
-                    }
-                    toBeSent.add(testCaseResultModel);
-                    size = gson.toJson(data).getBytes().length;
-                }
-                if (CollectionUtils.isNotEmpty(toBeSent)) {
-                    sendTestResultInChunksOfPreDefinedSize(buildModel, gson, pluginDescriptor, toBeSent, data);
-                    toBeSent.clear();
+    /**
+     * Convert and send independent reports, e.g. the child reports of a matrix or multi-module build, in parallel.
+     * Each report is sent by a single task, so the order within a report is kept. Returns once all are queued.
+     */
+    public static void sendTestResults(List<Stream<TestCaseResultModel>> reports, BuildModel buildModel) {
+        try (Timer.Context ignored = PluginMetrics.time(LogSenderHelper.class, "sendTestResults")) {
+            if (reports.size() <= 1) {
+                reports.forEach(report -> sendTestResult(report, buildModel));
+                return;
+            }
+            List<Future<?>> futures = new ArrayList<>();
+            for (Stream<TestCaseResultModel> report : reports) {
+                futures.add(testResultExecutor.submit(() -> sendTestResult(report, buildModel)));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (ExecutionException e) {
+                    LOG.log(Level.WARNING, "An error occurred while sending test results", e.getCause());
                 }
             }
         }
     }
 
-    private static void sendTestResultInChunksOfPreDefinedSize(BuildModel buildModel, Gson gson,
-                                                               PluginDescriptorImpl pluginDescriptor,
-                                                               List<TestCaseResultModel> toBeSent, Map<String, Object> data) {
-        LOG.log(Level.INFO, "Job Name - " + buildModel.getName() + ", Build Number - " + buildModel.getNumber() + ", test result count is " + toBeSent.size() +
-                ", number of bytes is " + gson.toJson(data).getBytes().length);
-        LogSender.getInstance().sendLogs(pluginDescriptor.getUrl(), gson.toJson(data).getBytes()
-                , null, pluginDescriptor.getSourceCategory());
+    /**
+     * Test results are written to the chunk as they are pulled from the stream, so a lazily converted report never
+     * needs more than one chunk in memory.
+     */
+    public static void sendTestResult(Stream<TestCaseResultModel> testResults, BuildModel buildModel) {
+        try (Timer.Context ignored = PluginMetrics.time(LogSenderHelper.class, "sendTestResult")) {
+            JsonChunkWriter<TestCaseResultModel> writer = chunkWriter(LogTypeEnum.TEST_RESULT, "testResult", "test result", buildModel);
+            testResults.forEach(testCaseResultModel -> {
+                if ("Failed".equals(testCaseResultModel.getStatus())) {
+                    testCaseResultModel.setErrorDetails(format(testCaseResultModel.getErrorDetails()));
+                    testCaseResultModel.setErrorStackTrace(format(testCaseResultModel.getErrorStackTrace()));
+                }
+                writer.write(testCaseResultModel);
+            });
+            writer.flush();
+        }
     }
 
     public static void sendPipelineStages(List<PipelineStageModel> stages, BuildModel buildModel) {
-        PluginDescriptorImpl pluginDescriptor = PluginDescriptorImpl.getInstance();
-        Gson gson = new Gson();
-        Map<String, Object> data = new HashMap<>();
-
-        data.put("logType", LogTypeEnum.PIPELINE_STAGES.getValue());
-        data.put("name", buildModel.getName());
-        data.put("number", buildModel.getNumber());
-
-        if (CollectionUtils.isNotEmpty(stages)) {
-            // send Stages based on the size
-            List<PipelineStageModel> toBeSent = new LinkedList<>();
-            data.put("stages", toBeSent);
-            int size = gson.toJson(data).getBytes().length;
-            for (PipelineStageModel pipelineStageModel : stages) {
-                size = size + gson.toJson(pipelineStageModel).getBytes().length;
-                if (size > MAX_DATA_SIZE) {
-                    sendStagesInChunksOfPreDefinedSize(buildModel, gson, pluginDescriptor, toBeSent, data);
-                    toBeSent.clear();
-                }
-                toBeSent.add(pipelineStageModel);
-                size = gson.toJson(data).getBytes().length;
+        try (Timer.Context ignored = PluginMetrics.time(LogSenderHelper.class, "sendPipelineStages")) {
+            if (CollectionUtils.isEmpty(stages)) {
+                return;
             }
-            if (CollectionUtils.isNotEmpty(toBeSent)) {
-                sendStagesInChunksOfPreDefinedSize(buildModel, gson, pluginDescriptor, toBeSent, data);
-                toBeSent.clear();
+            JsonChunkWriter<PipelineStageModel> writer = chunkWriter(LogTypeEnum.PIPELINE_STAGES, "stages", "Stage", buildModel);
+            for (PipelineStageModel pipelineStageModel : stages) {
+                writer.write(pipelineStageModel);
             }
+            writer.flush();
         }
     }
 
-    private static void sendStagesInChunksOfPreDefinedSize(BuildModel buildModel, Gson gson,
-                                                           PluginDescriptorImpl pluginDescriptor,
-                                                           List<PipelineStageModel> toBeSent, Map<String, Object> data) {
-        LOG.log(Level.INFO, "Job Name - " + buildModel.getName() + ", Build Number - " + buildModel.getNumber() + ", Stage count is " + toBeSent.size() +
-                ", number of bytes is " + gson.toJson(data).getBytes().length);
-        LogSender.getInstance().sendLogs(pluginDescriptor.getUrl(), gson.toJson(data).getBytes()
-                , null, pluginDescriptor.getSourceCategory());
+    /**
+     * Records are serialized once each into chunks of at most MAX_DATA_SIZE bytes, every chunk is queued as soon as
+     * it is full.
+     */
+    private static <T> JsonChunkWriter<T> chunkWriter(LogTypeEnum logType, String arrayName, String description, BuildModel buildModel) {
+        PluginDescriptorImpl pluginDescriptor = PluginDescriptorImpl.getInstance();
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("logType", logType.getValue());
+        data.put("name", buildModel.getName());
+        data.put("number", buildModel.getNumber());
+
+        return new JsonChunkWriter<>(SumoGson.getInstance(), data, arrayName, MAX_DATA_SIZE, chunk -> {
+            LOG.log(Level.INFO, "Job Name - " + buildModel.getName() + ", Build Number - " + buildModel.getNumber() + ", "
+                    + description + " count is " + chunk.getCount() + ", number of bytes is " + chunk.getData().length);
+            LogSendQueue.getInstance().offer(new LogPayload(pluginDescriptor.getUrl(), chunk.getData(), null,
+                    pluginDescriptor.getSourceCategory(), null, null, null));
+        });
     }
 
     private static String format(String data) {
@@ -0,0 +1,525 @@
+package com.sumologic.jenkins.jenkinssumologicplugin.sender;
+
+import jenkins.model.Jenkins;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Sumo Logic plugin for Jenkins model.
+ * <p>
+ * Append only, segment based spool under JENKINS_HOME for payloads that could not be delivered. Records hold the
+ * compressed payload and its headers. A background replayer drains the oldest segments first at a bounded rate
+ * once the HTTP source accepts data again. The spool is capped in size and records expire after a TTL. The segment
+ * being replayed is never evicted, so the replayer does not lose the file it is reading. Records the endpoint
+ * rejects with a status that is not retryable are skipped rather than holding up the ones behind them, and the
+ * replay offset is saved as the replayer goes, so a restart does not send a segment's records twice.
+ * <p>
+ * The spool is disabled when there is no Jenkins instance, e.g. when the sender runs on an agent.
+ */
+public class LogSpool {
+
+    private static final Logger LOG = Logger.getLogger(LogSpool.class.getName());
+
+    private static final String SPOOL_DIR = "sumologic-spool";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String OFFSET_FILE = "replay.offset";
+
+    private static final long MAX_BYTES = Long.getLong(LogSpool.class.getName() + ".maxBytes", 256L * 1024 * 1024);
+    private static final long SEGMENT_BYTES = Long.getLong(LogSpool.class.getName() + ".segmentBytes", 8L * 1024 * 1024);
+    private static final long TTL_MILLIS = Long.getLong(LogSpool.class.getName() + ".ttlMillis", TimeUnit.HOURS.toMillis(24));
+    private static final int FSYNC_BATCH = Integer.getInteger(LogSpool.class.getName() + ".fsyncBatch", 32);
+    private static final long REPLAY_INTERVAL_MILLIS = Long.getLong(LogSpool.class.getName() + ".replayIntervalMillis", TimeUnit.SECONDS.toMillis(30));
+    private static final int REPLAY_PER_SECOND = Integer.getInteger(LogSpool.class.getName() + ".replayPerSecond", 20);
+    private static final int OFFSET_SAVE_INTERVAL = Integer.getInteger(LogSpool.class.getName() + ".offsetSaveInterval", 50);
+
+    private final File directory;
+    private final LogSender logSender;
+    private final long maxBytes;
+
+    private FileChannel writeChannel;
+    private File writeSegment;
+    private long writeSize;
+    private int unsyncedRecords;
+    private long nextSegmentId;
+    private long depthBytes;
+
+    private String offsetSegment;
+    private long offsetValue;
+    private File replayingSegment;
+
+    private final AtomicLong spooledCount = new AtomicLong();
+    private final AtomicLong replayedCount = new AtomicLong();
+    private final AtomicLong evictedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    // Creation time of the oldest record not replayed yet, 0 when there is none
+    private volatile long oldestRecordTime;
+
+    private static class LogSpoolHolder {
+        static LogSpool logSpool = new LogSpool(getDefaultDirectory(), LogSender.getInstance(), REPLAY_INTERVAL_MILLIS);
+    }
+
+    public static LogSpool getInstance() {
+        return LogSpoolHolder.logSpool;
+    }
+
+    private static File getDefaultDirectory() {
+        try {
+            Jenkins jenkins = Jenkins.getInstance();
+            return jenkins == null ? null : new File(jenkins.getRootDir(), SPOOL_DIR);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    LogSpool(File directory, LogSender logSender, long replayIntervalMillis) {
+        this(directory, logSender, replayIntervalMillis, MAX_BYTES);
+    }
+
+    LogSpool(File directory, LogSender logSender, long replayIntervalMillis, long maxBytes) {
+        this.logSender = logSender;
+        this.maxBytes = maxBytes;
+        this.directory = directory != null && (directory.isDirectory() || directory.mkdirs()) ? directory : null;
+        if (this.directory == null) {
+            return;
+        }
+        for (File segment : listSegments()) {
+            depthBytes += segment.length();
+            nextSegmentId = Math.max(nextSegmentId, segmentId(segment) + 1);
+        }
+        loadOffset();
+        oldestRecordTime = firstRecordTime();
+        if (replayIntervalMillis > 0) {
+            ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "Sumo Logic Spool Replayer");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(this::replay, replayIntervalMillis, replayIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public boolean isEnabled() {
+        return directory != null;
+    }
+
+    /**
+     * Spool an uncompressed payload, e.g. one that overflowed the send queue.
+     */
+    public void append(LogPayload payload) {
+        if (directory == null) {
+            return;
+        }
+        try {
+            append(payload.getUrl(), LogSender.compress(payload.getData()), payload.getSumoName(), payload.getSumoCategory(),
+                    payload.getContentType(), payload.getFields(), payload.getHost());
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Could not compress payload for the Sumo Logic spool", e);
+        }
+    }
+
+    /**
+     * Spool an already compressed payload together with its headers.
+     */
+    public synchronized void append(String url, byte[] compressedData, String sumoName, String sumoCategory,
+                                    String contentType, HashMap<String, String> fields, String host) {
+        if (directory == null) {
+            return;
+        }
+        try {
+            long now = System.currentTimeMillis();
+            ByteBuffer record = encode(now, url, compressedData, sumoName, sumoCategory, contentType, fields, host);
+            if (writeChannel == null || writeSize + record.remaining() > SEGMENT_BYTES) {
+                roll();
+                writeSegment = new File(directory, String.format("%019d%s", nextSegmentId++, SEGMENT_SUFFIX));
+                writeChannel = FileChannel.open(writeSegment.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.APPEND);
+            }
+            int length = record.remaining();
+            while (record.hasRemaining()) {
+                writeChannel.write(record);
+            }
+            writeSize += length;
+            depthBytes += length;
+            spooledCount.incrementAndGet();
+            if (oldestRecordTime == 0) {
+                oldestRecordTime = now;
+            }
+            if (++unsyncedRecords >= FSYNC_BATCH) {
+                sync();
+            }
+            enforceSizeCap();
+        } catch (ClosedChannelException e) {
+            // An interrupted writer closes the channel, e.g. a sender stopped at shutdown, the next record starts a new segment
+            LOG.log(Level.WARNING, "Could not write payload to the Sumo Logic spool, the segment was closed", e);
+            writeChannel = null;
+            writeSegment = null;
+            writeSize = 0;
+            unsyncedRecords = 0;
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Could not write payload to the Sumo Logic spool", e);
+        }
+    }
+
+    /**
+     * Force pending writes to disk and close the current segment.
+     */
+    public synchronized void close() {
+        try {
+            roll();
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Could not close the Sumo Logic spool segment", e);
+        }
+    }
+
+    private void sync() throws IOException {
+        if (writeChannel != null && unsyncedRecords > 0) {
+            writeChannel.force(false);
+            unsyncedRecords = 0;
+        }
+    }
+
+    private void roll() throws IOException {
+        if (writeChannel != null) {
+            sync();
+            writeChannel.close();
+            writeChannel = null;
+            writeSegment = null;
+            writeSize = 0;
+        }
+    }
+
+    private void enforceSizeCap() {
+        boolean evicted = false;
+        for (File segment : listSegments()) {
+            if (depthBytes <= maxBytes || segment.equals(writeSegment)) {
+                break;
+            }
+            if (!segment.equals(replayingSegment)) {
+                deleteSegment(segment);
+                evictedCount.incrementAndGet();
+                evicted = true;
+            }
+        }
+        if (evicted && replayingSegment == null) {
+            oldestRecordTime = firstRecordTime();
+        }
+    }
+
+    private void expireSegments() {
+        long oldest = System.currentTimeMillis() - TTL_MILLIS;
+        for (File segment : listSegments()) {
+            if (!segment.equals(writeSegment) && !segment.equals(replayingSegment) && segment.lastModified() < oldest) {
+                deleteSegment(segment);
+                evictedCount.incrementAndGet();
+            }
+        }
+    }
+
+    private void deleteSegment(File segment) {
+        long length = segment.length();
+        if (segment.delete()) {
+            depthBytes -= length;
+        } else {
+            LOG.log(Level.WARNING, "Could not delete Sumo Logic spool segment {0}", segment);
+        }
+        if (segment.getName().equals(offsetSegment)) {
+            saveOffset(null, 0);
+        }
+    }
+
+    void replay() {
+        if (directory == null) {
+            return;
+        }
+        try {
+            List<File> segments;
+            synchronized (this) {
+                roll();
+                expireSegments();
+                segments = listSegments();
+            }
+            for (File segment : segments) {
+                synchronized (this) {
+                    if (!segment.exists()) {
+                        continue;
+                    }
+                    replayingSegment = segment;
+                }
+                boolean replayed;
+                try {
+                    replayed = replaySegment(segment);
+                } finally {
+                    synchronized (this) {
+                        replayingSegment = null;
+                    }
+                }
+                if (!replayed) {
+                    return;
+                }
+                synchronized (this) {
+                    deleteSegment(segment);
+                }
+            }
+            synchronized (this) {
+                // Records spooled while replaying went to segments that were not in the list
+                oldestRecordTime = firstRecordTime();
+            }
+        } catch (Exception e) {
+            LOG.log(Level.WARNING, "An error occurred while replaying the Sumo Logic spool", e);
+        }
+    }
+
+    /**
+     * @return the creation time of the first record in the spool, or 0 when it is empty
+     */
+    private long firstRecordTime() {
+        for (File segment : listSegments()) {
+            long offset = segment.getName().equals(offsetSegment) ? offsetValue : 0;
+            try (FileChannel channel = FileChannel.open(segment.toPath(), StandardOpenOption.READ)) {
+                SpooledRecord record = read(channel, offset);
+                if (record != null) {
+                    return record.createdAt;
+                }
+            } catch (IOException e) {
+                LOG.log(Level.FINE, "Could not read Sumo Logic spool segment " + segment, e);
+            }
+        }
+        return 0;
+    }
+
+    private boolean replaySegment(File segment) throws IOException, InterruptedException {
+        long offset = segment.getName().equals(offsetSegment) ? offsetValue : 0;
+        long pauseMillis = REPLAY_PER_SECOND > 0 ? 1000L / REPLAY_PER_SECOND : 0;
+        int unsavedRecords = 0;
+        try (FileChannel channel = FileChannel.open(segment.toPath(), StandardOpenOption.READ)) {
+            SpooledRecord record;
+            while ((record = read(channel, offset)) != null) {
+                oldestRecordTime = record.createdAt;
+                if (System.currentTimeMillis() - record.createdAt <= TTL_MILLIS) {
+                    LogSender.Outcome outcome = logSender.sendCompressed(record.url, record.data, record.sumoName,
+                            record.sumoCategory, record.contentType, record.fields, record.host);
+                    if (outcome == LogSender.Outcome.FAILED) {
+                        saveOffset(segment.getName(), offset);
+                        return false;
+                    }
+                    if (outcome == LogSender.Outcome.REJECTED) {
+                        rejectedCount.incrementAndGet();
+                        LOG.log(Level.WARNING, "Sumo Logic rejected a spooled payload of {0} bytes, skipping it", record.data.length);
+                    } else {
+                        replayedCount.incrementAndGet();
+                    }
+                    if (pauseMillis > 0) {
+                        Thread.sleep(pauseMillis);
+                    }
+                } else {
+                    evictedCount.incrementAndGet();
+                }
+                offset = record.nextOffset;
+                if (++unsavedRecords >= OFFSET_SAVE_INTERVAL) {
+                    saveOffset(segment.getName(), offset);
+                    unsavedRecords = 0;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static class SpooledRecord {
+        private long createdAt;
+        private String url;
+        private String sumoName;
+        private String sumoCategory;
+        private String contentType;
+        private String host;
+        private HashMap<String, String> fields;
+        private byte[] data;
+        private long nextOffset;
+    }
+
+    private static ByteBuffer encode(long createdAt, String url, byte[] data, String sumoName, String sumoCategory,
+                                     String contentType, Map<String, String> fields, String host) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(data.length + 256);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeLong(createdAt);
+        writeString(out, url);
+        writeString(out, sumoName);
+        writeString(out, sumoCategory);
+        writeString(out, contentType);
+        writeString(out, host);
+        out.writeInt(fields == null ? 0 : fields.size());
+        if (fields != null) {
+            for (Map.Entry<String, String> field : fields.entrySet()) {
+                writeString(out, field.getKey());
+                writeString(out, field.getValue());
+            }
+        }
+        out.writeInt(data.length);
+        out.write(data);
+        out.flush();
+
+        ByteBuffer buffer = ByteBuffer.allocate(4 + bytes.size());
+        buffer.putInt(bytes.size());
+        buffer.put(bytes.toByteArray());
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * @return the record at the offset, or null at the end of the segment or at a partially written record
+     */
+    private static SpooledRecord read(FileChannel channel, long offset) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(4);
+        if (channel.read(header, offset) < 4) {
+            return null;
+        }
+        header.flip();
+        int length = header.getInt();
+        if (length <= 0 || offset + 4 + length > channel.size()) {
+            return null;
+        }
+        ByteBuffer body = ByteBuffer.allocate(length);
+        while (body.hasRemaining()) {
+            if (channel.read(body, offset + 4 + body.position()) < 0) {
+                return null;
+            }
+        }
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(body.array()));
+        SpooledRecord record = new SpooledRecord();
+        record.createdAt = in.readLong();
+        record.url = readString(in);
+        record.sumoName = readString(in);
+        record.sumoCategory = readString(in);
+        record.contentType = readString(in);
+        record.host = readString(in);
+        int fieldCount = in.readInt();
+        if (fieldCount > 0) {
+            record.fields = new HashMap<>();
+            for (int i = 0; i < fieldCount; i++) {
+                record.fields.put(readString(in), readString(in));
+            }
+        }
+        record.data = new byte[in.readInt()];
+        in.readFully(record.data);
+        record.nextOffset = offset + 4 + length;
+        return record;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private List<File> listSegments() {
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(SEGMENT_SUFFIX));
+        if (files == null) {
+            return Collections.emptyList();
+        }
+        List<File> segments = new ArrayList<>(Arrays.asList(files));
+        segments.sort((first, second) -> Long.compare(segmentId(first), segmentId(second)));
+        return segments;
+    }
+
+    private static long segmentId(File segment) {
+        String name = segment.getName();
+        try {
+            return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private void loadOffset() {
+        File file = new File(directory, OFFSET_FILE);
+        if (!file.isFile()) {
+            return;
+        }
+        try {
+            String[] parts = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8).trim().split(" ");
+            if (parts.length == 2) {
+                offsetSegment = parts[0];
+                offsetValue = Long.parseLong(parts[1]);
+            }
+        } catch (IOException | NumberFormatException e) {
+            LOG.log(Level.WARNING, "Could not read the Sumo Logic spool replay offset", e);
+        }
+    }
+
+    private synchronized void saveOffset(String segment, long offset) {
+        offsetSegment = segment;
+        offsetValue = offset;
+        File file = new File(directory, OFFSET_FILE);
+        try {
+            if (segment == null) {
+                Files.deleteIfExists(file.toPath());
+            } else {
+                Files.write(file.toPath(), (segment + " " + offset).getBytes(StandardCharsets.UTF_8));
+            }
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Could not write the Sumo Logic spool replay offset", e);
+        }
+    }
+
+    public synchronized long getDepthBytes() {
+        return depthBytes;
+    }
+
+    public int getSegmentCount() {
+        return directory == null ? 0 : listSegments().size();
+    }
+
+    /**
+     * @return how long the oldest record that is not replayed yet has been waiting, 0 when the spool is empty
+     */
+    public long getReplayLagMillis() {
+        long oldest = oldestRecordTime;
+        return oldest == 0 ? 0 : Math.max(0, System.currentTimeMillis() - oldest);
+    }
+
+    public long getSpooledCount() {
+        return spooledCount.get();
+    }
+
+    public long getReplayedCount() {
+        return replayedCount.get();
+    }
+
+    public long getEvictedCount() {
+        return evictedCount.get();
+    }
+
+    /**
+     * @return the number of spooled payloads skipped because Sumo Logic rejected them with a status that is not retryable
+     */
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+}
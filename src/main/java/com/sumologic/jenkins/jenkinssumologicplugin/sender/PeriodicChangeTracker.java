@@ -0,0 +1,95 @@
+package com.sumologic.jenkins.jenkinssumologicplugin.sender;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Sumo Logic plugin for Jenkins model.
+ * <p>
+ * Fingerprints of the entities sent by one periodic stream, e.g. nodes or queue items, in the last cycle, so that a
+ * cycle only sends the entities that were added or changed. The fingerprint covers the fields that describe the
+ * entity, not the ones that change on every cycle like the event time or a duration. Every {@code keyframeInterval}
+ * cycles is a keyframe, which sends every entity again.
+ * <p>
+ * A cycle is started, checked and ended by one thread at a time.
+ */
+public class PeriodicChangeTracker {
+
+    private final int keyframeInterval;
+    private Map<String, Long> fingerprints = new HashMap<>();
+    private Map<String, Long> current = new HashMap<>();
+    private boolean keyframe = true;
+    private long cycles;
+
+    public PeriodicChangeTracker(int keyframeInterval) {
+        this.keyframeInterval = keyframeInterval;
+    }
+
+    public synchronized void startCycle() {
+        keyframe = keyframeInterval <= 1 || cycles++ % keyframeInterval == 0;
+        current = new HashMap<>();
+    }
+
+    /**
+     * @return whether the entity is sent in this cycle, because it is new, changed or this is a keyframe
+     */
+    public synchronized boolean changed(String key, long fingerprint) {
+        current.put(key, fingerprint);
+        Long last = fingerprints.get(key);
+        return keyframe || last == null || last != fingerprint;
+    }
+
+    /**
+     * @return the keys of the entities that were sent before but not seen in this cycle
+     */
+    public synchronized Set<String> endCycle() {
+        Set<String> removed = new HashSet<>(fingerprints.keySet());
+        removed.removeAll(current.keySet());
+        fingerprints = current;
+        return removed;
+    }
+
+    /**
+     * End a cycle that did not see every entity, e.g. one that ran out of time. The entities seen are updated and
+     * the others are kept, as they may still be there.
+     */
+    public synchronized void endPartialCycle() {
+        fingerprints.putAll(current);
+        current = new HashMap<>();
+    }
+
+    public synchronized boolean isKeyframe() {
+        return keyframe;
+    }
+
+    /**
+     * Forget every entity, e.g. when change tracking is switched off, so the next cycle sends everything.
+     */
+    public synchronized void reset() {
+        fingerprints = new HashMap<>();
+        current = new HashMap<>();
+        cycles = 0;
+    }
+
+    /**
+     * @return a 64 bit FNV-1a hash of the values, with null and the empty string hashed differently
+     */
+    public static long fingerprint(Object... values) {
+        long hash = 0xcbf29ce484222325L;
+        for (Object value : values) {
+            if (value == null) {
+                hash = (hash ^ 0xff) * 0x100000001b3L;
+                continue;
+            }
+            String string = value.toString();
+            for (int i = 0; i < string.length(); i++) {
+                hash = (hash ^ string.charAt(i)) * 0x100000001b3L;
+            }
+            // Separator, so that ("ab", "c") and ("a", "bc") differ
+            hash = (hash ^ 0xfe) * 0x100000001b3L;
+        }
+        return hash;
+    }
+}
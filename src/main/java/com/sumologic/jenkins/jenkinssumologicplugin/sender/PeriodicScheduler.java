@@ -0,0 +1,170 @@
+package com.sumologic.jenkins.jenkinssumologicplugin.sender;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Sumo Logic plugin for Jenkins model.
+ * <p>
+ * Runs periodic streams, e.g. the node, queue and running build data, each on its own interval and its own thread,
+ * so a slow stream does not hold up the others. A stream runs one cycle at a time: when a cycle is still running at
+ * the next tick, that tick is skipped rather than queued. A cycle that runs past its timeout is interrupted.
+ */
+public class PeriodicScheduler {
+
+    private static final Logger LOG = Logger.getLogger(PeriodicScheduler.class.getName());
+
+    public interface Cycle {
+        void run() throws Exception;
+    }
+
+    private final String name;
+    private final ScheduledThreadPoolExecutor ticker;
+    private final Map<String, Stream> streams = new HashMap<>();
+
+    public PeriodicScheduler(String name) {
+        this.name = name;
+        this.ticker = new ScheduledThreadPoolExecutor(1, runnable -> newThread(runnable, name + " Scheduler"));
+        this.ticker.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Run the cycle of the stream every interval, starting right away if the stream is new. A stream that is
+     * scheduled again with the same interval keeps its ticks, and only takes the new cycle and timeout.
+     */
+    public synchronized void schedule(String stream, long intervalMillis, long timeoutMillis, Cycle cycle) {
+        Stream existing = streams.get(stream);
+        if (existing == null) {
+            existing = new Stream(stream);
+            streams.put(stream, existing);
+        }
+        existing.cycle = cycle;
+        existing.timeoutMillis = timeoutMillis;
+        if (existing.tick != null && existing.intervalMillis == intervalMillis) {
+            return;
+        }
+        long initialDelay = existing.tick == null ? 0 : intervalMillis;
+        if (existing.tick != null) {
+            existing.tick.cancel(false);
+        }
+        existing.intervalMillis = intervalMillis;
+        existing.tick = ticker.scheduleAtFixedRate(existing::tick, initialDelay, intervalMillis, TimeUnit.MILLISECONDS);
+        LOG.log(Level.FINE, "{0} {1} runs every {2} ms", new Object[]{name, stream, intervalMillis});
+    }
+
+    /**
+     * Stop the ticks of the stream. A cycle that is running is left to finish.
+     */
+    public synchronized void cancel(String stream) {
+        Stream existing = streams.get(stream);
+        if (existing != null && existing.tick != null) {
+            existing.tick.cancel(false);
+            existing.tick = null;
+        }
+    }
+
+    public synchronized void cancelAll() {
+        for (String stream : streams.keySet()) {
+            cancel(stream);
+        }
+    }
+
+    public synchronized boolean isScheduled(String stream) {
+        Stream existing = streams.get(stream);
+        return existing != null && existing.tick != null;
+    }
+
+    /**
+     * @return the number of ticks of the stream that were skipped because its previous cycle was still running
+     */
+    public synchronized long getSkippedCount(String stream) {
+        Stream existing = streams.get(stream);
+        return existing != null ? existing.skipped.get() : 0;
+    }
+
+    private static Thread newThread(Runnable runnable, String threadName) {
+        Thread thread = new Thread(runnable, threadName);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private class Stream {
+        private final String stream;
+        private final ThreadPoolExecutor runner;
+        private final AtomicBoolean running = new AtomicBoolean();
+        private final AtomicLong skipped = new AtomicLong();
+        private volatile Cycle cycle;
+        private volatile long timeoutMillis;
+        private long intervalMillis;
+        private ScheduledFuture<?> tick;
+        private long cycles;
+        // Guarded by this stream, so a late timeout does not interrupt the next cycle
+        private long runningCycle;
+        private Thread cycleThread;
+
+        Stream(String stream) {
+            this.stream = stream;
+            this.runner = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                    runnable -> newThread(runnable, name + " " + stream));
+            this.runner.allowCoreThreadTimeOut(true);
+        }
+
+        void tick() {
+            if (!running.compareAndSet(false, true)) {
+                skipped.incrementAndGet();
+                LOG.log(Level.INFO, "Skipping {0} {1}, the previous cycle is still running", new Object[]{name, stream});
+                return;
+            }
+            long current = ++cycles;
+            try {
+                runner.execute(() -> run(current));
+            } catch (RejectedExecutionException e) {
+                running.set(false);
+                return;
+            }
+            long timeout = timeoutMillis;
+            if (timeout > 0) {
+                ticker.schedule(() -> interrupt(current, timeout), timeout, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        private void run(long current) {
+            synchronized (this) {
+                runningCycle = current;
+                cycleThread = Thread.currentThread();
+            }
+            try {
+                cycle.run();
+            } catch (InterruptedException e) {
+                LOG.log(Level.FINE, "{0} {1} was interrupted", new Object[]{name, stream});
+            } catch (Exception e) {
+                LOG.log(Level.WARNING, "An error occurred while running " + name + " " + stream, e);
+            } finally {
+                synchronized (this) {
+                    cycleThread = null;
+                }
+                // Clear an interrupt that came in as the cycle finished, before the thread runs the next one
+                Thread.interrupted();
+                running.set(false);
+            }
+        }
+
+        private synchronized void interrupt(long current, long timeout) {
+            if (cycleThread != null && runningCycle == current) {
+                LOG.log(Level.WARNING, "{0} {1} did not finish within {2} ms, interrupting it",
+                        new Object[]{name, stream, timeout});
+                cycleThread.interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.sumologic.jenkins.jenkinssumologicplugin.sender;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.http.client.utils.DateUtils;
+
+import java.util.Date;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sumo Logic plugin for Jenkins model.
+ * <p>
+ * Retry policy used by {@link LogSender}. Decides which responses are worth retrying and how long to wait between
+ * attempts, using exponential backoff with decorrelated jitter and honoring the Retry-After header when present.
+ * Attempts are capped both in number and in total elapsed time.
+ */
+public class RetryPolicy {
+
+    private static final int MAX_ATTEMPTS = Integer.getInteger(RetryPolicy.class.getName() + ".maxAttempts", 4);
+    private static final long BASE_DELAY_MILLIS = Long.getLong(RetryPolicy.class.getName() + ".baseDelayMillis", 500L);
+    private static final long MAX_DELAY_MILLIS = Long.getLong(RetryPolicy.class.getName() + ".maxDelayMillis", TimeUnit.SECONDS.toMillis(30));
+    private static final long MAX_ELAPSED_MILLIS = Long.getLong(RetryPolicy.class.getName() + ".maxElapsedMillis", TimeUnit.SECONDS.toMillis(60));
+
+    private final int maxAttempts;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+    private final long maxElapsedMillis;
+
+    public RetryPolicy() {
+        this(MAX_ATTEMPTS, BASE_DELAY_MILLIS, MAX_DELAY_MILLIS, MAX_ELAPSED_MILLIS);
+    }
+
+    public RetryPolicy(int maxAttempts, long baseDelayMillis, long maxDelayMillis, long maxElapsedMillis) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseDelayMillis = Math.max(1, baseDelayMillis);
+        this.maxDelayMillis = Math.max(this.baseDelayMillis, maxDelayMillis);
+        this.maxElapsedMillis = maxElapsedMillis;
+    }
+
+    /**
+     * @param statusCode HTTP status code, or a negative value when the request failed with an exception
+     * @return true if sending the same payload again may succeed
+     */
+    public boolean isRetryable(int statusCode) {
+        return statusCode < 0 || statusCode == 408 || statusCode == 429 || statusCode == 500
+                || statusCode == 502 || statusCode == 503 || statusCode == 504;
+    }
+
+    /**
+     * Decorrelated jitter: the next delay is random between the base delay and three times the previous delay,
+     * capped by the maximum delay. A Retry-After value from the server takes precedence when it is larger.
+     *
+     * @param previousDelayMillis delay used before the previous attempt, or 0 for the first retry
+     * @param retryAfterMillis    delay requested by the server, or a negative value when absent
+     * @return delay before the next attempt
+     */
+    public long nextDelay(long previousDelayMillis, long retryAfterMillis) {
+        long upper = Math.max(baseDelayMillis + 1, Math.max(previousDelayMillis, baseDelayMillis) * 3);
+        long delay = Math.min(maxDelayMillis, ThreadLocalRandom.current().nextLong(baseDelayMillis, upper));
+        return Math.max(delay, retryAfterMillis);
+    }
+
+    /**
+     * @return true if another attempt is allowed after the given number of attempts and elapsed time
+     */
+    public boolean canRetry(int attempts, long elapsedMillis, long nextDelayMillis) {
+        return attempts < maxAttempts && elapsedMillis + nextDelayMillis <= maxElapsedMillis;
+    }
+
+    /**
+     * Parse a Retry-After header, which is either a number of seconds or an HTTP date.
+     *
+     * @return the delay in milliseconds, or -1 when the value is missing or not understood
+     */
+    public static long parseRetryAfter(String value) {
+        if (StringUtils.isBlank(value)) {
+            return -1;
+        }
+        String trimmed = value.trim();
+        if (StringUtils.isNumeric(trimmed)) {
+            return TimeUnit.SECONDS.toMillis(Long.parseLong(trimmed));
+        }
+        Date date = DateUtils.parseDate(trimmed);
+        if (date == null) {
+            return -1;
+        }
+        return Math.max(0, date.getTime() - System.currentTimeMillis());
+    }
+}
@@ -1,7 +1,7 @@
 package com.sumologic.jenkins.jenkinssumologicplugin.sender;
 
-import com.google.gson.Gson;
 import com.sumologic.jenkins.jenkinssumologicplugin.PluginDescriptorImpl;
+import com.sumologic.jenkins.jenkinssumologicplugin.utility.SumoGson;
 import hudson.Extension;
 import hudson.FilePath;
 import hudson.model.Run;
@@ -190,8 +190,7 @@ public class SumoLogicFileUploadStep extends Step {
                     sendTextData(text, sourceName, fields);
                     listener.getLogger().println(String.format("Uploaded Text %s to Sumo Logic.", text));
                 } else if (!keyValueMap.isEmpty()) {
-                    Gson gson = new Gson();
-                    String mapString = gson.toJson(keyValueMap);
+                    String mapString = SumoGson.toJson(keyValueMap);
                     sendTextData(mapString, sourceName, fields);
                     listener.getLogger().println(String.format("Uploaded KeyValueMap String %s to Sumo Logic.", mapString));
                 } else if (file != null) {
@@ -1,22 +1,40 @@
 package com.sumologic.jenkins.jenkinssumologicplugin.sender;
 
+import com.codahale.metrics.Timer;
 import com.sumologic.jenkins.jenkinssumologicplugin.PluginDescriptorImpl;
 import com.sumologic.jenkins.jenkinssumologicplugin.constants.EventSourceEnum;
 import com.sumologic.jenkins.jenkinssumologicplugin.constants.LogTypeEnum;
+import com.sumologic.jenkins.jenkinssumologicplugin.metrics.NodeMonitorMetrics;
+import com.sumologic.jenkins.jenkinssumologicplugin.metrics.PluginMetrics;
+import com.sumologic.jenkins.jenkinssumologicplugin.metrics.QueueTelemetry;
 import com.sumologic.jenkins.jenkinssumologicplugin.model.BuildModel;
 import com.sumologic.jenkins.jenkinssumologicplugin.model.QueueModel;
+import com.sumologic.jenkins.jenkinssumologicplugin.model.QueueStatsModel;
 import com.sumologic.jenkins.jenkinssumologicplugin.model.SlaveModel;
 import com.sumologic.jenkins.jenkinssumologicplugin.utility.CommonModelFactory;
 import hudson.Extension;
+import hudson.init.Terminator;
 import hudson.model.Queue;
 import hudson.model.*;
 import hudson.model.queue.WorkUnit;
 import jenkins.model.Jenkins;
 import org.apache.commons.collections.CollectionUtils;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -29,6 +47,16 @@ import static com.sumologic.jenkins.jenkinssumologicplugin.utility.CommonModelFa
  * <p>
  * Periodically publish jenkins system metadata to sumo
  * <p>
+ * The node, queue and running build data are separate streams, each with its own interval, timeout and enable flag,
+ * run by a {@link PeriodicScheduler}. This periodic work only keeps their schedules in line with the configuration.
+ * <p>
+ * With periodic changes only, each stream sends the nodes, queue items and running builds that are new or changed
+ * since the last cycle, and every entity on keyframe cycles. On large farms the node snapshots are built in
+ * parallel, and the running builds are scanned in parallel per computer and sent batch by batch.
+ * <p>
+ * With queue events, the queue is not scanned; the wait times per label recorded by the queue listener are sent
+ * instead.
+ * <p>
  * Updated by Sourabh Jain 05/2019
  */
 @Extension
@@ -36,6 +64,24 @@ public class SumoPeriodicPublisher extends AsyncPeriodicWork {
 
     private static final long recurrencePeriod = TimeUnit.MINUTES.toMillis(3);
     private static final Logger LOGGER = Logger.getLogger(SumoPeriodicPublisher.class.getName());
+    private static final int KEYFRAME_INTERVAL = Integer.getInteger(SumoPeriodicPublisher.class.getName() + ".keyframeInterval", 10);
+    private static final int THREADS = Integer.getInteger(SumoPeriodicPublisher.class.getName() + ".threads", 4);
+    private static final int PARALLEL_THRESHOLD = Integer.getInteger(SumoPeriodicPublisher.class.getName() + ".parallelThreshold", 100);
+
+    public static final int DEFAULT_INTERVAL_SECONDS = 180;
+    public static final int MIN_INTERVAL_SECONDS = 10;
+    static final String NODES_STREAM = "Nodes";
+    static final String QUEUE_STREAM = "Queue";
+    static final String RUNNING_BUILDS_STREAM = "Running Builds";
+
+    // One pool per stream that scans in parallel, so a node scan never queues ahead of a build scan
+    static final ExecutorService nodeExecutor = createPeriodicExecutor("Sumo Logic Periodic Node Scanner");
+    static final ExecutorService buildExecutor = createPeriodicExecutor("Sumo Logic Periodic Build Scanner");
+    private static final PeriodicScheduler scheduler = new PeriodicScheduler("Sumo Logic Periodic Data Publisher");
+
+    private final PeriodicChangeTracker nodeTracker = new PeriodicChangeTracker(KEYFRAME_INTERVAL);
+    private final PeriodicChangeTracker queueTracker = new PeriodicChangeTracker(KEYFRAME_INTERVAL);
+    private final PeriodicChangeTracker buildTracker = new PeriodicChangeTracker(KEYFRAME_INTERVAL);
     private LogSender logSender;
     private LogSenderHelper logSenderHelper;
     private static Set<String> slaveNames = new HashSet<>();
@@ -53,106 +99,358 @@ public class SumoPeriodicPublisher extends AsyncPeriodicWork {
 
     @Override
     protected void execute(TaskListener listener) throws IOException, InterruptedException {
-        try {
-            if (PluginDescriptorImpl.getInstance().isPeriodicLogEnabled()) {
-                sendNodeDetailsForJenkins();
+        try (Timer.Context ignored = PluginMetrics.time(SumoPeriodicPublisher.class, "execute")) {
+            applySchedules(PluginDescriptorImpl.getInstance());
+        } catch (Exception exception) {
+            LOGGER.log(Level.WARNING, "An error occurred while scheduling periodic data ", exception);
+        }
+    }
 
-                sendTasksInQueue();
+    /**
+     * Start, change or stop the schedule of each stream to match the configuration. Runs every recurrence period,
+     * which also picks up configuration changes made by a script, and when the configuration is saved.
+     */
+    public void applySchedules(PluginDescriptorImpl pluginDescriptor) {
+        boolean enabled = pluginDescriptor.isPeriodicLogEnabled();
+        schedule(NODES_STREAM, enabled && pluginDescriptor.isPeriodicNodesEnabled(),
+                pluginDescriptor.getPeriodicNodesInterval(), pluginDescriptor.getPeriodicNodesTimeout(),
+                timeoutMillis -> sendNodeDetailsForJenkins());
+        schedule(QUEUE_STREAM, enabled && pluginDescriptor.isPeriodicQueueEnabled(),
+                pluginDescriptor.getPeriodicQueueInterval(), pluginDescriptor.getPeriodicQueueTimeout(),
+                timeoutMillis -> sendTasksInQueue());
+        schedule(RUNNING_BUILDS_STREAM, enabled && pluginDescriptor.isPeriodicBuildsEnabled(),
+                pluginDescriptor.getPeriodicBuildsInterval(), pluginDescriptor.getPeriodicBuildsTimeout(),
+                this::sendRunningJobDetails);
+    }
 
-                sendRunningJobDetails();
-            }
-        } catch (Exception exception) {
-            LOGGER.log(Level.WARNING, "An error occurred while sending periodic data ", exception);
+    private static void schedule(String stream, boolean enabled, int intervalSeconds, int timeoutSeconds, StreamCycle cycle) {
+        if (!enabled) {
+            scheduler.cancel(stream);
+            return;
         }
+        long intervalMillis = TimeUnit.SECONDS.toMillis(Math.max(intervalSeconds > 0 ? intervalSeconds : DEFAULT_INTERVAL_SECONDS,
+                MIN_INTERVAL_SECONDS));
+        long timeoutMillis = timeoutSeconds > 0 ? TimeUnit.SECONDS.toMillis(timeoutSeconds) : intervalMillis;
+        scheduler.schedule(stream, intervalMillis, timeoutMillis, () -> cycle.run(timeoutMillis));
+    }
+
+    static boolean isScheduled(String stream) {
+        return scheduler.isScheduled(stream);
+    }
+
+    @Terminator
+    @Restricted(NoExternalUse.class)
+    public static void cancelSchedules() {
+        scheduler.cancelAll();
     }
 
+    private interface StreamCycle {
+        void run(long timeoutMillis) throws Exception;
+    }
 
     @Override
     public long getRecurrencePeriod() {
         return recurrencePeriod;
     }
 
-    public void sendTasksInQueue() {
-        final Queue.Item[] items = Jenkins.getInstance().getQueue().getItems();
-        List<String> queueModels = new ArrayList<>();
-        for (Queue.Item item : items) {
-            QueueModel queueModel = new QueueModel();
-            queueModel.setLogType(LogTypeEnum.QUEUE_EVENT.getValue());
-            queueModel.setQueueId(item.getId());
-            queueModel.setQueueTime((System.currentTimeMillis() - item.getInQueueSince()) / 1000f);
-            queueModel.setBlocked(item.isStuck());
-            queueModel.setReasonForBlock(item.getWhy());
-            queueModel.setConcurrentBuild(item.task.isConcurrentBuild());
-            if (item.task instanceof Job) {
-                queueModel.setJobName(((Job) item.task).getFullName());
-            } else {
-                queueModel.setJobName(item.task.getFullDisplayName());
+    private static ExecutorService createPeriodicExecutor(String name) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return Executors.newFixedThreadPool(Math.max(1, THREADS), runnable -> {
+            Thread thread = new Thread(runnable, name + " #" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Map the items on the pool once there are enough of them, one task per item, keeping their order.
+     * Items that fail to map are logged and left out.
+     */
+    static <T, R> List<R> mapInParallel(ExecutorService executor, List<T> items, Function<T, R> mapper)
+            throws InterruptedException {
+        List<R> results = new ArrayList<>(items.size());
+        if (items.size() < PARALLEL_THRESHOLD) {
+            for (T item : items) {
+                results.add(mapper.apply(item));
+            }
+            return results;
+        }
+        List<Callable<R>> tasks = new ArrayList<>(items.size());
+        for (T item : items) {
+            tasks.add(() -> mapper.apply(item));
+        }
+        for (Future<R> future : executor.invokeAll(tasks)) {
+            try {
+                results.add(future.get());
+            } catch (ExecutionException e) {
+                LOGGER.log(Level.WARNING, "An error occurred while building periodic data", e.getCause());
             }
-            queueModel.setJobURL(getAbsoluteUrl(item.task.getUrl()));
-            queueModel.setEventTime(DATETIME_FORMATTER.format(new Date()));
-            queueModels.add(queueModel.toString());
         }
-        logSenderHelper.sendMultiplePeriodicLogs(queueModels);
+        return results;
     }
 
-    public void sendNodeDetailsForJenkins() {
-        List<SlaveModel> slaveModels = getNodeMonitorsDetails();
-        if (CollectionUtils.isNotEmpty(slaveModels)) {
-            List<String> messages = new ArrayList<>();
-            slaveModels.forEach(slaveModel -> messages.add(slaveModel.toString()));
-            logSenderHelper.sendMultiplePeriodicLogs(messages);
-        }
-
-        Set<String> slavesUp = slaveModels.stream().map(SlaveModel::getNodeName).collect(Collectors.toSet());
-        List<String> removedSlaves = new ArrayList<>();
-        slaveNames.forEach(slave -> {
-            if (!slavesUp.contains(slave)) {
-                SlaveModel slaveModel = new SlaveModel();
-                slaveModel.setLogType(LogTypeEnum.SLAVE_EVENT.getValue());
-                slaveModel.setEventTime(DATETIME_FORMATTER.format(new Date()));
-                slaveModel.setEventSource(EventSourceEnum.PERIODIC_UPDATE.getValue());
-                slaveModel.setNodeStatus("removed");
-                slaveModel.setNodeName(slave);
-                removedSlaves.add(slaveModel.toString());
+    /**
+     * Map the items on the pool once there are enough of them, one task per item, and hand each result to the
+     * consumer on the calling thread as soon as it is ready, in no particular order. Tasks that are not done within
+     * the timeout are cancelled, and items that fail to map are logged and left out.
+     *
+     * @return whether every item was mapped in time
+     */
+    static <T, R> boolean forEachInParallel(ExecutorService executor, List<T> items, Function<T, R> mapper,
+                                            Consumer<R> consumer, long timeoutMillis) throws InterruptedException {
+        if (items.size() < PARALLEL_THRESHOLD) {
+            for (T item : items) {
+                consumer.accept(mapper.apply(item));
             }
-        });
-        if (CollectionUtils.isNotEmpty(removedSlaves)) {
-            logSenderHelper.sendMultiplePeriodicLogs(removedSlaves);
+            return true;
+        }
+        CompletionService<R> completionService = new ExecutorCompletionService<>(executor);
+        List<Future<R>> futures = new ArrayList<>(items.size());
+        for (T item : items) {
+            futures.add(completionService.submit(() -> mapper.apply(item)));
         }
-        setSlaves(slavesUp);
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        try {
+            for (int done = 0; done < futures.size(); done++) {
+                Future<R> future = completionService.poll(deadline - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+                if (future == null) {
+                    LOGGER.log(Level.WARNING, "Periodic data of {0} of {1} items was not ready within {2} ms",
+                            new Object[]{futures.size() - done, futures.size(), timeoutMillis});
+                    return false;
+                }
+                try {
+                    consumer.accept(future.get());
+                } catch (ExecutionException e) {
+                    LOGGER.log(Level.WARNING, "An error occurred while building periodic data", e.getCause());
+                }
+            }
+            return true;
+        } finally {
+            for (Future<R> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * @return whether the tracked entity is sent in this cycle, always true unless periodic changes only is enabled
+     */
+    private static boolean send(PeriodicChangeTracker tracker, boolean changesOnly, String key, Object... fields) {
+        return !changesOnly || tracker.changed(key, PeriodicChangeTracker.fingerprint(fields));
     }
 
-    public void sendRunningJobDetails() {
-        List<String> currentBuildDetails = new ArrayList<>();
-        for (Computer computer : Jenkins.getInstance().getComputers()) {
-            List<Run> runList = new ArrayList<>();
-            for (Executor executor : computer.getExecutors()) {
-                Run run = getRunningJob(executor);
-                if (run != null) {
-                    runList.add(run);
+    private static void startCycle(PeriodicChangeTracker tracker, boolean changesOnly) {
+        if (changesOnly) {
+            tracker.startCycle();
+        } else {
+            tracker.reset();
+        }
+    }
+
+    public void sendTasksInQueue() {
+        try (Timer.Context ignored = PluginMetrics.time(SumoPeriodicPublisher.class, "sendTasksInQueue")) {
+            if (PluginDescriptorImpl.getInstance().isQueueEventsEnabled()) {
+                sendQueueStats();
+                return;
+            }
+            final Queue.Item[] items = Jenkins.getInstance().getQueue().getItems();
+            boolean changesOnly = isPeriodicChangesOnly();
+            startCycle(queueTracker, changesOnly);
+            List<String> queueModels = new ArrayList<>();
+            for (Queue.Item item : items) {
+                QueueModel queueModel = new QueueModel();
+                queueModel.setLogType(LogTypeEnum.QUEUE_EVENT.getValue());
+                queueModel.setQueueId(item.getId());
+                queueModel.setQueueTime((System.currentTimeMillis() - item.getInQueueSince()) / 1000f);
+                queueModel.setBlocked(item.isStuck());
+                queueModel.setReasonForBlock(item.getWhy());
+                queueModel.setConcurrentBuild(item.task.isConcurrentBuild());
+                if (item.task instanceof Job) {
+                    queueModel.setJobName(((Job) item.task).getFullName());
+                } else {
+                    queueModel.setJobName(item.task.getFullDisplayName());
                 }
+                queueModel.setJobURL(getAbsoluteUrl(item.task.getUrl()));
+                queueModel.setEventTime(DATETIME_FORMATTER.format(new Date()));
+                // The queue time grows on every cycle, so it is not part of the fingerprint
+                if (send(queueTracker, changesOnly, String.valueOf(item.getId()), queueModel.isBlocked(),
+                        queueModel.getReasonForBlock(), queueModel.isConcurrentBuild(), queueModel.getJobName())) {
+                    queueModels.add(queueModel.toString());
+                }
+            }
+            if (changesOnly) {
+                // Items that left the queue are reported as builds
+                queueTracker.endCycle();
             }
-            for (Executor executor : computer.getOneOffExecutors()) {
-                Run run = getRunningJob(executor);
-                if (run != null) {
-                    runList.add(run);
+            logSenderHelper.sendMultiplePeriodicLogs(queueModels);
+        }
+    }
+
+    /**
+     * Send the wait times recorded by the queue listener since the last cycle, instead of a snapshot of the queue.
+     */
+    private void sendQueueStats() {
+        List<String> queueStats = new ArrayList<>();
+        for (QueueStatsModel queueStatsModel : QueueTelemetry.getInstance().drain(DATETIME_FORMATTER.format(new Date()))) {
+            queueStats.add(queueStatsModel.toString());
+        }
+        if (CollectionUtils.isNotEmpty(queueStats)) {
+            logSenderHelper.sendMultiplePeriodicLogs(queueStats);
+        }
+    }
+
+    public void sendNodeDetailsForJenkins() throws InterruptedException {
+        try (Timer.Context ignored = PluginMetrics.time(SumoPeriodicPublisher.class, "sendNodeDetailsForJenkins")) {
+            List<Computer> computers = new ArrayList<>();
+            for (Computer computer : Jenkins.getInstance().getComputers()) {
+                if (computer != null) {
+                    computers.add(computer);
                 }
             }
-            for (Run run : runList) {
-                BuildModel buildModel = new BuildModel();
-                buildModel.setResult("In_Progress");
+            List<SlaveModel> slaveModels = mapInParallel(nodeExecutor, computers, CommonModelFactory::getNodeMonitorsDetails);
+            if (PluginDescriptorImpl.getInstance().isMetricDataEnabled()) {
+                NodeMonitorMetrics.getInstance().update(slaveModels);
+            } else {
+                NodeMonitorMetrics.getInstance().clear();
+            }
+            boolean changesOnly = isPeriodicChangesOnly();
+            startCycle(nodeTracker, changesOnly);
+            List<String> messages = new ArrayList<>();
+            for (SlaveModel slaveModel : slaveModels) {
+                // The monitor data, e.g. free space or response time, changes on nearly every cycle, so it is not
+                // part of the fingerprint; its numbers are reported as node metrics
+                if (send(nodeTracker, changesOnly, slaveModel.getNodeName(), slaveModel.getNodeLabel(),
+                        slaveModel.getNodeStatus(), slaveModel.getNumberOfExecutors(), slaveModel.getNumberOfFreeExecutors(),
+                        slaveModel.isIdle(), slaveModel.isOnline(), slaveModel.getReasonOffline(), slaveModel.isRemoved(),
+                        slaveModel.isConnecting())) {
+                    messages.add(slaveModel.toString());
+                }
+            }
+            if (changesOnly) {
+                // Removed nodes are sent below, whether changes are tracked or not
+                nodeTracker.endCycle();
+            }
+            if (CollectionUtils.isNotEmpty(messages)) {
+                logSenderHelper.sendMultiplePeriodicLogs(messages);
+            }
 
-                getLabelAndNodeName(run, buildModel);
-                buildModel.setJobBuildURL(CommonModelFactory.getAbsoluteUrl(run));
-                buildModel.setName(run.getParent().getFullName());
-                buildModel.setNumber(run.getNumber());
-                buildModel.setJobRunDuration(getJobRunDuration(run));
-                buildModel.setJobStartTime(DATETIME_FORMATTER.format(run.getTimestamp()));
-                currentBuildDetails.add(buildModel.toJson());
+            Set<String> slavesUp = slaveModels.stream().map(SlaveModel::getNodeName).collect(Collectors.toSet());
+            List<String> removedSlaves = new ArrayList<>();
+            slaveNames.forEach(slave -> {
+                if (!slavesUp.contains(slave)) {
+                    SlaveModel slaveModel = new SlaveModel();
+                    slaveModel.setLogType(LogTypeEnum.SLAVE_EVENT.getValue());
+                    slaveModel.setEventTime(DATETIME_FORMATTER.format(new Date()));
+                    slaveModel.setEventSource(EventSourceEnum.PERIODIC_UPDATE.getValue());
+                    slaveModel.setNodeStatus("removed");
+                    slaveModel.setNodeName(slave);
+                    removedSlaves.add(slaveModel.toString());
+                }
+            });
+            if (CollectionUtils.isNotEmpty(removedSlaves)) {
+                logSenderHelper.sendMultiplePeriodicLogs(removedSlaves);
             }
+            setSlaves(slavesUp);
         }
-        if (CollectionUtils.isNotEmpty(currentBuildDetails)) {
-            logSenderHelper.sendMultiplePeriodicLogs(currentBuildDetails);
+    }
+
+    public void sendRunningJobDetails() throws InterruptedException {
+        sendRunningJobDetails(recurrencePeriod);
+    }
+
+    /**
+     * @param timeoutMillis how long the computers are scanned for, builds of computers not scanned by then are left
+     *                      out of this cycle
+     */
+    public void sendRunningJobDetails(long timeoutMillis) throws InterruptedException {
+        try (Timer.Context ignored = PluginMetrics.time(SumoPeriodicPublisher.class, "sendRunningJobDetails")) {
+            boolean changesOnly = isPeriodicChangesOnly();
+            startCycle(buildTracker, changesOnly);
+            // Looked up once, instead of once per run
+            String rootUrl = Jenkins.getInstance().getRootUrl();
+            PeriodicBatch batch = new PeriodicBatch();
+            boolean complete = forEachInParallel(buildExecutor, Arrays.asList(Jenkins.getInstance().getComputers()),
+                    computer -> getRunningBuilds(computer, rootUrl),
+                    runningBuilds -> runningBuilds.forEach((id, buildModel) -> {
+                        // The run duration grows on every cycle, so it is not part of the fingerprint
+                        if (send(buildTracker, changesOnly, id, buildModel.getNodeName(), buildModel.getLabel())) {
+                            batch.add(buildModel.toJson());
+                        }
+                    }), timeoutMillis);
+            if (changesOnly && complete) {
+                // Finished builds are reported by the run listener
+                buildTracker.endCycle();
+            } else if (changesOnly) {
+                // Builds of the computers that were not scanned are kept, so they do not look new in the next cycle
+                buildTracker.endPartialCycle();
+            }
+            batch.flush();
+        }
+    }
+
+    /**
+     * @return the builds running on the computer's executors, by their externalizable id
+     */
+    private static Map<String, BuildModel> getRunningBuilds(Computer computer, String rootUrl) {
+        Map<String, BuildModel> runningBuilds = new LinkedHashMap<>();
+        List<Run> runList = new ArrayList<>();
+        for (Executor executor : computer.getExecutors()) {
+            Run run = getRunningJob(executor);
+            if (run != null) {
+                runList.add(run);
+            }
+        }
+        for (Executor executor : computer.getOneOffExecutors()) {
+            Run run = getRunningJob(executor);
+            if (run != null) {
+                runList.add(run);
+            }
+        }
+        if (runList.isEmpty()) {
+            return runningBuilds;
+        }
+        Node node = computer.getNode();
+        String label = node != null ? node.getLabelString() : null;
+        for (Run run : runList) {
+            BuildModel buildModel = new BuildModel();
+            buildModel.setResult("In_Progress");
+
+            getLabelAndNodeName(run, buildModel, computer, label);
+            buildModel.setJobBuildURL(CommonModelFactory.getAbsoluteUrl(rootUrl, run));
+            buildModel.setName(run.getParent().getFullName());
+            buildModel.setNumber(run.getNumber());
+            buildModel.setJobRunDuration(getJobRunDuration(run));
+            buildModel.setJobStartTime(DATETIME_FORMATTER.format(run.getTimestamp()));
+            runningBuilds.put(run.getExternalizableId(), buildModel);
+        }
+        return runningBuilds;
+    }
+
+    private static boolean isPeriodicChangesOnly() {
+        return PluginDescriptorImpl.getInstance().isPeriodicChangesOnly();
+    }
+
+    /**
+     * Periodic messages that are sent each time they fill a batch, so a scan does not hold all of them at once.
+     */
+    private class PeriodicBatch {
+        private List<String> messages = new ArrayList<>();
+        private int length;
+
+        void add(String message) {
+            messages.add(message);
+            length += message.length() + 1;
+            if (length >= LogBatchSizer.getBatchBytes()) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (!messages.isEmpty()) {
+                logSenderHelper.sendMultiplePeriodicLogs(messages);
+                messages = new ArrayList<>();
+                length = 0;
+            }
         }
     }
 
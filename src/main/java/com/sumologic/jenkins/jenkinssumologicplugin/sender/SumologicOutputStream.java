@@ -8,15 +8,24 @@ import org.apache.http.util.ByteArrayBuffer;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.Serializable;
+import java.lang.ref.WeakReference;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-import static com.sumologic.jenkins.jenkinssumologicplugin.constants.SumoConstants.DIVIDER_FOR_MESSAGES;
 
 /**
  * OutputStream decorator that adds functionality of forwarding the stream to Sumo Logic Http Source.
  * Does not modify the original stream content.
  * <p>
+ * Lines are batched and handed to the {@link LogSendQueue} of the JVM the stream lives in. A batch is sent once it
+ * reaches the size given by the {@link LogBatchSizer}, or once it has been waiting for the linger time, so a quiet build still ships its
+ * output. At most one batch is held per build, lines longer than a batch are split.
+ * <p>
  * Created by lukasz on 3/21/17.
  * <p>
  * Modified by Sourabh Jain 5/2019
@@ -37,39 +46,105 @@ public class SumologicOutputStream extends LineTransformationOutputStream {
     private static final Logger LOGGER = Logger.getLogger(SumologicOutputStream.class.getName());
 
     private static final String FLUSH_COMMAND = "%%%FLUSH_COMMAND%%%";
-    private LogSender logSender;
+    private static final byte[] FLUSH_COMMAND_BYTES = FLUSH_COMMAND.getBytes(StandardCharsets.UTF_8);
+    private static final int INITIAL_BUFFER_SIZE = 8192;
+    private static final long LINGER_MILLIS = Long.getLong(SumologicOutputStream.class.getName() + ".lingerMillis", 2000);
+
+    private static final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "Sumo Logic Console Flusher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private LogSendQueue logSendQueue;
     private OutputStream wrappedStream;
 
     private String url;
     private String jobName;
     private String jobNumber;
-    private PluginDescriptorImpl descriptor;
+    private String sourceName;
+    private String sourceCategory;
+    private String host;
 
     private State state;
+    private TimestampingOutputStream.CachedTimestamp timestamp;
+    private long firstLineTime;
+    private ScheduledFuture<?> lingerFlush;
 
     public SumologicOutputStream(OutputStream stream, Run build, PluginDescriptorImpl descriptor, State state) {
+        this(stream, build.getParent().getFullName(), String.valueOf(build.getNumber()), descriptor.getUrl(),
+                descriptor.getSourceCategory(), descriptor.getMetricDataPrefix(), state);
+    }
+
+    /**
+     * Only plain values are taken so that sending never needs the descriptor, which is not available on agents.
+     */
+    public SumologicOutputStream(OutputStream stream, String jobName, String jobNumber, String url, String sourceCategory,
+                                 String host, State state) {
         super();
         wrappedStream = stream;
-        logSender = LogSender.getInstance();
-
-        this.descriptor = descriptor;
-        this.jobName = build.getParent().getFullName();
-        this.jobNumber = String.valueOf(build.getNumber());
+        logSendQueue = LogSendQueue.getInstance();
 
-        this.url = descriptor.getUrl();
+        this.jobName = jobName;
+        this.jobNumber = jobNumber;
+        this.url = url;
+        this.sourceName = jobName + "#" + jobNumber;
+        this.sourceCategory = sourceCategory;
+        this.host = host;
 
         this.state = state != null ? state : new State();
+        // The buffer is cleared rather than reallocated after each flush, size it once up front
+        this.state.buffer.ensureCapacity(INITIAL_BUFFER_SIZE);
+        this.timestamp = new TimestampingOutputStream.CachedTimestamp(" " + jobName + "#" + jobNumber + " ");
+        if (LINGER_MILLIS > 0) {
+            LingerFlush task = new LingerFlush(this);
+            this.lingerFlush = flusher.scheduleWithFixedDelay(task, LINGER_MILLIS, LINGER_MILLIS, TimeUnit.MILLISECONDS);
+            task.future = this.lingerFlush;
+        }
+    }
+
+    /**
+     * Sends a batch that has been waiting longer than the linger time. Only holds the stream weakly, so a stream that
+     * is dropped without being closed does not leak, the task cancels its own schedule once the stream is gone.
+     */
+    private static class LingerFlush implements Runnable {
+        private final WeakReference<SumologicOutputStream> stream;
+        // Set right after scheduling; the first run is a linger time later
+        private volatile ScheduledFuture<?> future;
+
+        LingerFlush(SumologicOutputStream stream) {
+            this.stream = new WeakReference<>(stream);
+        }
+
+        @Override
+        public void run() {
+            SumologicOutputStream outputStream = stream.get();
+            if (outputStream == null) {
+                ScheduledFuture<?> scheduled = future;
+                if (scheduled != null) {
+                    scheduled.cancel(false);
+                }
+                return;
+            }
+            outputStream.flushIfLingering();
+        }
     }
 
     @Override
     public void close() throws IOException {
-        flushBuffer();
+        // Closing first completes a trailing line without a newline, so it makes it into the last batch
         super.close();
+        flushBuffer();
+        if (lingerFlush != null) {
+            lingerFlush.cancel(false);
+        }
+        wrappedStream.close();
     }
 
     @Override
     public void flush() throws IOException {
         super.flush();
+        wrappedStream.flush();
         if (state.currentLines > 0) {
             flushBuffer();
         }
@@ -77,40 +152,86 @@ public class SumologicOutputStream extends LineTransformationOutputStream {
 
     @Override
     protected void eol(byte[] bytes, int i) throws IOException {
-        if (new String(bytes).startsWith(FLUSH_COMMAND)) {
+        if (startsWith(bytes, i, FLUSH_COMMAND_BYTES)) {
             flushBuffer();
             return;
         }
-        //Append JobName and Number to Console Logs
-        if (TimestampingOutputStream.shouldPutTimestamp(bytes, i)) {
-            byte[] timestamp = TimestampingOutputStream.getTimestampAsByteArray(jobName, jobNumber);
-            state.buffer.append(timestamp, 0, timestamp.length);
-        }
+        wrappedStream.write(bytes, 0, i);
 
-        state.buffer.append(bytes, 0, i);
-        state.currentLines++;
+        synchronized (this) {
+            int batchBytes = LogBatchSizer.getBatchBytes();
+            //Append JobName and Number to Console Logs
+            byte[] timestampBytes = TimestampingOutputStream.shouldPutTimestamp(bytes, i) ? timestamp.get() : null;
+            int lineBytes = timestampBytes != null ? timestampBytes.length + i : i;
+            // Start a new batch rather than split a line that fits into one
+            if (state.buffer.length() > 0 && state.buffer.length() + lineBytes > batchBytes) {
+                flushBuffer();
+            }
+            if (timestampBytes != null) {
+                append(timestampBytes, 0, timestampBytes.length, batchBytes);
+            }
+            append(bytes, 0, i, batchBytes);
+            state.currentLines++;
+
+            if (state.buffer.length() >= batchBytes) {
+                flushBuffer();
+            }
+        }
+    }
 
-        wrappedStream.write(bytes, 0, i);
+    /**
+     * Append to the batch without letting it grow past the batch size, a line longer than a batch is sent in pieces
+     * cut on character boundaries.
+     */
+    private void append(byte[] bytes, int offset, int length, int batchBytes) {
+        while (state.buffer.length() + length > batchBytes) {
+            int room = batchBytes - state.buffer.length();
+            if (room > 0) {
+                room = LogBatchSizer.splitPoint(bytes, offset, room);
+                state.buffer.append(bytes, offset, room);
+                offset += room;
+                length -= room;
+            }
+            state.currentLines++;
+            flushBuffer();
+        }
+        if (state.buffer.length() == 0) {
+            firstLineTime = System.currentTimeMillis();
+        }
+        state.buffer.append(bytes, offset, length);
+    }
 
-        if (state.currentLines >= DIVIDER_FOR_MESSAGES) {
+    private synchronized void flushIfLingering() {
+        if (state.buffer.length() > 0 && System.currentTimeMillis() - firstLineTime >= LINGER_MILLIS) {
             flushBuffer();
         }
+    }
 
+    private static boolean startsWith(byte[] bytes, int length, byte[] prefix) {
+        if (length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (bytes[i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
     }
 
     private synchronized void flushBuffer() {
-        if (state.currentLines <= 0) {
+        if (state.currentLines <= 0 || state.buffer.length() == 0) {
             return;
         }
 
         byte[] lines = state.buffer.toByteArray();
+        LogBatchSizer.recordBatch(lines.length);
         state.buffer.clear();
         state.currentLines = 0;
 
         try {
-            // jobNumber is a build number with #, e.g. #42
-            LOGGER.info("Sending " + lines.length + " bytes of build logs to sumo");
-            logSender.sendLogs(url, lines, null, descriptor.getSourceCategory());
+            LOGGER.fine("Sending " + lines.length + " bytes of build logs to sumo");
+            logSendQueue.offer(new LogPayload(url, lines, sourceName, sourceCategory, null, null, host));
         } catch (Exception e) {
             LOGGER.log(Level.WARNING, "An error occurred Sending console logs ", e);
         }
@@ -8,7 +8,7 @@ import org.apache.http.util.ByteArrayBuffer;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.PrintStream;
-import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.logging.Logger;
@@ -26,12 +26,36 @@ public class TimestampingOutputStream extends LineTransformationOutputStream {
   private static final Logger LOGGER = Logger.getLogger(TimestampingOutputStream.class.getName());
 
   private OutputStream wrappedStream;
+  private final CachedTimestamp timestamp = new CachedTimestamp("");
 
   public TimestampingOutputStream(OutputStream stream) {
     super();
     wrappedStream = stream;
   }
 
+  /**
+   * Timestamp prefix that is formatted at most once per millisecond and reused for every line logged in between.
+   * Not thread safe, each stream keeps its own instance.
+   */
+  static final class CachedTimestamp {
+    private final String suffix;
+    private long lastMillis = -1;
+    private byte[] bytes;
+
+    CachedTimestamp(String suffix) {
+      this.suffix = suffix;
+    }
+
+    byte[] get() {
+      long now = System.currentTimeMillis();
+      if (now != lastMillis) {
+        bytes = ("[" + DATETIME_FORMATTER.format(now) + "] " + suffix).getBytes(StandardCharsets.UTF_8);
+        lastMillis = now;
+      }
+      return bytes;
+    }
+  }
+
   /**
    * Heuristic used for determining multiline log messages, e.g. stack traces.
    * For Sumo Logic purposes only lines prefixed with timestamp will be considered a beginning of new log message.
@@ -41,7 +65,14 @@ public class TimestampingOutputStream extends LineTransformationOutputStream {
    * @return false if line starts with whitespace, true otherwise
    */
   public static boolean shouldPutTimestamp(byte[] bytes, int i) {
-    String prefix = new String(bytes, 0, i < 4 ? i : 4, Charset.forName("UTF-8"));
+    if (i <= 0) {
+      return false;
+    }
+    // ASCII fast path, no decoding needed
+    if (bytes[0] >= 0) {
+      return !Character.isWhitespace((char) bytes[0]);
+    }
+    String prefix = new String(bytes, 0, i < 4 ? i : 4, StandardCharsets.UTF_8);
 
     if (prefix.length() <= 0 || Character.isWhitespace(prefix.charAt(0))) {
       return false;
@@ -67,7 +98,7 @@ public class TimestampingOutputStream extends LineTransformationOutputStream {
   @Override
   protected void eol(byte[] bytes, int i) throws IOException {
     if (shouldPutTimestamp(bytes, i)) {
-      byte[] timestampBytes = getTimestampAsByteArray();
+      byte[] timestampBytes = timestamp.get();
       wrappedStream.write(timestampBytes, 0, timestampBytes.length);
     }
 
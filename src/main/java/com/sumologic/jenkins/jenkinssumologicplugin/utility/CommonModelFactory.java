@@ -5,10 +5,11 @@ import com.sumologic.jenkins.jenkinssumologicplugin.constants.AuditEventTypeEnum
 import com.sumologic.jenkins.jenkinssumologicplugin.constants.EventSourceEnum;
 import com.sumologic.jenkins.jenkinssumologicplugin.constants.LogTypeEnum;
 import com.sumologic.jenkins.jenkinssumologicplugin.model.*;
+import com.sumologic.jenkins.jenkinssumologicplugin.sender.ConsoleLogUploader;
 import com.sumologic.jenkins.jenkinssumologicplugin.sender.LogSenderHelper;
 import hudson.Util;
-import hudson.console.ConsoleNote;
 import hudson.model.*;
+import hudson.tasks.junit.CaseResult;
 import hudson.tasks.test.AbstractTestResultAction;
 import hudson.triggers.SCMTrigger;
 import hudson.triggers.TimerTrigger;
@@ -17,22 +18,16 @@ import jenkins.model.InterruptedBuildAction;
 import jenkins.model.Jenkins;
 import org.apache.commons.lang.StringUtils;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.lang.reflect.Method;
 import java.util.*;
-import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import static com.sumologic.jenkins.jenkinssumologicplugin.constants.SumoConstants.*;
-import static com.sumologic.jenkins.jenkinssumologicplugin.sender.LogSenderHelper.sendTestResult;
-import static com.sumologic.jenkins.jenkinssumologicplugin.utility.TestCaseReport.getTestCaseReport;
-import static org.apache.commons.lang.reflect.MethodUtils.getAccessibleMethod;
+import static com.sumologic.jenkins.jenkinssumologicplugin.sender.LogSenderHelper.sendTestResults;
+import static com.sumologic.jenkins.jenkinssumologicplugin.utility.TestCaseReport.caseResults;
+import static com.sumologic.jenkins.jenkinssumologicplugin.utility.TestCaseReport.streamTestCaseReports;
 
 /**
  * Sumo Logic plugin for Jenkins model.
@@ -80,7 +75,7 @@ public class CommonModelFactory {
         TestCaseModel testCaseModel = getTestResultSummary(buildInfo);
         if (testCaseModel != null && (pluginDescriptor.isJobStatusLogEnabled() || isSpecificJobFlagEnabled)
                 && StringUtils.isNotEmpty(buildModel.getJobType())) {
-            sendTestResult(testCaseModel, buildModel);
+            sendTestResults(streamTestCaseReports(buildInfo), buildModel);
             testCaseModel.setTestResults(null);
             buildModel.setTestResult(testCaseModel);
         }
@@ -192,7 +187,13 @@ public class CommonModelFactory {
      * @return URL for the JOB
      */
     public static String getAbsoluteUrl(Run buildInfo) {
-        String rootUrl = Jenkins.getInstance().getRootUrl();
+        return getAbsoluteUrl(Jenkins.getInstance().getRootUrl(), buildInfo);
+    }
+
+    /**
+     * @param rootUrl the Jenkins root URL, looked up once by callers that need many URLs
+     */
+    public static String getAbsoluteUrl(String rootUrl, Run buildInfo) {
         if (rootUrl == null) {
             return buildInfo.getUrl();
         } else {
@@ -240,6 +241,20 @@ public class CommonModelFactory {
         }
     }
 
+    /**
+     * Like {@link #getLabelAndNodeName(Run, BuildModel)} for a run that is executing on the computer, with the label
+     * of the computer's node looked up once for all its runs.
+     */
+    public static void getLabelAndNodeName(Run buildInfo, BuildModel buildModel, Computer computer, String label) {
+        buildModel.setLabel(label);
+        if (buildInfo instanceof AbstractBuild) {
+            String builtOnStr = ((AbstractBuild) buildInfo).getBuiltOnStr();
+            buildModel.setNodeName("".equals(builtOnStr) ? MASTER : builtOnStr);
+        } else if (StringUtils.isEmpty(computer.getName())) {
+            buildModel.setNodeName(MASTER);
+        }
+    }
+
 
     /**
      * @param buildInfo Jenkins Job Build Information
@@ -251,9 +266,8 @@ public class CommonModelFactory {
             TestCaseModel testCaseModel = new TestCaseModel(action.getFailCount(), action.getTotalCount() - action.getFailCount() - action.getSkipCount(),
                     action.getSkipCount(), action.getTotalCount());
 
-            testCaseModel.getTestResults().addAll(getTestCaseReport(buildInfo));
-
-            testCaseModel.setTotalDuration(testCaseModel.getTestResults().stream().mapToDouble(TestCaseResultModel::getDuration).sum());
+            // Summed straight from the JUnit results, the individual cases are only converted when they are sent
+            testCaseModel.setTotalDuration(caseResults(buildInfo).mapToDouble(CaseResult::getDuration).sum());
             return testCaseModel;
         }
         return null;
@@ -377,40 +391,38 @@ public class CommonModelFactory {
         }
         for (Computer computer : computers) {
             if (computer != null) {
-                SlaveModel slaveModel = new SlaveModel();
-                slaveModel.setLogType(LogTypeEnum.SLAVE_EVENT.getValue());
-                slaveModel.setEventTime(DATETIME_FORMATTER.format(new Date()));
-                slaveModel.setEventSource(EventSourceEnum.PERIODIC_UPDATE.getValue());
-                getComputerStatus(computer, slaveModel);
-
-                computer.getMonitorData().forEach((key, value) -> {
-                    String monitorName = key.split("\\.")[2];
-                    String monitorData = null;
-                    if (value != null) {
-                        Method method = getAccessibleMethod(value.getClass(), "toHtml", new Class<?>[0]);
-                        if (method != null) {
-                            try {
-                                monitorData = (String) method.invoke(value, new Object[0]);
-                            } catch (Exception e) {
-                                monitorData = value.toString();
-                            }
-                        } else {
-                            monitorData = value.toString();
-                        }
-                        Pattern compile = Pattern.compile(MONITOR_PATTERN_MATCHER, Pattern.CASE_INSENSITIVE);
-                        Matcher matcher = compile.matcher(monitorData);
-                        if (matcher.find()) {
-                            monitorData = matcher.group(1);
-                        }
-                    }
-                    slaveModel.getMonitorData().put(monitorName, monitorData);
-                });
-                slaveModels.add(slaveModel);
+                slaveModels.add(getNodeMonitorsDetails(computer));
             }
         }
         return slaveModels;
     }
 
+    /**
+     * @return the status and monitor data of one computer, independent of the other computers
+     */
+    public static SlaveModel getNodeMonitorsDetails(Computer computer) {
+        SlaveModel slaveModel = new SlaveModel();
+        slaveModel.setLogType(LogTypeEnum.SLAVE_EVENT.getValue());
+        slaveModel.setEventTime(DATETIME_FORMATTER.format(new Date()));
+        slaveModel.setEventSource(EventSourceEnum.PERIODIC_UPDATE.getValue());
+        getComputerStatus(computer, slaveModel);
+
+        Map<String, Number> monitorValues = new HashMap<>();
+        computer.getMonitorData().forEach((key, value) -> {
+            String monitorName = NodeMonitorExtractor.monitorName(key);
+            String monitorData = null;
+            if (value != null) {
+                monitorData = NodeMonitorExtractor.toText(value);
+                NodeMonitorExtractor.putValues(monitorName, value, monitorValues);
+            }
+            slaveModel.getMonitorData().put(monitorName, monitorData);
+        });
+        if (!monitorValues.isEmpty()) {
+            slaveModel.setMonitorValues(monitorValues);
+        }
+        return slaveModel;
+    }
+
     public static void getComputerStatus(Computer computer, SlaveModel slaveModel) {
         slaveModel.setNodeName(getNodeName(computer));
         Node slaveNode = computer.getNode();
@@ -469,49 +481,11 @@ public class CommonModelFactory {
         }
     }
 
+    /**
+     * Hands the console log of the build to the {@link ConsoleLogUploader}, which uploads it in the background and
+     * resumes from the last acknowledged offset after a failure or restart.
+     */
     public static void sendConsoleLogs(Run run, TaskListener listener) throws IOException {
-        BufferedReader bufferedReader = null;
-        try {
-            bufferedReader = new BufferedReader(run.getLogReader());
-            AtomicReference<StringBuilder> stringBuilder = new AtomicReference<>(new StringBuilder());
-            AtomicInteger count = new AtomicInteger();
-            count.addAndGet(1);
-            AtomicBoolean sendLogs = new AtomicBoolean(true);
-            bufferedReader.lines().forEach(s -> {
-                String s1 = ConsoleNote.removeNotes(s);
-
-                // if pipeline jobs all console logs are send via other node. Only logs which are after and before pipeline
-                // will be sent here
-                if (s1.startsWith(START_OF_PIPELINE)) {
-                    sendLogs.set(false);
-                }
-
-                if (!s1.startsWith(PIPELINE) && sendLogs.get()) {
-                    stringBuilder.get().append("[").append(DATETIME_FORMATTER.format(new Date()))
-                            .append("] ").append(" ")
-                            .append(s1).append("\n");
-                    if (count.get() % DIVIDER_FOR_MESSAGES == 0) {
-                        logSenderHelper.sendConsoleLogs(stringBuilder.toString(), run.getParent().getFullName(), run.getNumber(), null);
-                        stringBuilder.set(new StringBuilder());
-                    }
-                    count.incrementAndGet();
-                }
-
-                if (s1.startsWith(END_OF_PIPELINE)) {
-                    sendLogs.set(true);
-                }
-            });
-            logSenderHelper.sendConsoleLogs(stringBuilder.toString(), run.getParent().getFullName(), run.getNumber(), null);
-        } catch (RuntimeException e) {
-            throw e;
-        } catch (Exception e) {
-            String errorMessage = CONSOLE_ERROR + e.getMessage();
-            LOG.log(Level.WARNING, errorMessage, e);
-            listener.error(errorMessage);
-        } finally {
-            if (bufferedReader != null) {
-                bufferedReader.close();
-            }
-        }
+        ConsoleLogUploader.getInstance().submit(run);
     }
 }
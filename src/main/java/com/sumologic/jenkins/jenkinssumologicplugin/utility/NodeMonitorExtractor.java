@@ -0,0 +1,133 @@
+package com.sumologic.jenkins.jenkinssumologicplugin.utility;
+
+import hudson.node_monitors.DiskSpaceMonitorDescriptor;
+import hudson.node_monitors.ResponseTimeMonitor;
+import hudson.util.ClockDifference;
+import org.jvnet.hudson.MemoryUsage;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static com.sumologic.jenkins.jenkinssumologicplugin.constants.SumoConstants.MONITOR_PATTERN_MATCHER;
+import static org.apache.commons.lang.reflect.MethodUtils.getAccessibleMethod;
+
+/**
+ * Sumo Logic plugin for Jenkins model.
+ * <p>
+ * Reads the data of the node monitors. The values of the monitors that come with Jenkins, disk and temporary space,
+ * response time, clock difference and memory, are read from their types as numbers. Every value is also turned into
+ * the text Jenkins shows for it, through a {@code toHtml} method looked up once per class.
+ */
+public class NodeMonitorExtractor {
+
+    private static final Logger LOG = Logger.getLogger(NodeMonitorExtractor.class.getName());
+
+    public static final String FREE_DISK_SPACE = "freeDiskSpace";
+    public static final String FREE_TEMP_SPACE = "freeTempSpace";
+    public static final String RESPONSE_TIME = "responseTime";
+    public static final String CLOCK_DIFFERENCE = "clockDifference";
+    public static final String AVAILABLE_PHYSICAL_MEMORY = "availablePhysicalMemory";
+    public static final String TOTAL_PHYSICAL_MEMORY = "totalPhysicalMemory";
+    public static final String AVAILABLE_SWAP_SPACE = "availableSwapSpace";
+    public static final String TOTAL_SWAP_SPACE = "totalSwapSpace";
+
+    private static final String TEMPORARY_SPACE_MONITOR = "TemporarySpaceMonitor";
+    private static final Pattern MONITOR_PATTERN = Pattern.compile(MONITOR_PATTERN_MATCHER, Pattern.CASE_INSENSITIVE);
+
+    // The monitors are the same on every computer, so these stay as small as the number of monitors
+    private static final Map<String, String> monitorNames = new ConcurrentHashMap<>();
+    private static final ClassValue<MethodHandle> toHtmlMethods = new ClassValue<MethodHandle>() {
+        @Override
+        protected MethodHandle computeValue(Class<?> type) {
+            Method method = getAccessibleMethod(type, "toHtml", new Class<?>[0]);
+            if (method == null || method.getReturnType() != String.class) {
+                return null;
+            }
+            try {
+                return MethodHandles.publicLookup().unreflect(method);
+            } catch (IllegalAccessException e) {
+                LOG.log(Level.FINE, "Cannot access toHtml of " + type.getName(), e);
+                return null;
+            }
+        }
+    };
+
+    private NodeMonitorExtractor() {
+    }
+
+    /**
+     * @return the monitor name from the key of the monitor data, e.g. {@code DiskSpaceMonitor} for
+     * {@code hudson.node_monitors.DiskSpaceMonitor}
+     */
+    public static String monitorName(String key) {
+        return monitorNames.computeIfAbsent(key, NodeMonitorExtractor::parseMonitorName);
+    }
+
+    private static String parseMonitorName(String key) {
+        // The third part of the class name, like the monitor data has always been sent
+        int first = key.indexOf('.');
+        int second = first < 0 ? -1 : key.indexOf('.', first + 1);
+        if (second < 0) {
+            return key;
+        }
+        int third = key.indexOf('.', second + 1);
+        return third < 0 ? key.substring(second + 1) : key.substring(second + 1, third);
+    }
+
+    /**
+     * @return the text of the value as Jenkins shows it, without the markup of a warning
+     */
+    public static String toText(Object value) {
+        String text = null;
+        MethodHandle toHtml = toHtmlMethods.get(value.getClass());
+        if (toHtml != null) {
+            try {
+                text = (String) toHtml.invoke(value);
+            } catch (Throwable e) {
+                LOG.log(Level.FINE, "toHtml of " + value.getClass().getName() + " failed", e);
+            }
+        }
+        if (text == null) {
+            text = value.toString();
+        }
+        Matcher matcher = MONITOR_PATTERN.matcher(text);
+        if (matcher.find()) {
+            text = matcher.group(1);
+        }
+        return text;
+    }
+
+    /**
+     * Put the numbers of a value of a known type in the map, sizes in bytes and times in milliseconds. Values that
+     * the monitor could not get, which Jenkins reports as negative sizes, are left out.
+     */
+    public static void putValues(String monitorName, Object value, Map<String, Number> values) {
+        if (value instanceof DiskSpaceMonitorDescriptor.DiskSpace) {
+            String name = TEMPORARY_SPACE_MONITOR.equals(monitorName) ? FREE_TEMP_SPACE : FREE_DISK_SPACE;
+            putSize(values, name, ((DiskSpaceMonitorDescriptor.DiskSpace) value).getFreeSize());
+        } else if (value instanceof ResponseTimeMonitor.Data) {
+            values.put(RESPONSE_TIME, ((ResponseTimeMonitor.Data) value).getAverage());
+        } else if (value instanceof ClockDifference) {
+            values.put(CLOCK_DIFFERENCE, ((ClockDifference) value).diff);
+        } else if (value instanceof MemoryUsage) {
+            MemoryUsage memoryUsage = (MemoryUsage) value;
+            putSize(values, AVAILABLE_PHYSICAL_MEMORY, memoryUsage.availablePhysicalMemory);
+            putSize(values, TOTAL_PHYSICAL_MEMORY, memoryUsage.totalPhysicalMemory);
+            putSize(values, AVAILABLE_SWAP_SPACE, memoryUsage.availableSwapSpace);
+            putSize(values, TOTAL_SWAP_SPACE, memoryUsage.totalSwapSpace);
+        }
+    }
+
+    private static void putSize(Map<String, Number> values, String name, long size) {
+        if (size >= 0) {
+            values.put(name, size);
+        }
+    }
+}
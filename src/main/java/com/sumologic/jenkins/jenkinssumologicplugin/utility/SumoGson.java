@@ -0,0 +1,29 @@
+package com.sumologic.jenkins.jenkinssumologicplugin.utility;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.sumologic.jenkins.jenkinssumologicplugin.model.ModelTypeAdapterFactory;
+
+/**
+ * Sumo Logic plugin for Jenkins model.
+ * <p>
+ * The one Gson used to serialize everything the plugin sends. Gson is thread safe and caches the adapter of every
+ * type it has written, so sharing it avoids building the reflective adapters again on every call.
+ */
+public class SumoGson {
+
+    private static final Gson GSON = new GsonBuilder()
+            .registerTypeAdapterFactory(new ModelTypeAdapterFactory())
+            .create();
+
+    private SumoGson() {
+    }
+
+    public static Gson getInstance() {
+        return GSON;
+    }
+
+    public static String toJson(Object value) {
+        return GSON.toJson(value);
+    }
+}
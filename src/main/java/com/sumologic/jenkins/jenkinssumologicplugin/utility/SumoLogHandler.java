@@ -1,6 +1,5 @@
 package com.sumologic.jenkins.jenkinssumologicplugin.utility;
 
-import com.google.gson.Gson;
 import com.sumologic.jenkins.jenkinssumologicplugin.PluginDescriptorImpl;
 import com.sumologic.jenkins.jenkinssumologicplugin.constants.LogTypeEnum;
 import com.sumologic.jenkins.jenkinssumologicplugin.sender.LogSenderHelper;
@@ -17,8 +16,9 @@ import static com.sumologic.jenkins.jenkinssumologicplugin.constants.SumoConstan
 
 public class SumoLogHandler extends Handler {
 
+    private static final String SENDER_PACKAGE = LogSenderHelper.class.getPackage().getName() + ".";
+
     private PluginDescriptorImpl pluginDescriptor;
-    private Gson gson;
     private LogSenderHelper logSenderHelper;
     private LogRecordFormatter logRecordFormatter;
     private Level filterLevel = Level.parse(System.getProperty(SumoLogHandler.class.getName() + ".level", "INFO"));
@@ -29,7 +29,6 @@ public class SumoLogHandler extends Handler {
 
     public SumoLogHandler() {
         pluginDescriptor = PluginDescriptorImpl.getInstance();
-        gson = new Gson();
         logRecordFormatter = new LogRecordFormatter();
         setFilter(new LogRecordFilter());
         setLevel(filterLevel);
@@ -65,14 +64,14 @@ public class SumoLogHandler extends Handler {
         //close necessary things
     }
 
-    private class LogRecordFormatter extends Formatter {
+    static class LogRecordFormatter extends Formatter {
 
         @Override
         public String format(LogRecord record) {
             return formatMessage(record);
         }
 
-        private String formatRecord(LogRecord record) {
+        String formatRecord(LogRecord record) {
             Map<String, Object> logMessage = new HashMap<>();
             logMessage.put("threadId", record.getThreadID());
             logMessage.put("logType", LogTypeEnum.JENKINS_LOG.getValue());
@@ -87,7 +86,7 @@ public class SumoLogHandler extends Handler {
                 pw.close();
                 logMessage.put("logStackTrace", sw.toString());
             }
-            return gson.toJson(logMessage);
+            return SumoGson.toJson(logMessage);
         }
     }
 
@@ -101,7 +100,7 @@ public class SumoLogHandler extends Handler {
             }
 
             for (String name : skipLoggerNames) {
-                if (loggerName.startsWith(name) || logSource.startsWith(name)) {
+                if (isSkipped(loggerName, name) || isSkipped(logSource, name)) {
                     return false;
                 }
             }
@@ -116,5 +115,16 @@ public class SumoLogHandler extends Handler {
             }
             return true;
         }
+
+        /*
+        Names on the list are prefixes, but a sender class only covers itself and its nested classes, so LogSender
+        does not cover LogSenderHelper.
+        */
+        private static boolean isSkipped(String value, String name) {
+            if (!value.startsWith(name)) {
+                return false;
+            }
+            return !name.startsWith(SENDER_PACKAGE) || value.length() == name.length() || value.charAt(name.length()) == '$';
+        }
     }
 }
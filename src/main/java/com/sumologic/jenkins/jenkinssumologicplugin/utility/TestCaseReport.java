@@ -10,59 +10,118 @@ import hudson.tasks.test.AggregatedTestResultAction;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Sumo Logic plugin for Jenkins model.
  * <p>
  * Generate test case report
  * <p>
+ * The report is a lazy stream over the JUnit results of the build, cases are converted one at a time as they are
+ * consumed, so only what the consumer keeps, e.g. one chunk, is held in memory. Passing tests can be left out, or
+ * sampled, through the {@code mode} and {@code sampleRate} system properties.
+ * <p>
  * Created by Sourabh Jain on 5/2019.
  */
 public class TestCaseReport {
 
+    public enum Mode {
+        ALL, FAILURES_ONLY, SAMPLED;
+
+        static Mode fromString(String value) {
+            if ("failures_only".equalsIgnoreCase(value) || "failuresOnly".equalsIgnoreCase(value)) {
+                return FAILURES_ONLY;
+            }
+            return "sampled".equalsIgnoreCase(value) ? SAMPLED : ALL;
+        }
+    }
+
+    private static final Mode MODE = Mode.fromString(System.getProperty(TestCaseReport.class.getName() + ".mode"));
+    private static final double SAMPLE_RATE = Double.parseDouble(System.getProperty(TestCaseReport.class.getName() + ".sampleRate", "0.1"));
+
     public static List<TestCaseResultModel> getTestCaseReport(Run buildInfo) {
-        List<TestCaseResultModel> testResults = new ArrayList<>();
+        return streamTestCaseReport(buildInfo).collect(Collectors.toList());
+    }
+
+    /**
+     * @return the cases to report for the build, converted lazily
+     */
+    public static Stream<TestCaseResultModel> streamTestCaseReport(Run buildInfo) {
+        return caseResults(buildInfo).filter(reportFilter(MODE, SAMPLE_RATE)).map(TestCaseReport::convertTestResult);
+    }
+
+    /**
+     * @return one lazily converted report per test result action or child report of an aggregated action, e.g. per
+     * matrix configuration or module. The reports are independent and can be sent in parallel.
+     */
+    public static List<Stream<TestCaseResultModel>> streamTestCaseReports(Run buildInfo) {
+        Predicate<CaseResult> filter = reportFilter(MODE, SAMPLE_RATE);
+        return caseResultsPerReport(buildInfo).stream()
+                .map(cases -> cases.filter(filter).map(TestCaseReport::convertTestResult))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * @return every case of the build that was not skipped, whether it is reported or not
+     */
+    public static Stream<CaseResult> caseResults(Run buildInfo) {
+        return caseResultsPerReport(buildInfo).stream().flatMap(cases -> cases);
+    }
+
+    private static List<Stream<CaseResult>> caseResultsPerReport(Run buildInfo) {
+        List<Stream<CaseResult>> reports = new ArrayList<>();
         if (buildInfo == null) {
-            return testResults;
+            return reports;
         }
         List<AbstractTestResultAction> testResultActionList = buildInfo.getActions(AbstractTestResultAction.class);
 
         testResultActionList.forEach(abstractTestResultAction -> {
             if (abstractTestResultAction instanceof AggregatedTestResultAction) {
-                testResults.addAll(addTestResults((AggregatedTestResultAction) abstractTestResultAction));
+                addTestResults(reports, (AggregatedTestResultAction) abstractTestResultAction);
             } else if (abstractTestResultAction instanceof TestResultAction) {
-                testResults.addAll(addTestResult(buildInfo, abstractTestResultAction, abstractTestResultAction.getResult()));
+                reports.add(addTestResult(buildInfo, abstractTestResultAction.getResult()));
             }
         });
-
-        return testResults;
+        return reports;
     }
 
-    private static List<TestCaseResultModel> addTestResults(AggregatedTestResultAction testAction) {
-        List<TestCaseResultModel> testResults = new ArrayList<>();
+    private static void addTestResults(List<Stream<CaseResult>> reports, AggregatedTestResultAction testAction) {
         List<AggregatedTestResultAction.ChildReport> childReports = testAction.getChildReports();
         for (AggregatedTestResultAction.ChildReport childReport : childReports) {
-            testResults.addAll(addTestResult(childReport.run, testAction, childReport.result));
+            reports.add(addTestResult(childReport.run, childReport.result));
         }
-        return testResults;
     }
 
-    private static List<TestCaseResultModel> addTestResult(Run run, AbstractTestResultAction testAction, Object result) {
-        List<TestCaseResultModel> caseResults = new ArrayList<>();
-        if (run == null || result == null) {
-            return caseResults;
+    private static Stream<CaseResult> addTestResult(Run run, Object result) {
+        if (run == null || !(result instanceof hudson.tasks.junit.TestResult)) {
+            return Stream.empty();
         }
-        if (result instanceof hudson.tasks.junit.TestResult) {
-            hudson.tasks.junit.TestResult result1 = (hudson.tasks.junit.TestResult) result;
-            for (SuiteResult suite : result1.getSuites()) {
-                for (CaseResult testCase : suite.getCases()) {
-                    if (!testCase.isSkipped()) {
-                        caseResults.add(convertTestResult(testCase));
-                    }
-                }
-            }
+        hudson.tasks.junit.TestResult result1 = (hudson.tasks.junit.TestResult) result;
+        return result1.getSuites().stream()
+                .map(SuiteResult::getCases)
+                .flatMap(List::stream)
+                .filter(testCase -> !testCase.isSkipped());
+    }
+
+    /**
+     * Failures are always reported. Sampling is decided by the name of the test, so the same tests are picked in
+     * every build.
+     */
+    static Predicate<CaseResult> reportFilter(Mode mode, double sampleRate) {
+        switch (mode) {
+            case FAILURES_ONLY:
+                return CaseResult::isFailed;
+            case SAMPLED:
+                return testCase -> testCase.isFailed() || isSampled(testCase.getClassName() + "." + testCase.getName(), sampleRate);
+            default:
+                return testCase -> true;
         }
-        return caseResults;
+    }
+
+    static boolean isSampled(String name, double sampleRate) {
+        return (name.hashCode() & Integer.MAX_VALUE) % 10000 < sampleRate * 10000;
     }
 
     private static TestCaseResultModel convertTestResult(CaseResult testCase) {
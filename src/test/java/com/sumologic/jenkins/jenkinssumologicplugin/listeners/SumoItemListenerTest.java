@@ -17,7 +17,7 @@ import org.mockito.Mockito;
 import java.util.Date;
 
 import static com.sumologic.jenkins.jenkinssumologicplugin.constants.SumoConstants.DATETIME_FORMATTER;
-import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.timeout;
 
 public class SumoItemListenerTest extends BaseTest {
 
@@ -26,7 +26,7 @@ public class SumoItemListenerTest extends BaseTest {
         ArgumentCaptor<HttpRequest> captor = ArgumentCaptor.forClass(HttpRequest.class);
 
         MockFolder test = j.createFolder("test");
-        Mockito.verify(handler, atLeast(1)).handle(
+        Mockito.verify(handler, timeout(5000).atLeast(1)).handle(
                 captor.capture(),
                 Mockito.isA(HttpResponse.class),
                 Mockito.isA(HttpContext.class));
@@ -41,7 +41,7 @@ public class SumoItemListenerTest extends BaseTest {
 
         MockFolder test2 = test.copy(test, "test2");
 
-        Mockito.verify(handler, atLeast(1)).handle(
+        Mockito.verify(handler, timeout(5000).atLeast(1)).handle(
                 captor.capture(),
                 Mockito.isA(HttpResponse.class),
                 Mockito.isA(HttpContext.class));
@@ -56,7 +56,7 @@ public class SumoItemListenerTest extends BaseTest {
 
         test2.delete();
 
-        Mockito.verify(handler, atLeast(1)).handle(
+        Mockito.verify(handler, timeout(5000).atLeast(1)).handle(
                 captor.capture(),
                 Mockito.isA(HttpResponse.class),
                 Mockito.isA(HttpContext.class));
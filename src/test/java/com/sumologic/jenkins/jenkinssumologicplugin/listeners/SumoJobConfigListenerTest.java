@@ -18,7 +18,7 @@ import org.mockito.Mockito;
 import java.util.Date;
 
 import static com.sumologic.jenkins.jenkinssumologicplugin.constants.SumoConstants.DATETIME_FORMATTER;
-import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.timeout;
 
 public class SumoJobConfigListenerTest extends BaseTest {
 
@@ -30,7 +30,7 @@ public class SumoJobConfigListenerTest extends BaseTest {
         HtmlForm form = configPage.getFormByName("config");
         j.submit(form);
 
-        Mockito.verify(handler, atLeast(1)).handle(
+        Mockito.verify(handler, timeout(5000).atLeast(1)).handle(
                 captor.capture(),
                 Mockito.isA(HttpResponse.class),
                 Mockito.isA(HttpContext.class));
@@ -1,13 +1,28 @@
 package com.sumologic.jenkins.jenkinssumologicplugin.listeners;
 
 import com.sumologic.jenkins.jenkinssumologicplugin.BaseTest;
+import com.sumologic.jenkins.jenkinssumologicplugin.PluginDescriptorImpl;
+import hudson.model.Cause;
+import hudson.model.CauseAction;
 import hudson.model.Result;
+import org.apache.commons.io.IOUtils;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.protocol.HttpContext;
 import org.jenkinsci.plugins.workflow.cps.CpsFlowDefinition;
 import org.jenkinsci.plugins.workflow.job.WorkflowJob;
 import org.jenkinsci.plugins.workflow.job.WorkflowRun;
+import org.junit.Assert;
 import org.junit.ClassRule;
 import org.junit.Test;
 import org.jvnet.hudson.test.BuildWatcher;
+import org.mockito.Mockito;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.GZIPInputStream;
 
 public class SumoPipelineStatusListenerTest extends BaseTest {
 
@@ -23,4 +38,33 @@ public class SumoPipelineStatusListenerTest extends BaseTest {
 
         j.assertBuildStatus(Result.FAILURE, workflowRun);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void uploadsConsoleLogOfStepEnabledJobWhenStreaming() throws Exception {
+        PluginDescriptorImpl pluginDescriptor = j.jenkins.getDescriptorByType(PluginDescriptorImpl.class);
+        pluginDescriptor.setJobConsoleLogEnabled(false);
+        pluginDescriptor.setJobConsoleLogStreamingEnabled(true);
+
+        List<String> bodies = new CopyOnWriteArrayList<>();
+        Mockito.doAnswer(invocation -> {
+            HttpEntityEnclosingRequest request = invocation.getArgument(0);
+            try (InputStream in = new GZIPInputStream(request.getEntity().getContent())) {
+                bodies.add(IOUtils.toString(in, StandardCharsets.UTF_8));
+            }
+            return null;
+        }).when(handler).handle(Mockito.isA(HttpEntityEnclosingRequest.class), Mockito.isA(HttpResponse.class),
+                Mockito.isA(HttpContext.class));
+
+        WorkflowJob project = j.createProject(WorkflowJob.class);
+        project.setDefinition(new CpsFlowDefinition("SumoPipelineLogCollection{ stage(\"build\") { echo 'hello' }}", true));
+
+        // The cause line is written before the pipeline body, so only the post build upload sends it
+        project.scheduleBuild2(0, new CauseAction(new Cause.RemoteCause("localhost", "step-enabled-upload"))).get();
+
+        long deadline = System.currentTimeMillis() + 10000;
+        while (bodies.stream().noneMatch(body -> body.contains("step-enabled-upload")) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+        Assert.assertTrue("Console log was not uploaded", bodies.stream().anyMatch(body -> body.contains("step-enabled-upload")));
+    }
+}
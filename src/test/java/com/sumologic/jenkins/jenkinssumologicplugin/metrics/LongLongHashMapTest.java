@@ -0,0 +1,41 @@
+package com.sumologic.jenkins.jenkinssumologicplugin.metrics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LongLongHashMapTest {
+
+    @Test
+    public void putsAndGetsAcrossGrowth() {
+        LongLongHashMap map = new LongLongHashMap(2);
+        for (long key = -500; key <= 500; key++) {
+            map.put(key * 7919, key);
+        }
+        assertEquals(1001, map.size());
+        for (long key = -500; key <= 500; key++) {
+            assertTrue(map.containsKey(key * 7919));
+            assertEquals(key, map.get(key * 7919, Long.MIN_VALUE));
+        }
+        assertFalse(map.containsKey(1));
+        assertEquals(-1, map.get(1, -1));
+    }
+
+    @Test
+    public void overwritesAndClears() {
+        LongLongHashMap map = new LongLongHashMap();
+        map.put(0, 1);
+        map.put(42, 1);
+        map.put(42, 2);
+        assertEquals(2, map.size());
+        assertEquals(1, map.get(0, -1));
+        assertEquals(2, map.get(42, -1));
+
+        map.clear();
+        assertEquals(0, map.size());
+        assertFalse(map.containsKey(0));
+        assertFalse(map.containsKey(42));
+    }
+}
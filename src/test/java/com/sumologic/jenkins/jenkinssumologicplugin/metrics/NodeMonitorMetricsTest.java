@@ -0,0 +1,47 @@
+package com.sumologic.jenkins.jenkinssumologicplugin.metrics;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.sumologic.jenkins.jenkinssumologicplugin.BaseTest;
+import com.sumologic.jenkins.jenkinssumologicplugin.model.SlaveModel;
+import jenkins.metrics.api.Metrics;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class NodeMonitorMetricsTest extends BaseTest {
+
+    @Test
+    public void registersGaugesPerNodeAndRemovesThemWhenGone() {
+        NodeMonitorMetrics nodeMonitorMetrics = new NodeMonitorMetrics();
+        nodeMonitorMetrics.update(Arrays.asList(slaveModel("agent.1", 1024L), slaveModel("agent-2", 2048L)));
+
+        MetricRegistry registry = Metrics.metricRegistry();
+        String agent1 = PluginMetrics.name(NodeMonitorMetrics.class, "agent_1", "freeDiskSpace");
+        String agent2 = PluginMetrics.name(NodeMonitorMetrics.class, "agent-2", "freeDiskSpace");
+        assertEquals(1024L, ((Gauge) registry.getGauges().get(agent1)).getValue());
+        assertEquals(2048L, ((Gauge) registry.getGauges().get(agent2)).getValue());
+
+        nodeMonitorMetrics.update(Collections.singletonList(slaveModel("agent-2", 4096L)));
+        assertFalse(registry.getGauges().containsKey(agent1));
+        assertEquals(4096L, ((Gauge) registry.getGauges().get(agent2)).getValue());
+
+        nodeMonitorMetrics.clear();
+        assertFalse(registry.getGauges().containsKey(agent2));
+    }
+
+    private static SlaveModel slaveModel(String nodeName, long freeDiskSpace) {
+        SlaveModel slaveModel = new SlaveModel();
+        slaveModel.setNodeName(nodeName);
+        Map<String, Number> monitorValues = new HashMap<>();
+        monitorValues.put("freeDiskSpace", freeDiskSpace);
+        slaveModel.setMonitorValues(monitorValues);
+        return slaveModel;
+    }
+}
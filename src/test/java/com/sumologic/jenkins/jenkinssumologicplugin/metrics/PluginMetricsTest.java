@@ -0,0 +1,46 @@
+package com.sumologic.jenkins.jenkinssumologicplugin.metrics;
+
+import com.codahale.metrics.MetricRegistry;
+import com.sumologic.jenkins.jenkinssumologicplugin.BaseTest;
+import com.sumologic.jenkins.jenkinssumologicplugin.listeners.SumoPipelineStatusListener;
+import com.sumologic.jenkins.jenkinssumologicplugin.sender.LogSender;
+import com.sumologic.jenkins.jenkinssumologicplugin.sender.LogSendQueue;
+import hudson.model.FreeStyleProject;
+import jenkins.metrics.api.Metrics;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.protocol.HttpContext;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.timeout;
+
+public class PluginMetricsTest extends BaseTest {
+
+    @Test
+    public void registersGaugesInJenkinsRegistry() {
+        MetricRegistry registry = Metrics.metricRegistry();
+        assertTrue(registry.getGauges().containsKey(PluginMetrics.name(LogSendQueue.class, "size")));
+    }
+
+    @Test
+    public void recordsListenerCallbacksAndSends() throws Exception {
+        FreeStyleProject project = j.createFreeStyleProject("InstrumentedJob");
+        j.buildAndAssertSuccess(project);
+
+        Mockito.verify(handler, timeout(5000).atLeast(1)).handle(
+                Mockito.isA(HttpRequest.class),
+                Mockito.isA(HttpResponse.class),
+                Mockito.isA(HttpContext.class));
+
+        MetricRegistry registry = Metrics.metricRegistry();
+        assertTrue(registry.timer(PluginMetrics.name(SumoPipelineStatusListener.class, "onCompleted")).getCount() >= 1);
+        // The send timer is updated after the response is read, give the queue worker a moment
+        long deadline = System.currentTimeMillis() + 5000;
+        while (registry.timer(PluginMetrics.name(LogSender.class, "send")).getCount() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertTrue(registry.timer(PluginMetrics.name(LogSender.class, "send")).getCount() >= 1);
+    }
+}
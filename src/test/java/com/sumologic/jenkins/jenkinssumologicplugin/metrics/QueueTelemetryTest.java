@@ -0,0 +1,75 @@
+package com.sumologic.jenkins.jenkinssumologicplugin.metrics;
+
+import com.sumologic.jenkins.jenkinssumologicplugin.constants.LogTypeEnum;
+import com.sumologic.jenkins.jenkinssumologicplugin.model.QueueStatsModel;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class QueueTelemetryTest {
+
+    @Test
+    public void recordsTheTimeSpentInEachState() {
+        QueueTelemetry telemetry = new QueueTelemetry();
+        telemetry.entered(1, QueueTelemetry.State.WAITING, 1000);
+        telemetry.entered(1, QueueTelemetry.State.BLOCKED, 6000);
+        telemetry.entered(1, QueueTelemetry.State.BUILDABLE, 8000);
+        telemetry.entered(1, QueueTelemetry.State.BLOCKED, 9000);
+        telemetry.entered(1, QueueTelemetry.State.BUILDABLE, 10000);
+        telemetry.left(1, "linux", 1000, false, 13000);
+        assertEquals(0, telemetry.getTrackedItemCount());
+
+        List<QueueStatsModel> stats = telemetry.drain("now");
+        assertEquals(1, stats.size());
+        QueueStatsModel linux = stats.get(0);
+        assertEquals(LogTypeEnum.QUEUE_STATS.getValue(), linux.getLogType());
+        assertEquals("now", linux.getEventTime());
+        assertEquals("linux", linux.getLabel());
+        assertEquals(1, linux.getItemsLeft());
+        assertEquals(0, linux.getItemsCancelled());
+        assertEquals(12000, linux.getTotal().getMax());
+        assertEquals(5000, linux.getWaiting().getMax());
+        assertEquals(3000, linux.getBlocked().getMax());
+        assertEquals(4000, linux.getBuildable().getMax());
+    }
+
+    @Test
+    public void aggregatesPerLabelAndStartsOverAfterDrain() {
+        QueueTelemetry telemetry = new QueueTelemetry();
+        for (long id = 1; id <= 3; id++) {
+            telemetry.entered(id, QueueTelemetry.State.BUILDABLE, 0);
+            telemetry.left(id, id == 3 ? null : "linux", 0, id == 2, id * 1000);
+        }
+        // Entered before the events were enabled
+        telemetry.left(4, "linux", 0, false, 500);
+
+        List<QueueStatsModel> stats = telemetry.drain("now");
+        assertEquals(2, stats.size());
+        for (QueueStatsModel model : stats) {
+            if ("linux".equals(model.getLabel())) {
+                assertEquals(3, model.getItemsLeft());
+                assertEquals(1, model.getItemsCancelled());
+                assertEquals(500, model.getTotal().getMin());
+                assertEquals(2000, model.getTotal().getMax());
+                assertEquals(1000, model.getBuildable().getMin());
+            } else {
+                assertEquals(QueueTelemetry.NO_LABEL, model.getLabel());
+                assertEquals(1, model.getItemsLeft());
+                assertEquals(0, model.getBlocked().getMax());
+            }
+        }
+        assertTrue(telemetry.drain("later").isEmpty());
+    }
+
+    @Test
+    public void forgetsItemsThatLeftWhileDisabled() {
+        QueueTelemetry telemetry = new QueueTelemetry();
+        telemetry.entered(1, QueueTelemetry.State.WAITING, 0);
+        telemetry.forget(1);
+        assertEquals(0, telemetry.getTrackedItemCount());
+        assertTrue(telemetry.drain("now").isEmpty());
+    }
+}
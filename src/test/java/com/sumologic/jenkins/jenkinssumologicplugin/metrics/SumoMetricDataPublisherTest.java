@@ -0,0 +1,50 @@
+package com.sumologic.jenkins.jenkinssumologicplugin.metrics;
+
+import com.sumologic.jenkins.jenkinssumologicplugin.constants.MetricStatisticEnum;
+import org.junit.Test;
+
+import java.util.EnumSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SumoMetricDataPublisherTest {
+
+    @Test
+    public void parsesStatistics() {
+        assertNull(SumoMetricDataPublisher.parseStatistics(null));
+        assertNull(SumoMetricDataPublisher.parseStatistics(" "));
+        assertNull(SumoMetricDataPublisher.parseStatistics("p42"));
+        assertEquals(EnumSet.of(MetricStatisticEnum.COUNT, MetricStatisticEnum.P99, MetricStatisticEnum.M1_RATE),
+                SumoMetricDataPublisher.parseStatistics("P99, count,,m1_rate, p42"));
+    }
+
+    @Test
+    public void filtersDefaultAndConfiguredMetrics() {
+        SumoMetricFilter defaults = SumoMetricDataPublisher.createMetricFilter(null);
+        assertTrue(defaults.matches("jenkins.executor.count.value", null));
+        assertTrue(defaults.matches("vm.gc.G1-Young-Generation.count", null));
+        assertTrue(defaults.matches(PluginMetrics.PREFIX + ".LogSender.send", null));
+        assertFalse(defaults.matches("jenkins.node.builds", null));
+        assertTrue(defaults.matches(PluginMetrics.PREFIX + ".NodeMonitorMetrics.agent-1.freeDiskSpace", null));
+        assertTrue(defaults.matches(PluginMetrics.PREFIX + ".NodeMonitorMetrics.agent-1.responseTime", null));
+        assertFalse(defaults.matches(PluginMetrics.PREFIX + ".NodeMonitorMetrics.agent-1.freeTempSpace", null));
+
+        SumoMetricFilter configured = SumoMetricDataPublisher.createMetricFilter("jenkins.node.*\n!vm.gc.");
+        assertTrue(configured.matches("jenkins.executor.count.value", null));
+        assertTrue(configured.matches("jenkins.node.builds", null));
+        assertFalse(configured.matches("vm.gc.G1-Young-Generation.count", null));
+
+        SumoMetricFilter nodes = SumoMetricDataPublisher.createMetricFilter(PluginMetrics.PREFIX + ".NodeMonitorMetrics.");
+        assertTrue(nodes.matches(PluginMetrics.PREFIX + ".NodeMonitorMetrics.agent-1.freeTempSpace", null));
+    }
+
+    @Test
+    public void fallsBackToDefaultMetricsOnInvalidRules() {
+        SumoMetricFilter filter = SumoMetricDataPublisher.createMetricFilter("jenkins.node.*\n/(/");
+        assertTrue(filter.matches("jenkins.executor.count.value", null));
+        assertFalse(filter.matches("jenkins.node.builds", null));
+    }
+}
@@ -0,0 +1,64 @@
+package com.sumologic.jenkins.jenkinssumologicplugin.metrics;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.regex.PatternSyntaxException;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SumoMetricFilterTest {
+
+    @Test
+    public void matchesTextGlobsAndRegularExpressions() {
+        SumoMetricFilter filter = SumoMetricFilter.compile("jenkins.queue.\n"
+                + "jenkins.*.duration\n"
+                + "/^vm\\.gc\\..*\\.count$/\n"
+                + "# a comment\n"
+                + "\n");
+
+        assertTrue(filter.matches("jenkins.queue.size.value", null));
+        assertTrue(filter.matches("jenkins.job.total.duration", null));
+        assertFalse(filter.matches("jenkins.job.total.duration.max", null));
+        assertTrue(filter.matches("vm.gc.PS-MarkSweep.count", null));
+        assertFalse(filter.matches("vm.gc.PS-MarkSweep.time", null));
+        assertFalse(filter.matches("jenkins+queue+size", null));
+        assertFalse(filter.matches("# a comment", null));
+    }
+
+    @Test
+    public void excludesWinOverIncludes() {
+        SumoMetricFilter filter = SumoMetricFilter.compile("jenkins.\n!jenkins.queue.stuck\n! vm.?pu.load");
+
+        assertTrue(filter.matches("jenkins.queue.size.value", null));
+        assertFalse(filter.matches("jenkins.queue.stuck.value", null));
+        assertFalse(filter.matches("vm.cpu.load", null));
+    }
+
+    @Test
+    public void matchesNothingWithoutIncludes() {
+        assertFalse(SumoMetricFilter.compile((String) null).matches("jenkins.queue.size.value", null));
+        assertFalse(SumoMetricFilter.compile("!vm.").matches("jenkins.queue.size.value", null));
+    }
+
+    @Test
+    public void keepsTheMostRecentlyUsedNames() {
+        SumoMetricFilter filter = SumoMetricFilter.compile(Collections.singletonList("jenkins."), 2);
+
+        assertTrue(filter.matches("jenkins.a", null));
+        assertFalse(filter.matches("vm.b", null));
+        assertTrue(filter.matches("jenkins.a", null));
+        assertTrue(filter.matches("jenkins.c", null));
+
+        assertTrue(filter.isCached("jenkins.a"));
+        assertFalse(filter.isCached("vm.b"));
+        assertTrue(filter.isCached("jenkins.c"));
+        assertFalse(filter.matches("vm.b", null));
+    }
+
+    @Test(expected = PatternSyntaxException.class)
+    public void rejectsInvalidRegularExpressions() {
+        SumoMetricFilter.compile("/jenkins.(queue/");
+    }
+}
@@ -0,0 +1,168 @@
+package com.sumologic.jenkins.jenkinssumologicplugin.metrics;
+
+import com.codahale.metrics.Clock;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricFilter;
+import com.codahale.metrics.MetricRegistry;
+import com.sumologic.jenkins.jenkinssumologicplugin.constants.MetricDataFormatEnum;
+import com.sumologic.jenkins.jenkinssumologicplugin.constants.MetricStatisticEnum;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SumoMetricReporterTest {
+
+    private static final Clock CLOCK = new Clock() {
+        @Override
+        public long getTick() {
+            return 0;
+        }
+
+        @Override
+        public long getTime() {
+            return 1557300000000L;
+        }
+    };
+
+    private MetricRegistry registry;
+
+    @Before
+    public void setUp() {
+        registry = new MetricRegistry();
+        registry.register("jenkins.executor.count.value", (Gauge<Integer>) () -> 4);
+        registry.register("vm.cpu.load", (Gauge<Double>) () -> 0.256);
+        registry.register("jenkins.not.a.number", (Gauge<String>) () -> "n/a");
+        registry.counter("jenkins.job.started").inc(3);
+        registry.timer("jenkins.job.total.duration").update(1500, TimeUnit.MILLISECONDS);
+    }
+
+    @Test
+    public void buildsGraphiteLines() throws Exception {
+        List<String> messages = buildMessages(MetricDataFormatEnum.GRAPHITE);
+
+        assertTrue(messages.contains("master.jenkins.executor.count.value 4 1557300000"));
+        assertTrue(messages.contains("master.vm.cpu.load 0.26 1557300000"));
+        assertTrue(messages.contains("master.jenkins.job.started.count 3 1557300000"));
+        assertTrue(messages.contains("master.jenkins.job.total.duration.max 1500.00 1557300000"));
+        assertEquals(6, messages.size());
+    }
+
+    @Test
+    public void buildsCarbon2Lines() throws Exception {
+        List<String> messages = buildMessages(MetricDataFormatEnum.CARBON2);
+
+        assertTrue(messages.contains("metric=jenkins.executor.count.value host=master  type=gauge node=build_host_1 4 1557300000"));
+        assertTrue(messages.contains("metric=jenkins.job.started statistic=count host=master  type=counter node=build_host_1 3 1557300000"));
+        assertTrue(messages.contains("metric=jenkins.job.total.duration statistic=min host=master  type=timer node=build_host_1 1500.00 1557300000"));
+        assertEquals(6, messages.size());
+    }
+
+    @Test
+    public void reportsDefaultStatistics() throws Exception {
+        registry.histogram("jenkins.queue.wait").update(10);
+        registry.meter("jenkins.job.rate").mark();
+
+        List<String> messages = buildMessages(MetricDataFormatEnum.GRAPHITE);
+
+        assertEquals(Arrays.asList("count", "max", "mean", "min"), statistics(messages, "master.jenkins.queue.wait."));
+        assertEquals(Arrays.asList("count", "m1_rate", "m5_rate", "m15_rate", "mean_rate"),
+                statistics(messages, "master.jenkins.job.rate."));
+        assertEquals(Arrays.asList("max", "mean", "min"), statistics(messages, "master.jenkins.job.total.duration."));
+    }
+
+    @Test
+    public void reportsConfiguredStatisticsEachMetricHas() throws Exception {
+        registry.histogram("jenkins.queue.wait").update(10);
+        registry.meter("jenkins.job.rate").mark();
+
+        List<String> messages = SumoMetricReporter.forRegistry(registry)
+                .withClock(CLOCK)
+                .prefixedWith("master")
+                .withStatistics(EnumSet.of(MetricStatisticEnum.P99, MetricStatisticEnum.COUNT,
+                        MetricStatisticEnum.STDDEV, MetricStatisticEnum.M1_RATE))
+                .filter(MetricFilter.ALL)
+                .build(null)
+                .buildMessages(registry.getGauges(), registry.getCounters(), registry.getHistograms(),
+                        registry.getMeters(), registry.getTimers());
+
+        assertEquals(Arrays.asList("count", "stddev", "p99"), statistics(messages, "master.jenkins.queue.wait."));
+        assertEquals(Arrays.asList("count", "m1_rate"), statistics(messages, "master.jenkins.job.rate."));
+        assertEquals(Arrays.asList("count", "stddev", "p99", "m1_rate"),
+                statistics(messages, "master.jenkins.job.total.duration."));
+        assertTrue(messages.contains("master.jenkins.job.total.duration.p99 1500.00 1557300000"));
+    }
+
+    @Test
+    public void reportsOnlyChangesWithCounterDeltasAndHeartbeat() throws Exception {
+        SumoMetricReporter reporter = SumoMetricReporter.forRegistry(registry)
+                .withClock(CLOCK)
+                .prefixedWith("master")
+                .reportChangesOnly(true)
+                .withHeartbeat(3)
+                .filter(MetricFilter.ALL)
+                .build(null);
+
+        List<String> first = buildMessages(reporter);
+        assertEquals(6, first.size());
+        assertTrue(first.contains("master.jenkins.job.started.count 3 1557300000"));
+
+        assertTrue(buildMessages(reporter).isEmpty());
+
+        registry.counter("jenkins.job.started").inc(2);
+        registry.register("jenkins.node.count.value", (Gauge<Integer>) () -> 2);
+        List<String> third = buildMessages(reporter);
+        assertEquals(Arrays.asList("master.jenkins.node.count.value 2 1557300000",
+                "master.jenkins.job.started.count 2 1557300000"), third);
+
+        List<String> heartbeat = buildMessages(reporter);
+        assertEquals(7, heartbeat.size());
+        assertTrue(heartbeat.contains("master.jenkins.job.started.count 0 1557300000"));
+    }
+
+    @Test
+    public void formatsValuesWithTwoDecimals() {
+        assertEquals("0.00", format(0));
+        assertEquals("1.50", format(1.5));
+        assertEquals("-12.07", format(-12.07));
+        assertEquals("123456.79", format(123456.789));
+        assertEquals("NaN", format(Double.NaN));
+    }
+
+    private List<String> buildMessages(MetricDataFormatEnum format) throws Exception {
+        SumoMetricReporter reporter = SumoMetricReporter.forRegistry(registry)
+                .withClock(CLOCK)
+                .prefixedWith("master")
+                .formattedAs(format)
+                .onNode("build host=1")
+                .filter(MetricFilter.ALL)
+                .build(null);
+        return reporter.buildMessages(registry.getGauges(), registry.getCounters(), registry.getHistograms(),
+                registry.getMeters(), registry.getTimers());
+    }
+
+    private List<String> buildMessages(SumoMetricReporter reporter) throws Exception {
+        return reporter.buildMessages(registry.getGauges(), registry.getCounters(), registry.getHistograms(),
+                registry.getMeters(), registry.getTimers());
+    }
+
+    private static List<String> statistics(List<String> messages, String name) {
+        return messages.stream()
+                .filter(message -> message.startsWith(name))
+                .map(message -> message.substring(name.length(), message.indexOf(' ')))
+                .collect(Collectors.toList());
+    }
+
+    private static String format(double value) {
+        StringBuilder line = new StringBuilder();
+        SumoMetricReporter.appendValue(line, value);
+        return line.toString();
+    }
+}
@@ -0,0 +1,113 @@
+package com.sumologic.jenkins.jenkinssumologicplugin.model;
+
+import com.google.gson.Gson;
+import com.sumologic.jenkins.jenkinssumologicplugin.utility.SumoGson;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+public class ModelTypeAdapterFactoryTest {
+
+    private final Gson reflective = new Gson();
+
+    @Test
+    public void writesBuildModelLikeReflection() {
+        assertSameJson(new BuildModel());
+
+        BuildModel buildModel = new BuildModel();
+        buildModel.setName("Job \"quoted\"");
+        buildModel.setNumber(42);
+        buildModel.setStart_time(1557300000000L);
+        buildModel.setDuration(1234);
+        buildModel.setResult("SUCCESS");
+        buildModel.setJobRunDuration(0.1f);
+        buildModel.setUser("admin");
+        TestCaseModel testCaseModel = new TestCaseModel(1, 2, 0, 3);
+        testCaseModel.getTestResults().add(testCaseResult());
+        buildModel.setTestResult(testCaseModel);
+        Map<String, Object> metaData = new HashMap<>();
+        metaData.put("branch", "master");
+        metaData.put("attempt", 2);
+        buildModel.setJobMetaData(metaData);
+        assertSameJson(buildModel);
+    }
+
+    @Test
+    public void writesSlaveModelLikeReflection() {
+        assertSameJson(new SlaveModel());
+
+        SlaveModel slaveModel = new SlaveModel(4, 1);
+        slaveModel.setNodeName("agent-1");
+        slaveModel.setOnline(true);
+        slaveModel.setIdle(false);
+        slaveModel.setLogType("Slave_Details");
+        slaveModel.setEventTime("2019-05-08 10:00:00");
+        Map<String, Object> monitorData = new HashMap<>();
+        monitorData.put("Free Disk Space", "12.5 GB");
+        slaveModel.setMonitorData(monitorData);
+        Map<String, Number> monitorValues = new HashMap<>();
+        monitorValues.put("freeDiskSpace", 13421772800L);
+        monitorValues.put("responseTime", 42L);
+        slaveModel.setMonitorValues(monitorValues);
+        assertSameJson(slaveModel);
+    }
+
+    @Test
+    public void writesQueueModelLikeReflection() {
+        QueueModel queueModel = new QueueModel();
+        queueModel.setQueueId(17);
+        queueModel.setQueueTime(2.75f);
+        queueModel.setBlocked(true);
+        queueModel.setReasonForBlock("Waiting for next available executor");
+        queueModel.setJobName("MockJob");
+        assertSameJson(queueModel);
+    }
+
+    @Test
+    public void writesPipelineStageModelLikeReflection() {
+        assertSameJson(new PipelineStageModel());
+
+        PipelineStageModel stage = new PipelineStageModel();
+        stage.setId(3);
+        stage.setStageId("3");
+        stage.setName("Build");
+        stage.setStatus("SUCCESS");
+        stage.setDuration(10.5f);
+        stage.setSteps(Arrays.asList("sh", "echo"));
+        stage.setParallelStage(new LinkedHashSet<>(Arrays.asList("a", "b")));
+        assertSameJson(stage);
+    }
+
+    @Test
+    public void writesTestCaseResultModelLikeReflection() {
+        assertSameJson(new TestCaseResultModel());
+        assertSameJson(testCaseResult());
+    }
+
+    @Test
+    public void leavesSubClassesToReflection() {
+        MavenModuleSetBuildModel buildModel = new MavenModuleSetBuildModel();
+        buildModel.setName("maven");
+        buildModel.addModule(new MavenModuleBuildModel());
+        assertSameJson(buildModel);
+    }
+
+    private void assertSameJson(Object model) {
+        assertEquals(reflective.toJson(model), SumoGson.toJson(model));
+    }
+
+    private static TestCaseResultModel testCaseResult() {
+        TestCaseResultModel result = new TestCaseResultModel();
+        result.setClassName("com.example.FooTest");
+        result.setTestName("fails <sometimes>");
+        result.setStatus("Failed");
+        result.setErrorDetails("expected:<1> but was:<2>");
+        result.setDuration(0.003f);
+        return result;
+    }
+}
@@ -0,0 +1,92 @@
+package com.sumologic.jenkins.jenkinssumologicplugin.sender;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ConsoleLogUploaderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final List<String> lines = new ArrayList<>();
+    private final List<Long> offsets = new ArrayList<>();
+
+    @Test
+    public void splitsChunksAtLineBoundaries() throws Exception {
+        String log = "first line\nsecond line\r\nthird\npartial";
+
+        assertTrue(read(log, 100, 16, false));
+
+        assertEquals(3, lines.size());
+        assertEquals("second line\r", lines.get(1));
+        // Offsets are absolute positions in the log, just past each line break
+        assertEquals(Long.valueOf(111), offsets.get(0));
+        assertEquals(Long.valueOf(100 + log.lastIndexOf('\n') + 1), offsets.get(2));
+    }
+
+    @Test
+    public void returnsTrailingLineOnceComplete() throws Exception {
+        assertTrue(read("first\nlast without newline", 0, 64, true));
+
+        assertEquals(2, lines.size());
+        assertEquals("last without newline", lines.get(1));
+    }
+
+    @Test
+    public void handsLongLinesOverInPieces() throws Exception {
+        assertTrue(read("0123456789abcdef\nx\n", 0, 8, true));
+
+        assertEquals("01234567", lines.get(0));
+        assertEquals("89abcdef", lines.get(1));
+        assertEquals("", lines.get(2));
+        assertEquals("x", lines.get(3));
+    }
+
+    @Test
+    public void stopsWhenConsumerFails() throws Exception {
+        assertFalse(ConsoleLogUploader.readLines(channel("a\nb\nc\n"), 0, 16, true,
+                (bytes, start, length, endOffset) -> endOffset < 4));
+    }
+
+    @Test
+    public void keepsFailedAttemptsAcrossRestarts() throws Exception {
+        ConsoleLogUploader.Upload upload = new ConsoleLogUploader.Upload("folder/job", 42);
+        upload.offset = 1234;
+        upload.failures = 3;
+        File file = folder.newFile("upload.properties");
+        try (OutputStream out = new FileOutputStream(file)) {
+            upload.toProperties().store(out, null);
+        }
+
+        ConsoleLogUploader.Upload loaded = ConsoleLogUploader.Upload.load(file);
+        assertEquals("folder/job#42", loaded.key());
+        assertEquals(1234, loaded.offset);
+        assertEquals(3, loaded.failures);
+    }
+
+    private boolean read(String log, long offset, int chunkBytes, boolean complete) throws Exception {
+        return ConsoleLogUploader.readLines(channel(log), offset, chunkBytes, complete, (bytes, start, length, endOffset) -> {
+            lines.add(new String(bytes, start, length, StandardCharsets.UTF_8));
+            offsets.add(endOffset);
+            return true;
+        });
+    }
+
+    private static java.nio.channels.ReadableByteChannel channel(String log) {
+        return Channels.newChannel(new ByteArrayInputStream(log.getBytes(StandardCharsets.UTF_8)));
+    }
+}
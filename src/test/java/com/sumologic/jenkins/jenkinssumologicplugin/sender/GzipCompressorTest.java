@@ -0,0 +1,50 @@
+package com.sumologic.jenkins.jenkinssumologicplugin.sender;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class GzipCompressorTest {
+
+    @Test
+    public void producesReadableGzip() throws Exception {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            builder.append("[2019-05-01 10:00:00,000 +0000] line number ").append(i).append('\n');
+        }
+        byte[] data = builder.toString().getBytes();
+
+        // Run twice so the second pass uses a pooled deflater
+        for (int i = 0; i < 2; i++) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            GzipCompressor.compress(data, 0, data.length, out);
+            try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+                assertArrayEquals(data, IOUtils.toByteArray(in));
+            }
+        }
+    }
+
+    @Test
+    public void compressesSlice() throws Exception {
+        byte[] data = "headerpayloadtrailer".getBytes();
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(LogSender.compress("payload".getBytes())))) {
+            assertArrayEquals("payload".getBytes(), IOUtils.toByteArray(in));
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        GzipEntity entity = new GzipEntity(data, 6, 7);
+        entity.writeTo(out);
+        assertEquals(out.size(), entity.getWrittenBytes());
+        assertEquals(out.size(), LogSender.wireBytes(entity));
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            assertArrayEquals("payload".getBytes(), IOUtils.toByteArray(in));
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.sumologic.jenkins.jenkinssumologicplugin.sender;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.sumologic.jenkins.jenkinssumologicplugin.model.TestCaseResultModel;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class JsonChunkWriterTest {
+
+    private final Gson gson = new Gson();
+
+    @Test
+    public void writesEveryRecordOnceWithinBudget() {
+        Map<String, Object> header = new LinkedHashMap<>();
+        header.put("logType", "Test_Result");
+        header.put("number", 7);
+        List<JsonChunkWriter.Chunk> chunks = new ArrayList<>();
+        JsonChunkWriter<TestCaseResultModel> writer = new JsonChunkWriter<>(gson, header, "testResult", 2000, chunks::add);
+
+        for (int i = 0; i < 100; i++) {
+            TestCaseResultModel testCaseResultModel = new TestCaseResultModel();
+            testCaseResultModel.setTestName("test" + i);
+            testCaseResultModel.setStatus("Passed");
+            writer.write(testCaseResultModel);
+        }
+        writer.flush();
+
+        assertTrue(chunks.size() > 1);
+        int records = 0;
+        for (JsonChunkWriter.Chunk chunk : chunks) {
+            assertTrue(chunk.getData().length <= 2000);
+            JsonObject json = gson.fromJson(new String(chunk.getData(), StandardCharsets.UTF_8), JsonObject.class);
+            assertEquals(7, json.get("number").getAsInt());
+            JsonArray testResult = json.getAsJsonArray("testResult");
+            assertEquals(chunk.getCount(), testResult.size());
+            for (int i = 0; i < testResult.size(); i++) {
+                assertEquals("test" + records++, testResult.get(i).getAsJsonObject().get("testName").getAsString());
+            }
+        }
+        assertEquals(100, records);
+    }
+
+    @Test
+    public void sendsOversizedRecordOnItsOwn() {
+        List<JsonChunkWriter.Chunk> chunks = new ArrayList<>();
+        JsonChunkWriter<String> writer = new JsonChunkWriter<>(gson, new LinkedHashMap<>(), "values", 20, chunks::add);
+
+        writer.write("a");
+        writer.write("a value that is longer than the budget");
+        writer.write("b");
+        writer.flush();
+
+        assertEquals(3, chunks.size());
+        assertEquals("{\"values\":[\"a\"]}", new String(chunks.get(0).getData(), StandardCharsets.UTF_8));
+    }
+}
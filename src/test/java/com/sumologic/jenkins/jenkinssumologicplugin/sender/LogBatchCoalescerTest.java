@@ -0,0 +1,54 @@
+package com.sumologic.jenkins.jenkinssumologicplugin.sender;
+
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+
+public class LogBatchCoalescerTest {
+
+    @Test
+    public void mergesEventsForSameSource() {
+        LogSendQueue queue = Mockito.mock(LogSendQueue.class);
+        LogBatchCoalescer coalescer = new LogBatchCoalescer(queue, 1000, 0);
+
+        coalescer.append(payload("category", "first"));
+        coalescer.append(payload("category", "second"));
+        coalescer.append(payload("other", "third"));
+        Mockito.verify(queue, never()).offer(Mockito.any());
+
+        coalescer.flushAll();
+
+        ArgumentCaptor<LogPayload> captor = ArgumentCaptor.forClass(LogPayload.class);
+        Mockito.verify(queue, times(2)).offer(captor.capture());
+        List<LogPayload> payloads = captor.getAllValues();
+        LogPayload merged = "category".equals(payloads.get(0).getSumoCategory()) ? payloads.get(0) : payloads.get(1);
+        assertEquals("first\nsecond\n", new String(merged.getData()));
+        assertEquals(3, coalescer.getCoalescedCount());
+    }
+
+    @Test
+    public void flushesWhenThresholdReached() {
+        LogSendQueue queue = Mockito.mock(LogSendQueue.class);
+        LogBatchCoalescer coalescer = new LogBatchCoalescer(queue, 10, 0);
+
+        coalescer.append(payload("category", "12345"));
+        coalescer.append(payload("category", "67890"));
+
+        ArgumentCaptor<LogPayload> captor = ArgumentCaptor.forClass(LogPayload.class);
+        Mockito.verify(queue).offer(captor.capture());
+        assertEquals("12345\n", new String(captor.getValue().getData()));
+
+        coalescer.append(payload("category", "a much longer event"));
+        Mockito.verify(queue, times(2)).offer(Mockito.any());
+    }
+
+    private static LogPayload payload(String category, String data) {
+        return new LogPayload("http://localhost/test", data.getBytes(), null, category, null, null, null);
+    }
+}
@@ -0,0 +1,63 @@
+package com.sumologic.jenkins.jenkinssumologicplugin.sender;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LogBatchSizerTest {
+
+    @Test
+    public void batchesBySizeInsteadOfLineCount() {
+        List<String> messages = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            messages.add("short line " + i);
+        }
+
+        List<String> batches = LogBatchSizer.divide(messages);
+
+        // A thousand short lines fit into a single request
+        assertEquals(1, batches.size());
+        assertEquals(1000, batches.get(0).split("\n").length);
+    }
+
+    @Test
+    public void splitsOverlongLinesOnCharacterBoundaries() {
+        StringBuilder builder = new StringBuilder();
+        while (builder.length() < LogBatchSizer.getBatchBytes()) {
+            builder.append("żółw ");
+        }
+        String longLine = builder.toString();
+
+        List<String> batches = LogBatchSizer.divide(Arrays.asList("before", longLine, "after"));
+
+        StringBuilder joined = new StringBuilder();
+        for (String batch : batches) {
+            assertTrue(batch.getBytes(StandardCharsets.UTF_8).length <= LogBatchSizer.getBatchBytes());
+            assertTrue(batch.indexOf('\uFFFD') < 0);
+            joined.append(batch.replace("\n", ""));
+        }
+        assertEquals("before" + longLine + "after", joined.toString());
+    }
+
+    @Test
+    public void scalesCompressedBudgetByRatio() {
+        assertEquals(1000, LogBatchSizer.getBatchBytes(LogBatchSizer.Budget.UNCOMPRESSED, 1000, 5000, 0.1));
+        assertEquals(5000, LogBatchSizer.getBatchBytes(LogBatchSizer.Budget.COMPRESSED, 1000, 5000, 0.1));
+        assertEquals(2000, LogBatchSizer.getBatchBytes(LogBatchSizer.Budget.COMPRESSED, 1000, 5000, 0.5));
+        assertEquals(1000, LogBatchSizer.getBatchBytes(LogBatchSizer.Budget.COMPRESSED, 1000, 5000, 2.0));
+    }
+
+    @Test
+    public void neverCutsInsideCharacter() {
+        byte[] bytes = "aż".getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(1, LogBatchSizer.splitPoint(bytes, 0, 2));
+        assertEquals(1, LogBatchSizer.splitPoint(bytes, 0, 1));
+    }
+}
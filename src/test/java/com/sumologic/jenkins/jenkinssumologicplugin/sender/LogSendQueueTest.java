@@ -0,0 +1,132 @@
+package com.sumologic.jenkins.jenkinssumologicplugin.sender;
+
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.when;
+
+public class LogSendQueueTest {
+
+    @Test
+    public void sendsQueuedPayloads() throws Exception {
+        LogSender logSender = Mockito.mock(LogSender.class);
+        LogSendQueue queue = new LogSendQueue(logSender, spool(true), 10, 10, 1, LogSendQueue.OverflowPolicy.DROP, 0);
+
+        assertTrue(queue.offer(payload("first")));
+        assertTrue(queue.offer(payload("second")));
+
+        Mockito.verify(logSender, timeout(5000).times(2)).sendLogs(any(), any(), any(), any(), any(), any(), any());
+        assertEquals(2, queue.getEnqueuedCount());
+        assertEquals(0, queue.getDroppedCount());
+        queue.shutdown(1, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void spoolsWhenFullWithoutWaitingForTheSpool() throws Exception {
+        LogSender logSender = Mockito.mock(LogSender.class);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return true;
+        }).when(logSender).sendLogs(any(), any(), any(), any(), any(), any(), any());
+        LogSpool logSpool = spool(true);
+        CountDownLatch spooling = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            spooling.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(logSpool).append(any(LogPayload.class));
+
+        LogSendQueue queue = new LogSendQueue(logSender, logSpool, 1, 1, 1, LogSendQueue.OverflowPolicy.DROP, 0);
+        assertTrue(queue.offer(payload("in flight")));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertTrue(queue.offer(payload("queued")));
+        // The spool thread takes the first overflow and is held up writing it, the second waits in the buffer
+        assertFalse(queue.offer(payload("spooling")));
+        assertTrue(spooling.await(5, TimeUnit.SECONDS));
+        assertFalse(queue.offer(payload("buffered")));
+        assertFalse(queue.offer(payload("dropped")));
+        assertEquals(0, queue.getSpooledCount());
+        assertEquals(1, queue.getDroppedCount());
+
+        release.countDown();
+        Mockito.verify(logSpool, timeout(5000).times(2)).append(any(LogPayload.class));
+        queue.shutdown(1, TimeUnit.SECONDS);
+        assertEquals(2, queue.getSpooledCount());
+        assertEquals(1, queue.getDroppedCount());
+    }
+
+    @Test
+    public void dropsWhenFullWithoutSpool() throws Exception {
+        LogSender logSender = Mockito.mock(LogSender.class);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return true;
+        }).when(logSender).sendLogs(any(), any(), any(), any(), any(), any(), any());
+        LogSpool logSpool = spool(false);
+
+        LogSendQueue queue = new LogSendQueue(logSender, logSpool, 1, 10, 1, LogSendQueue.OverflowPolicy.DROP, 0);
+        assertTrue(queue.offer(payload("in flight")));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertTrue(queue.offer(payload("queued")));
+        assertFalse(queue.offer(payload("dropped")));
+
+        assertEquals(1, queue.getDroppedCount());
+        assertEquals(0, queue.getSpooledCount());
+        release.countDown();
+        queue.shutdown(1, TimeUnit.SECONDS);
+        Mockito.verify(logSpool, Mockito.never()).append(any(LogPayload.class));
+    }
+
+    @Test
+    public void shutdownStopsTheWorkersAndSpoolsWhatIsLeft() throws Exception {
+        LogSender logSender = Mockito.mock(LogSender.class);
+        CountDownLatch started = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            started.countDown();
+            // Only returns early when the worker is interrupted
+            new CountDownLatch(1).await(30, TimeUnit.SECONDS);
+            return true;
+        }).when(logSender).sendLogs(any(), any(), any(), any(), any(), any(), any());
+        LogSpool logSpool = spool(true);
+
+        LogSendQueue queue = new LogSendQueue(logSender, logSpool, 10, 10, 1, LogSendQueue.OverflowPolicy.DROP, 0);
+        assertTrue(queue.offer(payload("in flight")));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertTrue(queue.offer(payload("left behind")));
+
+        long start = System.currentTimeMillis();
+        queue.shutdown(100, TimeUnit.MILLISECONDS);
+        assertTrue(System.currentTimeMillis() - start < 5000);
+
+        assertEquals(0, queue.getQueueSize());
+        assertEquals(1, queue.getSpooledCount());
+        Mockito.verify(logSpool).append(any(LogPayload.class));
+        Mockito.verify(logSender, Mockito.times(1)).sendLogs(any(), any(), any(), any(), any(), any(), any());
+        assertFalse(queue.offer(payload("after shutdown")));
+    }
+
+    private static LogSpool spool(boolean enabled) {
+        LogSpool logSpool = Mockito.mock(LogSpool.class);
+        when(logSpool.isEnabled()).thenReturn(enabled);
+        return logSpool;
+    }
+
+    private static LogPayload payload(String data) {
+        return new LogPayload("http://localhost/test", data.getBytes(), null, "category", null, null, null);
+    }
+}
@@ -0,0 +1,36 @@
+package com.sumologic.jenkins.jenkinssumologicplugin.sender;
+
+import com.sumologic.jenkins.jenkinssumologicplugin.BaseTest;
+import com.sumologic.jenkins.jenkinssumologicplugin.PluginDescriptorImpl;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.protocol.HttpContext;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class LogSenderTest extends BaseTest {
+
+    @Test
+    public void rejectedPayloadsDoNotOpenTheCircuit() throws Exception {
+        Mockito.doAnswer(invocation -> {
+            HttpResponse response = invocation.getArgument(1);
+            response.setStatusCode(400);
+            return null;
+        }).when(handler).handle(Mockito.isA(HttpRequest.class), Mockito.isA(HttpResponse.class),
+                Mockito.isA(HttpContext.class));
+        String url = j.jenkins.getDescriptorByType(PluginDescriptorImpl.class).getUrl();
+
+        LogSender logSender = LogSender.getInstance();
+        for (int i = 0; i < 10; i++) {
+            assertFalse(logSender.sendWithoutSpooling(url, "malformed".getBytes(StandardCharsets.UTF_8), null, null,
+                    null, null, null));
+        }
+
+        assertEquals(CircuitBreaker.State.CLOSED, logSender.getCircuitState(url));
+    }
+}
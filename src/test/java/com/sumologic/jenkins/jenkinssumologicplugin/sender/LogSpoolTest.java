@@ -0,0 +1,162 @@
+package com.sumologic.jenkins.jenkinssumologicplugin.sender;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.io.File;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.when;
+
+public class LogSpoolTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void replaysSpooledPayloadsOnceEndpointRecovers() throws Exception {
+        File directory = folder.newFolder("spool");
+        LogSender logSender = Mockito.mock(LogSender.class);
+        LogSpool spool = new LogSpool(directory, logSender, 0);
+
+        spool.append("http://localhost/test", "first".getBytes(), "name", "category", null, null, null);
+        spool.append("http://localhost/test", "second".getBytes(), null, "category", null, null, "host");
+        assertEquals(2, spool.getSpooledCount());
+        assertTrue(spool.getDepthBytes() > 0);
+
+        when(logSender.sendCompressed(any(), any(), any(), any(), any(), any(), any())).thenReturn(LogSender.Outcome.FAILED);
+        spool.replay();
+        assertEquals(0, spool.getReplayedCount());
+        assertEquals(1, spool.getSegmentCount());
+
+        when(logSender.sendCompressed(any(), any(), any(), any(), any(), any(), any())).thenReturn(LogSender.Outcome.SENT);
+        spool.replay();
+        assertEquals(2, spool.getReplayedCount());
+        assertEquals(0, spool.getSegmentCount());
+        assertEquals(0, spool.getDepthBytes());
+
+        ArgumentCaptor<byte[]> captor = ArgumentCaptor.forClass(byte[].class);
+        Mockito.verify(logSender, times(2)).sendCompressed(eq("http://localhost/test"), captor.capture(), any(),
+                eq("category"), any(), any(), any());
+        assertArrayEquals("first".getBytes(), captor.getAllValues().get(0));
+    }
+
+    @Test
+    public void doesNotEvictTheSegmentBeingReplayed() throws Exception {
+        File directory = folder.newFolder("spool");
+        LogSender logSender = Mockito.mock(LogSender.class);
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(logSender.sendCompressed(any(), any(), any(), any(), any(), any(), any())).thenAnswer(invocation -> {
+            sending.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return LogSender.Outcome.SENT;
+        });
+        // Every segment but the one written to is over the cap
+        LogSpool spool = new LogSpool(directory, logSender, 0, 1);
+        spool.append("http://localhost/test", "first".getBytes(), null, "category", null, null, null);
+
+        Thread replayer = new Thread(spool::replay);
+        replayer.start();
+        assertTrue(sending.await(5, TimeUnit.SECONDS));
+        spool.append("http://localhost/test", "second".getBytes(), null, "category", null, null, null);
+        assertEquals(2, spool.getSegmentCount());
+        assertEquals(0, spool.getEvictedCount());
+
+        release.countDown();
+        replayer.join(5000);
+        assertEquals(1, spool.getReplayedCount());
+        assertEquals(1, spool.getSegmentCount());
+    }
+
+    @Test
+    public void reportsTheReplayLag() throws Exception {
+        File directory = folder.newFolder("spool");
+        LogSender logSender = Mockito.mock(LogSender.class);
+        LogSpool spool = new LogSpool(directory, logSender, 0);
+        assertEquals(0, spool.getReplayLagMillis());
+
+        spool.append("http://localhost/test", "first".getBytes(), null, "category", null, null, null);
+        Thread.sleep(50);
+        when(logSender.sendCompressed(any(), any(), any(), any(), any(), any(), any())).thenReturn(LogSender.Outcome.FAILED);
+        spool.replay();
+        assertTrue(spool.getReplayLagMillis() >= 50);
+
+        // A spool that is opened again picks up the lag of the records it holds
+        assertTrue(new LogSpool(directory, logSender, 0).getReplayLagMillis() >= 50);
+
+        when(logSender.sendCompressed(any(), any(), any(), any(), any(), any(), any())).thenReturn(LogSender.Outcome.SENT);
+        spool.replay();
+        assertEquals(0, spool.getReplayLagMillis());
+    }
+
+    @Test
+    public void skipsRejectedPayloads() throws Exception {
+        File directory = folder.newFolder("spool");
+        LogSender logSender = Mockito.mock(LogSender.class);
+        LogSpool spool = new LogSpool(directory, logSender, 0);
+
+        spool.append("http://localhost/test", "malformed".getBytes(), null, "category", null, null, null);
+        spool.append("http://localhost/test", "second".getBytes(), null, "category", null, null, null);
+
+        when(logSender.sendCompressed(any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(LogSender.Outcome.REJECTED, LogSender.Outcome.SENT);
+        spool.replay();
+        assertEquals(1, spool.getRejectedCount());
+        assertEquals(1, spool.getReplayedCount());
+        assertEquals(0, spool.getSegmentCount());
+    }
+
+    @Test
+    public void resumesFromTheLastSavedOffset() throws Exception {
+        File directory = folder.newFolder("spool");
+        LogSender logSender = Mockito.mock(LogSender.class);
+        LogSpool spool = new LogSpool(directory, logSender, 0);
+        for (int i = 0; i < 60; i++) {
+            spool.append("http://localhost/test", ("record " + i).getBytes(), null, "category", null, null, null);
+        }
+
+        // The replayer dies after 55 records without getting to save its offset, e.g. Jenkins is killed
+        AtomicInteger sent = new AtomicInteger();
+        when(logSender.sendCompressed(any(), any(), any(), any(), any(), any(), any())).thenAnswer(invocation -> {
+            if (sent.incrementAndGet() > 55) {
+                throw new IllegalStateException("killed");
+            }
+            return LogSender.Outcome.SENT;
+        });
+        spool.replay();
+        assertEquals(55, spool.getReplayedCount());
+
+        LogSender restarted = Mockito.mock(LogSender.class);
+        when(restarted.sendCompressed(any(), any(), any(), any(), any(), any(), any())).thenReturn(LogSender.Outcome.SENT);
+        LogSpool reopened = new LogSpool(directory, restarted, 0);
+        reopened.replay();
+
+        // Only the records after the offset saved every 50 records are sent again
+        assertEquals(10, reopened.getReplayedCount());
+        assertEquals(0, reopened.getSegmentCount());
+    }
+
+    @Test
+    public void disabledWithoutDirectory() {
+        LogSender logSender = Mockito.mock(LogSender.class);
+        LogSpool spool = new LogSpool(null, logSender, 0);
+
+        spool.append("http://localhost/test", "first".getBytes(), null, "category", null, null, null);
+        spool.replay();
+
+        assertEquals(0, spool.getSpooledCount());
+        Mockito.verifyZeroInteractions(logSender);
+    }
+}
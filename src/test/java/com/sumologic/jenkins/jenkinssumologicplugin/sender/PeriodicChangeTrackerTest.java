@@ -0,0 +1,81 @@
+package com.sumologic.jenkins.jenkinssumologicplugin.sender;
+
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static com.sumologic.jenkins.jenkinssumologicplugin.sender.PeriodicChangeTracker.fingerprint;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PeriodicChangeTrackerTest {
+
+    @Test
+    public void sendsNewAndChangedEntitiesAndKeyframes() {
+        PeriodicChangeTracker tracker = new PeriodicChangeTracker(3);
+
+        tracker.startCycle();
+        assertTrue(tracker.isKeyframe());
+        assertTrue(tracker.changed("agent-1", fingerprint("online", 2)));
+        assertTrue(tracker.changed("agent-2", fingerprint("online", 4)));
+        assertTrue(tracker.endCycle().isEmpty());
+
+        tracker.startCycle();
+        assertFalse(tracker.isKeyframe());
+        assertFalse(tracker.changed("agent-1", fingerprint("online", 2)));
+        assertTrue(tracker.changed("agent-2", fingerprint("offline", 0)));
+        assertTrue(tracker.changed("agent-3", fingerprint("online", 1)));
+        assertTrue(tracker.endCycle().isEmpty());
+
+        tracker.startCycle();
+        assertFalse(tracker.changed("agent-1", fingerprint("online", 2)));
+        assertFalse(tracker.changed("agent-3", fingerprint("online", 1)));
+        assertEquals(Collections.singleton("agent-2"), tracker.endCycle());
+
+        tracker.startCycle();
+        assertTrue(tracker.isKeyframe());
+        assertTrue(tracker.changed("agent-1", fingerprint("online", 2)));
+    }
+
+    @Test
+    public void sendsEverythingAfterReset() {
+        PeriodicChangeTracker tracker = new PeriodicChangeTracker(10);
+        tracker.startCycle();
+        tracker.changed("1", fingerprint("a"));
+        tracker.endCycle();
+
+        tracker.reset();
+        tracker.startCycle();
+        assertTrue(tracker.isKeyframe());
+        assertTrue(tracker.changed("1", fingerprint("a")));
+    }
+
+    @Test
+    public void keepsUnseenEntitiesAfterPartialCycle() {
+        PeriodicChangeTracker tracker = new PeriodicChangeTracker(10);
+        tracker.startCycle();
+        tracker.changed("1", fingerprint("a"));
+        tracker.changed("2", fingerprint("b"));
+        tracker.endCycle();
+
+        tracker.startCycle();
+        assertTrue(tracker.changed("1", fingerprint("c")));
+        tracker.endPartialCycle();
+
+        tracker.startCycle();
+        assertFalse(tracker.isKeyframe());
+        assertFalse(tracker.changed("1", fingerprint("c")));
+        assertFalse(tracker.changed("2", fingerprint("b")));
+        assertTrue(tracker.endCycle().isEmpty());
+    }
+
+    @Test
+    public void fingerprintsSeparateValues() {
+        assertEquals(fingerprint("ab", "c"), fingerprint("ab", "c"));
+        assertNotEquals(fingerprint("ab", "c"), fingerprint("a", "bc"));
+        assertNotEquals(fingerprint((Object) null), fingerprint(""));
+        assertNotEquals(fingerprint(true, 1), fingerprint(true, 2));
+    }
+}
@@ -0,0 +1,68 @@
+package com.sumologic.jenkins.jenkinssumologicplugin.sender;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PeriodicSchedulerTest {
+
+    @Test
+    public void runsEachStreamOnItsOwnInterval() throws Exception {
+        PeriodicScheduler scheduler = new PeriodicScheduler("Test");
+        CountDownLatch fast = new CountDownLatch(5);
+        AtomicInteger slow = new AtomicInteger();
+        scheduler.schedule("fast", 20, 0, fast::countDown);
+        scheduler.schedule("slow", 60000, 0, slow::incrementAndGet);
+
+        assertTrue(fast.await(5, TimeUnit.SECONDS));
+        assertEquals(1, slow.get());
+        assertTrue(scheduler.isScheduled("fast"));
+
+        scheduler.cancelAll();
+        assertFalse(scheduler.isScheduled("fast"));
+        assertFalse(scheduler.isScheduled("slow"));
+    }
+
+    @Test
+    public void skipsTicksWhileTheCycleIsRunning() throws Exception {
+        PeriodicScheduler scheduler = new PeriodicScheduler("Test");
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger cycles = new AtomicInteger();
+        scheduler.schedule("blocked", 20, 0, () -> {
+            cycles.incrementAndGet();
+            release.await();
+        });
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (scheduler.getSkippedCount("blocked") < 3 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(scheduler.getSkippedCount("blocked") >= 3);
+        assertEquals(1, cycles.get());
+
+        release.countDown();
+        scheduler.cancelAll();
+    }
+
+    @Test
+    public void interruptsACycleAfterItsTimeout() throws Exception {
+        PeriodicScheduler scheduler = new PeriodicScheduler("Test");
+        CountDownLatch interrupted = new CountDownLatch(1);
+        scheduler.schedule("stuck", 60000, 50, () -> {
+            try {
+                Thread.sleep(10000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+        });
+
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        scheduler.cancelAll();
+    }
+}
@@ -0,0 +1,60 @@
+package com.sumologic.jenkins.jenkinssumologicplugin.sender;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RetryPolicyTest {
+
+    @Test
+    public void classifiesStatusCodes() {
+        RetryPolicy retryPolicy = new RetryPolicy(4, 100, 1000, 10000);
+
+        assertTrue(retryPolicy.isRetryable(429));
+        assertTrue(retryPolicy.isRetryable(503));
+        assertTrue(retryPolicy.isRetryable(-1));
+        assertFalse(retryPolicy.isRetryable(400));
+        assertFalse(retryPolicy.isRetryable(401));
+    }
+
+    @Test
+    public void delaysStayWithinBoundsAndHonorRetryAfter() {
+        RetryPolicy retryPolicy = new RetryPolicy(4, 100, 1000, 10000);
+
+        long delay = 0;
+        for (int i = 0; i < 20; i++) {
+            delay = retryPolicy.nextDelay(delay, -1);
+            assertTrue(delay >= 100 && delay <= 1000);
+        }
+        assertEquals(5000, retryPolicy.nextDelay(100, 5000));
+        assertEquals(2000, RetryPolicy.parseRetryAfter("2"));
+        assertEquals(-1, RetryPolicy.parseRetryAfter("soon"));
+    }
+
+    @Test
+    public void capsAttemptsAndElapsedTime() {
+        RetryPolicy retryPolicy = new RetryPolicy(3, 100, 1000, 2000);
+
+        assertTrue(retryPolicy.canRetry(1, 0, 500));
+        assertFalse(retryPolicy.canRetry(3, 0, 500));
+        assertFalse(retryPolicy.canRetry(1, 1800, 500));
+    }
+
+    @Test
+    public void circuitOpensAfterConsecutiveFailures() throws Exception {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(2, 50);
+
+        circuitBreaker.recordFailure();
+        assertTrue(circuitBreaker.allowRequest());
+        circuitBreaker.recordFailure();
+        assertFalse(circuitBreaker.allowRequest());
+
+        Thread.sleep(60);
+        assertTrue(circuitBreaker.allowRequest());
+        assertFalse(circuitBreaker.allowRequest());
+        circuitBreaker.recordSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+}
@@ -17,7 +17,7 @@ import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
-import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.timeout;
 
 public class SumoBuildNotifierTest extends BaseTest {
 
@@ -36,7 +36,7 @@ public class SumoBuildNotifierTest extends BaseTest {
 
         FreeStyleBuild build = project.scheduleBuild2(0).get();
 
-        Mockito.verify(handler, atLeast(1)).handle(
+        Mockito.verify(handler, timeout(5000).atLeast(1)).handle(
                 captor.capture(),
                 Mockito.isA(HttpResponse.class),
                 Mockito.isA(HttpContext.class));
@@ -50,13 +50,31 @@ public class SumoBuildNotifierTest extends BaseTest {
         j.jenkins.getDescriptorByType(PluginDescriptorImpl.class).setJobConsoleLogEnabled(true);
     }
 
+    @Test
+    public void testStreamConsoleLogs() throws Exception {
+        j.jenkins.getDescriptorByType(PluginDescriptorImpl.class).setJobConsoleLogStreamingEnabled(true);
+
+        FreeStyleProject project = j.createFreeStyleProject("streaming");
+        project.getBuildersList().add(new Shell("echo Hello world for sumo console streaming"));
+
+        j.buildAndAssertSuccess(project);
+
+        Mockito.verify(handler, timeout(5000).atLeast(1)).handle(
+                Mockito.argThat(request -> request.containsHeader("X-Sumo-Name")
+                        && "streaming#1".equals(request.getFirstHeader("X-Sumo-Name").getValue())),
+                Mockito.isA(HttpResponse.class),
+                Mockito.isA(HttpContext.class));
+
+        j.jenkins.getDescriptorByType(PluginDescriptorImpl.class).setJobConsoleLogStreamingEnabled(false);
+    }
+
     @Test
     public void testSendJenkinsData() throws Exception {
         ArgumentCaptor<HttpRequest> captor = ArgumentCaptor.forClass(HttpRequest.class);
         SumoPeriodicPublisher publisher = new SumoPeriodicPublisher();
         publisher.execute(Mockito.mock(TaskListener.class));
 
-        Mockito.verify(handler, atLeast(1)).handle(
+        Mockito.verify(handler, timeout(5000).atLeast(1)).handle(
                 captor.capture(),
                 Mockito.isA(HttpResponse.class),
                 Mockito.isA(HttpContext.class));
@@ -1,6 +1,7 @@
 package com.sumologic.jenkins.jenkinssumologicplugin.sender;
 
 import com.sumologic.jenkins.jenkinssumologicplugin.BaseTest;
+import com.sumologic.jenkins.jenkinssumologicplugin.PluginDescriptorImpl;
 import hudson.model.FreeStyleProject;
 import hudson.model.Label;
 import hudson.model.PeriodicWork;
@@ -15,10 +16,19 @@ import org.jvnet.hudson.test.TouchBuilder;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.junit.Assert.assertEquals;
-import static org.mockito.Mockito.atLeast;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.timeout;
 
 public class SumoPeriodicPublisherTest extends BaseTest {
 
@@ -34,7 +44,7 @@ public class SumoPeriodicPublisherTest extends BaseTest {
 
         sumoPeriodicPublisher.execute(TaskListener.NULL);
 
-        Mockito.verify(handler, atLeast(1)).handle(
+        Mockito.verify(handler, timeout(5000).atLeast(1)).handle(
                 captor.capture(),
                 Mockito.isA(HttpResponse.class),
                 Mockito.isA(HttpContext.class));
@@ -45,6 +55,86 @@ public class SumoPeriodicPublisherTest extends BaseTest {
 
     }
 
+    @Test
+    public void forEachInParallelHandsOverEveryResult() throws Exception {
+        List<Integer> items = IntStream.range(0, 150).boxed().collect(Collectors.toList());
+        List<Integer> results = new ArrayList<>();
+
+        assertTrue(SumoPeriodicPublisher.forEachInParallel(SumoPeriodicPublisher.buildExecutor, items, item -> item * 2, results::add, 10000));
+        assertEquals(150, results.size());
+        assertEquals(items.stream().mapToInt(item -> item * 2).sum(), results.stream().mapToInt(Integer::intValue).sum());
+    }
+
+    @Test
+    public void forEachInParallelStopsAtTheTimeout() throws Exception {
+        List<Integer> items = IntStream.range(0, 150).boxed().collect(Collectors.toList());
+        List<Integer> results = new ArrayList<>();
+
+        assertFalse(SumoPeriodicPublisher.forEachInParallel(SumoPeriodicPublisher.buildExecutor, items, item -> {
+            if (item == 7) {
+                try {
+                    Thread.sleep(10000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return item;
+        }, results::add, 500));
+        assertEquals(149, results.size());
+    }
+
+    @Test
+    public void nodeAndBuildScansRunTogether() throws Exception {
+        List<Integer> items = IntStream.range(0, 150).boxed().collect(Collectors.toList());
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger nodes = new AtomicInteger();
+        Thread nodeScan = new Thread(() -> {
+            try {
+                // Every node thread waits, with the other node tasks queued behind them
+                nodes.set(SumoPeriodicPublisher.mapInParallel(SumoPeriodicPublisher.nodeExecutor, items, item -> {
+                    try {
+                        release.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return item;
+                }).size());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        nodeScan.start();
+
+        List<Integer> builds = new ArrayList<>();
+        try {
+            assertTrue(SumoPeriodicPublisher.forEachInParallel(SumoPeriodicPublisher.buildExecutor, items,
+                    item -> item, builds::add, 5000));
+            assertEquals(150, builds.size());
+        } finally {
+            release.countDown();
+            nodeScan.join(10000);
+        }
+        assertEquals(150, nodes.get());
+    }
+
+    @Test
+    public void schedulesEachEnabledStream() {
+        SumoPeriodicPublisher sumoPeriodicPublisher = PeriodicWork.all().get(SumoPeriodicPublisher.class);
+        PluginDescriptorImpl pluginDescriptor = j.jenkins.getDescriptorByType(PluginDescriptorImpl.class);
+        pluginDescriptor.setPeriodicQueueEnabled(false);
+        pluginDescriptor.setPeriodicBuildsInterval(30);
+
+        sumoPeriodicPublisher.applySchedules(pluginDescriptor);
+        assertTrue(SumoPeriodicPublisher.isScheduled(SumoPeriodicPublisher.NODES_STREAM));
+        assertFalse(SumoPeriodicPublisher.isScheduled(SumoPeriodicPublisher.QUEUE_STREAM));
+        assertTrue(SumoPeriodicPublisher.isScheduled(SumoPeriodicPublisher.RUNNING_BUILDS_STREAM));
+
+        pluginDescriptor.setPeriodicLogEnabled(false);
+        sumoPeriodicPublisher.applySchedules(pluginDescriptor);
+        assertFalse(SumoPeriodicPublisher.isScheduled(SumoPeriodicPublisher.NODES_STREAM));
+        assertFalse(SumoPeriodicPublisher.isScheduled(SumoPeriodicPublisher.RUNNING_BUILDS_STREAM));
+    }
+
     @Test
     public void getRecurrencePeriod() throws Exception {
         long period = PeriodicWork.all().get(SumoPeriodicPublisher.class).getRecurrencePeriod();
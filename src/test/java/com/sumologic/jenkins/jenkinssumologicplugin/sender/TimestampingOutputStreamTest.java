@@ -0,0 +1,37 @@
+package com.sumologic.jenkins.jenkinssumologicplugin.sender;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TimestampingOutputStreamTest {
+
+    @Test
+    public void detectsContinuationLines() {
+        assertTrue(shouldPutTimestamp("Started by user admin\n"));
+        assertTrue(shouldPutTimestamp("été\n"));
+        assertFalse(shouldPutTimestamp("\tat java.lang.Thread.run(Thread.java:748)\n"));
+        assertFalse(shouldPutTimestamp("　indented\n"));
+        assertFalse(TimestampingOutputStream.shouldPutTimestamp(new byte[0], 0));
+    }
+
+    @Test
+    public void reusesTimestampWithinMillisecond() {
+        TimestampingOutputStream.CachedTimestamp timestamp = new TimestampingOutputStream.CachedTimestamp("job#1 ");
+
+        byte[] first = timestamp.get();
+        byte[] again = timestamp.get();
+        // A new array is only built once the clock has moved to the next millisecond
+        assertTrue(again == first || !Arrays.equals(again, first));
+        assertTrue(new String(again, StandardCharsets.UTF_8).endsWith("] job#1 "));
+    }
+
+    private static boolean shouldPutTimestamp(String line) {
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        return TimestampingOutputStream.shouldPutTimestamp(bytes, bytes.length);
+    }
+}
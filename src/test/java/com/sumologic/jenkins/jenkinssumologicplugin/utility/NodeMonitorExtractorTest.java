@@ -0,0 +1,51 @@
+package com.sumologic.jenkins.jenkinssumologicplugin.utility;
+
+import hudson.node_monitors.DiskSpaceMonitorDescriptor;
+import hudson.util.ClockDifference;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class NodeMonitorExtractorTest {
+
+    @Test
+    public void takesTheThirdPartOfTheKeyAsMonitorName() {
+        assertEquals("DiskSpaceMonitor", NodeMonitorExtractor.monitorName("hudson.node_monitors.DiskSpaceMonitor"));
+        assertEquals("monitors", NodeMonitorExtractor.monitorName("com.example.monitors.CustomMonitor"));
+        assertEquals("Custom", NodeMonitorExtractor.monitorName("Custom"));
+    }
+
+    @Test
+    public void stripsTheWarningMarkup() {
+        assertEquals("1.5 GB", NodeMonitorExtractor.toText(new LowDiskSpace()));
+        assertEquals("x86_64", NodeMonitorExtractor.toText("x86_64"));
+    }
+
+    @Test
+    public void readsTypedValues() {
+        Map<String, Number> values = new HashMap<>();
+        NodeMonitorExtractor.putValues("DiskSpaceMonitor", new DiskSpaceMonitorDescriptor.DiskSpace("/", 1024L), values);
+        NodeMonitorExtractor.putValues("TemporarySpaceMonitor", new DiskSpaceMonitorDescriptor.DiskSpace("/tmp", 512L), values);
+        NodeMonitorExtractor.putValues("ClockMonitor", new ClockDifference(-250L), values);
+        NodeMonitorExtractor.putValues("ArchitectureMonitor", "Linux (amd64)", values);
+
+        assertEquals(1024L, values.get(NodeMonitorExtractor.FREE_DISK_SPACE));
+        assertEquals(512L, values.get(NodeMonitorExtractor.FREE_TEMP_SPACE));
+        assertEquals(-250L, values.get(NodeMonitorExtractor.CLOCK_DIFFERENCE));
+        assertEquals(3, values.size());
+
+        values.clear();
+        NodeMonitorExtractor.putValues("DiskSpaceMonitor", new DiskSpaceMonitorDescriptor.DiskSpace("/", -1L), values);
+        assertTrue(values.isEmpty());
+    }
+
+    public static class LowDiskSpace {
+        public String toHtml() {
+            return "<span class=error style='display:inline-block'>1.5 GB</span>";
+        }
+    }
+}
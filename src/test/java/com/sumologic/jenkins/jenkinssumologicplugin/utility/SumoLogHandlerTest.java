@@ -2,12 +2,21 @@ package com.sumologic.jenkins.jenkinssumologicplugin.utility;
 
 import com.sumologic.jenkins.jenkinssumologicplugin.BaseTest;
 import com.sumologic.jenkins.jenkinssumologicplugin.PluginDescriptorImpl;
+import com.sumologic.jenkins.jenkinssumologicplugin.sender.LogSendQueue;
+import com.sumologic.jenkins.jenkinssumologicplugin.sender.LogSender;
+import com.sumologic.jenkins.jenkinssumologicplugin.sender.LogSenderHelper;
+import com.sumologic.jenkins.jenkinssumologicplugin.sender.LogSpool;
+import com.sumologic.jenkins.jenkinssumologicplugin.sender.RetryPolicy;
+import com.sumologic.jenkins.jenkinssumologicplugin.sender.SumoPeriodicPublisher;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
 import java.util.logging.Logger;
 
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 public class SumoLogHandlerTest extends BaseTest {
@@ -37,4 +46,24 @@ public class SumoLogHandlerTest extends BaseTest {
             }
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void skipsRecordsOfTheSender() {
+        SumoLogHandler handler = new SumoLogHandler();
+        assertFalse(handler.isLoggable(record(LogSpool.class.getName())));
+        assertFalse(handler.isLoggable(record(LogSendQueue.class.getName())));
+        assertFalse(handler.isLoggable(record(RetryPolicy.class.getName())));
+        assertFalse(handler.isLoggable(record(LogSender.class.getName() + "$LogSenderHolder")));
+        assertTrue(handler.isLoggable(record(PluginDescriptorImpl.class.getName())));
+        // Other classes of the sender package are not on the send path
+        assertTrue(handler.isLoggable(record(SumoPeriodicPublisher.class.getName())));
+        assertTrue(handler.isLoggable(record(LogSenderHelper.class.getName())));
+    }
+
+    private static LogRecord record(String loggerName) {
+        LogRecord record = new LogRecord(Level.WARNING, "Sumo Logic is unreachable");
+        record.setLoggerName(loggerName);
+        record.setSourceClassName(loggerName);
+        return record;
+    }
+}
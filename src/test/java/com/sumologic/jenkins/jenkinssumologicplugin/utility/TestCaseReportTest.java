@@ -5,19 +5,32 @@ import com.sumologic.jenkins.jenkinssumologicplugin.PluginDescriptorImpl;
 import com.sumologic.jenkins.jenkinssumologicplugin.SumoBuildNotifier;
 import com.sumologic.jenkins.jenkinssumologicplugin.model.BuildModel;
 import com.sumologic.jenkins.jenkinssumologicplugin.model.TestCaseResultModel;
+import com.sumologic.jenkins.jenkinssumologicplugin.sender.LogSenderHelper;
 import hudson.model.FreeStyleProject;
 import hudson.model.Run;
 import hudson.tasks.junit.TestResult;
 import hudson.tasks.junit.TestResultAction;
 import hudson.tasks.test.AbstractTestResultAction;
+import hudson.tasks.test.AggregatedTestResultAction;
 import org.junit.Test;
+import org.mockito.Mockito;
 
 import java.io.File;
 import java.io.IOException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.when;
 
 public class TestCaseReportTest extends BaseTest {
 
@@ -41,6 +54,86 @@ public class TestCaseReportTest extends BaseTest {
         System.out.println(testCaseReport);
     }
 
+    @Test
+    public void filtersPassingTests() throws Exception {
+        FreeStyleProject project = j.createFreeStyleProject("FilteredJob");
+        Run build = project.scheduleBuild2(0).get();
+        build.addAction(new TestResultAction(build, createTestResult(), null));
+
+        assertEquals(6, TestCaseReport.caseResults(build).count());
+        assertEquals(1, TestCaseReport.caseResults(build)
+                .filter(TestCaseReport.reportFilter(TestCaseReport.Mode.FAILURES_ONLY, 0)).count());
+        assertEquals(1, TestCaseReport.caseResults(build)
+                .filter(TestCaseReport.reportFilter(TestCaseReport.Mode.SAMPLED, 0)).count());
+        assertEquals(6, TestCaseReport.caseResults(build)
+                .filter(TestCaseReport.reportFilter(TestCaseReport.Mode.SAMPLED, 1)).count());
+    }
+
+    @Test
+    public void sendsEveryChildReportInOrder() throws Exception {
+        FreeStyleProject project = j.createFreeStyleProject("AggregatedJob");
+        Run build = project.scheduleBuild2(0).get();
+        List<AggregatedTestResultAction.ChildReport> childReports = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Run child = project.scheduleBuild2(0).get();
+            TestResultAction childAction = new TestResultAction(child, createTestResult(), null);
+            child.addAction(childAction);
+            childReports.add(new AggregatedTestResultAction.ChildReport(child, childAction));
+        }
+        AggregatedTestResultAction aggregatedAction = Mockito.mock(AggregatedTestResultAction.class);
+        when(aggregatedAction.getChildReports()).thenReturn(childReports);
+        build.addAction(aggregatedAction);
+        BuildModel buildModel = new BuildModel();
+        CommonModelFactory.populateGeneric(buildModel, build, j.jenkins.getDescriptorByType(PluginDescriptorImpl.class), false);
+
+        List<Stream<TestCaseResultModel>> reports = TestCaseReport.streamTestCaseReports(build);
+        assertEquals(3, reports.size());
+        List<List<String>> sent = new ArrayList<>();
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        List<Stream<TestCaseResultModel>> recorded = new ArrayList<>();
+        for (Stream<TestCaseResultModel> report : reports) {
+            List<String> names = Collections.synchronizedList(new ArrayList<>());
+            sent.add(names);
+            recorded.add(report.peek(testCase -> {
+                names.add(testCase.getClassName() + "." + testCase.getTestName());
+                threads.add(Thread.currentThread().getName());
+            }));
+        }
+        LogSenderHelper.sendTestResults(recorded, buildModel);
+
+        for (int i = 0; i < childReports.size(); i++) {
+            List<String> expected = TestCaseReport.caseResults(childReports.get(i).run)
+                    .map(testCase -> testCase.getClassName() + "." + testCase.getName())
+                    .collect(Collectors.toList());
+            assertEquals(6, expected.size());
+            assertEquals(expected, sent.get(i));
+        }
+        assertFalse(threads.isEmpty());
+        for (String thread : threads) {
+            assertTrue(thread, thread.startsWith("Sumo Logic Test Result Sender"));
+        }
+    }
+
+    @Test
+    public void sendsSingleReportOnCallingThread() throws Exception {
+        FreeStyleProject project = j.createFreeStyleProject("SingleReportJob");
+        Run build = project.scheduleBuild2(0).get();
+        build.addAction(new TestResultAction(build, createTestResult(), null));
+        BuildModel buildModel = new BuildModel();
+        CommonModelFactory.populateGeneric(buildModel, build, j.jenkins.getDescriptorByType(PluginDescriptorImpl.class), false);
+
+        List<Stream<TestCaseResultModel>> reports = TestCaseReport.streamTestCaseReports(build);
+        assertEquals(1, reports.size());
+        List<Thread> threads = new ArrayList<>();
+        LogSenderHelper.sendTestResults(Collections.singletonList(reports.get(0).peek(testCase -> threads.add(Thread.currentThread()))),
+                buildModel);
+
+        assertEquals(6, threads.size());
+        for (Thread thread : threads) {
+            assertSame(Thread.currentThread(), thread);
+        }
+    }
+
     public static TestResult createTestResult() throws IOException {
         TestResult testResult = new TestResult();
 